@@ -0,0 +1,158 @@
+package project;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import project.DataStructures.Skyline;
+import project.Graphs.Graph;
+import project.Graphs.GraphSnapshot;
+import project.Graphs.ReversedGraph;
+import project.LowerBoundsCalculators.LowerBoundsCalculator;
+import project.LowerBoundsCalculators.LowerBoundsMethod;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Route skylines of many node pairs, as asked for by dbis.ARSCBatch. The pairs are grouped by their destination node,
+ * the lower bounds to a destination are computed once for its group and the pairs of a group are searched one after
+ * another. The groups are searched in parallel on a fork-join pool of as many threads as the "threads" procedure option
+ * gives, and their routes are streamed in the order the groups finish.
+ * <p>
+ * The Neo4j core API is bound to the transaction of the procedure, so the groups are searched by the thread that reads
+ * the stream unless the graph is the graph snapshot.
+ */
+public class ARSCBatch {
+    private final GraphDatabaseService db;
+    private final Graph graph;
+    private final List<String> labelConstraints;
+    private final double[] resourceConstraints;
+    private final Map<String, Object> options;
+    private final Map<String, Object> searchOptions;
+
+    public ARSCBatch(GraphDatabaseService db, Graph graph, List<String> labelConstraints, double[] resourceConstraints,
+                     Map<String, Object> options) {
+        this.db = db;
+        this.graph = graph;
+        this.labelConstraints = labelConstraints;
+        this.resourceConstraints = resourceConstraints;
+        this.options = options;
+        // the threads search the groups, each pair is searched by one of them
+        this.searchOptions = new HashMap<>(options == null ? Collections.emptyMap() : options);
+        this.searchOptions.remove(ParallelSearch.THREADS_OPTION_KEY);
+    }
+
+    /**
+     * Route skyline of a pair, whose labels end at the Neo4j id of the destination node.
+     */
+    public static class PairResult {
+        final int pairIndex;
+        final Skyline<Label> routeSkylines;
+
+        PairResult(int pairIndex, Skyline<Label> routeSkylines) {
+            this.pairIndex = pairIndex;
+            this.routeSkylines = routeSkylines;
+        }
+    }
+
+    /**
+     * Searches the pairs of graph node ids, the pair with index i goes from startNodeIds[i] to destinationNodeIds[i].
+     * The searches run while the stream is read and closing it cancels the remaining ones.
+     */
+    public Stream<PairResult> run(long[] startNodeIds, long[] destinationNodeIds) {
+        Map<Long, List<Integer>> groups = new LinkedHashMap<>();
+        for (int pairIndex = 0; pairIndex < destinationNodeIds.length; pairIndex++) {
+            groups.computeIfAbsent(destinationNodeIds[pairIndex], x -> new ArrayList<>()).add(pairIndex);
+        }
+        List<List<Integer>> pairIndexesByGroup = new ArrayList<>(groups.values());
+        int threadCount = Math.min(ParallelSearch.threadsOf(options), pairIndexesByGroup.size());
+        if (threadCount < 2 || !(graph instanceof GraphSnapshot)) {
+            return pairIndexesByGroup.stream()
+                    .flatMap(pairIndexes -> searchUnchecked(startNodeIds, destinationNodeIds, pairIndexes).stream());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        CompletionService<List<PairResult>> completionService = new ExecutorCompletionService<>(pool);
+        for (List<Integer> pairIndexes : pairIndexesByGroup) {
+            completionService.submit(() -> search(startNodeIds, destinationNodeIds, pairIndexes));
+        }
+        // the submitted groups are still searched
+        pool.shutdown();
+        return IntStream.range(0, pairIndexesByGroup.size())
+                .mapToObj(groupIndex -> takeUnchecked(completionService))
+                .flatMap(List::stream)
+                .onClose(pool::shutdownNow);
+    }
+
+    private List<PairResult> search(long[] startNodeIds, long[] destinationNodeIds, List<Integer> pairIndexes) throws IOException, ClassNotFoundException {
+        long destinationNodeId = destinationNodeIds[pairIndexes.get(0)];
+        // the lower bounds of every method depend on the destination node only
+        LowerBoundsMethod lowerBoundsMethod = LowerBoundsMethod.of(options, LowerBoundsMethod.PARETOPREP);
+        LowerBoundsCalculator lowerBoundsCalculator = lowerBoundsMethod.open(db, graph, labelConstraints,
+                startNodeIds[pairIndexes.get(0)], destinationNodeId);
+        List<PairResult> pairResults = new ArrayList<>(pairIndexes.size());
+        for (int pairIndex : pairIndexes) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Interrupted while searching the pairs of a destination.");
+            }
+            long startNodeId = startNodeIds[pairIndex];
+            PerformanceReporter performanceReporter = new PerformanceReporter();
+            Skyline<Label> routeSkylines;
+            if (BidirectionalSearch.isBidirectional(options)) {
+                LowerBoundsCalculator reversedLowerBoundsCalculator = lowerBoundsMethod.open(db, new ReversedGraph(graph),
+                        labelConstraints, destinationNodeId, startNodeId);
+                routeSkylines = new BidirectionalSearch(graph, startNodeId, destinationNodeId, resourceConstraints,
+                        lowerBoundsCalculator, reversedLowerBoundsCalculator, searchOptions, performanceReporter).run();
+            } else {
+                routeSkylines = new ForwardSearch(graph, startNodeId, destinationNodeId, resourceConstraints,
+                        lowerBoundsCalculator, searchOptions, performanceReporter).run();
+            }
+            for (Label route : routeSkylines) {
+                route.setLastNodeId(graph.toNeo4jNodeId((int) route.getLastNodeId()));
+            }
+            pairResults.add(new PairResult(pairIndex, routeSkylines));
+        }
+        return pairResults;
+    }
+
+    private List<PairResult> searchUnchecked(long[] startNodeIds, long[] destinationNodeIds, List<Integer> pairIndexes) {
+        try {
+            return search(startNodeIds, destinationNodeIds, pairIndexes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<PairResult> takeUnchecked(CompletionService<List<PairResult>> completionService) {
+        try {
+            return completionService.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for the pairs of a destination."));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) e.getCause());
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package project;
+
+import project.CacheManagers.CacheManagerType;
+import project.DataStructures.Skyline;
+import project.Graphs.EdgeCursor;
+import project.Graphs.Graph;
+import project.Graphs.ReversedGraph;
+import project.LowerBoundsCalculators.LowerBoundsCalculator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Bidirectional mode of ARSC, given by the "bidirectional" procedure option. A forward label search from the start
+ * node over outgoing edges and a backward label search from the destination node over incoming edges take turns, the
+ * one with the shorter queue goes first.
+ * <p>
+ * Each search settles its labels in the lexicographic order of their costs plus the lower bounds to the other end,
+ * the forward search beginning with the first criterion and the backward search with the last one, so they find the
+ * routes from the two ends of the route skyline. Each keeps the settled labels in the local skylines of its own local
+ * route skyline manager. A label is dropped if a settled label of its node dominates or equals it, or if the route
+ * skyline covers its costs plus the lower bounds (Pruning Criterion I). When a label is settled at a node, it is joined
+ * with the settled labels of the other search at that node into candidate routes, which are added to the route skyline
+ * unless they violate the resource constraints or are dominated.
+ * <p>
+ * Both start labels are settled first, so a route whose labels of one search are all settled has been joined at the
+ * other end. A route that is still to be found thus extends a queued label of both searches, and its costs are at
+ * least the larger of the smallest costs plus lower bounds of the two queues, compared per criterion. The next label of
+ * a queue gives that for the first criterion of its search, and the queues are scanned for the others after as many
+ * settled labels as they hold. The search stops as soon as the route skyline covers that bound, and a label is also
+ * dropped once the route skyline covers its costs plus the least costs a label of the other search at its node can
+ * still have. The routes are the Pareto set of the routes within the resource constraints, regardless of the order in
+ * which labels are settled.
+ */
+public class BidirectionalSearch {
+    public static final String BIDIRECTIONAL_OPTION_KEY = "bidirectional";
+
+    private final Skyline<Label> routeSkylines;
+    private final double[] resourceConstraints;
+    private final long destinationNodeId;
+    private final PerformanceReporter performanceReporter;
+    private final Frontier forward;
+    private final Frontier backward;
+
+    /**
+     * @param lowerBounds         lower bounds from the nodes to the destination node
+     * @param reversedLowerBounds lower bounds from the start node to the nodes, computed on the reversed graph
+     */
+    public BidirectionalSearch(Graph graph, long startNodeId, long destinationNodeId, double[] resourceConstraints,
+                               LowerBoundsCalculator lowerBounds, LowerBoundsCalculator reversedLowerBounds,
+                               Map<String, Object> options, PerformanceReporter performanceReporter) {
+        int criteriaCount = graph.propertyKeys().size();
+        this.routeSkylines = new Skyline<>(criteriaCount, Label::getCosts);
+        this.resourceConstraints = resourceConstraints;
+        this.destinationNodeId = destinationNodeId;
+        this.performanceReporter = performanceReporter;
+        // the two searches share the memory budget
+        long memoryBudget = MemoryGovernor.memoryBudgetOf(options) / 2;
+        this.forward = new Frontier(graph, startNodeId, destinationNodeId, lowerBounds, false, memoryBudget, options);
+        this.backward = new Frontier(new ReversedGraph(graph), destinationNodeId, startNodeId, reversedLowerBounds, true, memoryBudget, options);
+        this.forward.other = backward;
+        this.backward.other = forward;
+    }
+
+    /**
+     * Whether the "bidirectional" procedure option asks for the bidirectional mode, false by default.
+     */
+    public static boolean isBidirectional(Map<String, Object> options) {
+        if (options == null || options.get(BIDIRECTIONAL_OPTION_KEY) == null) {
+            return false;
+        }
+        return Boolean.parseBoolean(options.get(BIDIRECTIONAL_OPTION_KEY).toString());
+    }
+
+    /**
+     * Runs both searches and deletes their spill files.
+     *
+     * @return the route skyline, whose labels end at the destination node
+     */
+    public Skyline<Label> run() throws IOException, ClassNotFoundException {
+        try {
+            forward.offerStartLabel();
+            backward.offerStartLabel();
+            // the labels of either search join the start label of the other one at its end, which must be settled first
+            if (!forward.queue.isEmpty() && !backward.queue.isEmpty()) {
+                forward.settleNext();
+                backward.settleNext();
+            }
+            long settledCountSinceScan = 0;
+            while (!forward.queue.isEmpty() && !backward.queue.isEmpty() && !isComplete()) {
+                // the search with the shorter queue goes first
+                if (forward.queue.size() <= backward.queue.size()) {
+                    forward.settleNext();
+                } else {
+                    backward.settleNext();
+                }
+                if (++settledCountSinceScan >= forward.queue.size() + backward.queue.size()) {
+                    settledCountSinceScan = 0;
+                    forward.updateQueuedMinimum();
+                    backward.updateQueuedMinimum();
+                }
+            }
+        } finally {
+            forward.diskManager.deleteAllFiles();
+            backward.diskManager.deleteAllFiles();
+        }
+        return routeSkylines;
+    }
+
+    // whether the route skyline covers every route that extends a queued label of both searches
+    private boolean isComplete() {
+        double[] minimum = new double[forward.queuedMinimum.length];
+        for (int propertyIndex = 0; propertyIndex < minimum.length; propertyIndex++) {
+            minimum[propertyIndex] = Math.max(forward.queuedMinimum(propertyIndex), backward.queuedMinimum(propertyIndex));
+        }
+        return routeSkylines.isCovered(minimum);
+    }
+
+    /**
+     * Local route skyline manager of the forward search, for reporting.
+     */
+    public LocalRouteSkylineManager localRouteSkylineManager() {
+        return forward.localRouteSkylineManager;
+    }
+
+    private void join(Label forwardLabel, Label backwardLabel) {
+        double[] costs = forwardLabel.getCosts().clone();
+        for (int index = 0; index < costs.length; index++) {
+            costs[index] += backwardLabel.getCosts()[index];
+        }
+        double[] resources = forwardLabel.getResources().clone();
+        for (int index = 0; index < resources.length; index++) {
+            resources[index] += backwardLabel.getResources()[index];
+        }
+        Label route = new Label(destinationNodeId, costs, resources);
+        if (route.isValidByResourceConstraints(resourceConstraints) && !routeSkylines.contains(route)) {
+            routeSkylines.add(route);                                           // removes the routes it dominates
+        }
+    }
+
+    private static class QueuedLabel {
+        private final Label label;
+        // costs plus the lower bounds to the other end
+        private final double[] lowerBounds;
+
+        QueuedLabel(Label label, double[] lowerBounds) {
+            this.label = label;
+            this.lowerBounds = lowerBounds;
+        }
+    }
+
+    /**
+     * Label search of one direction.
+     */
+    private class Frontier {
+        private final Graph graph;
+        private final long startNodeId;
+        // the node the search runs to, labels there are not expanded further
+        private final long endNodeId;
+        private final LowerBoundsCalculator lowerBoundsCalculator;
+        private final boolean isBackward;
+        // the criterion the labels are ordered by first, the searches begin with different ones
+        private final int firstPropertyIndex;
+        private final DiskManager diskManager;
+        private final LocalRouteSkylineManager localRouteSkylineManager;
+        private final PriorityQueue<QueuedLabel> queue;
+        private final double[] combinedLb;
+        // lower bounds of the costs of the queued labels and the labels queued later, per criterion
+        private final double[] queuedMinimum;
+        private Frontier other;
+
+        Frontier(Graph graph, long startNodeId, long endNodeId, LowerBoundsCalculator lowerBoundsCalculator, boolean isBackward,
+                 long memoryBudget, Map<String, Object> options) {
+            int criteriaCount = graph.propertyKeys().size();
+            this.graph = graph;
+            this.startNodeId = startNodeId;
+            this.endNodeId = endNodeId;
+            this.lowerBoundsCalculator = lowerBoundsCalculator;
+            this.isBackward = isBackward;
+            this.firstPropertyIndex = isBackward ? criteriaCount - 1 : 0;
+            this.diskManager = new DiskManager(memoryBudget, DiskManager.spillDirectoryOf(options), DiskManager.spillBufferSizeOf(options));
+            this.localRouteSkylineManager = new LocalRouteSkylineManager(diskManager, CacheManagerType.of(options).create(), criteriaCount);
+            this.queue = new PriorityQueue<>(this::compare);
+            this.combinedLb = new double[criteriaCount];
+            this.queuedMinimum = new double[criteriaCount];
+        }
+
+        // lexicographic order of the costs plus the lower bounds, beginning with the first criterion of the search
+        private int compare(QueuedLabel queuedLabel, QueuedLabel otherQueuedLabel) {
+            for (int index = 0; index < queuedMinimum.length; index++) {
+                int propertyIndex = (firstPropertyIndex + index) % queuedMinimum.length;
+                int comparison = Double.compare(queuedLabel.lowerBounds[propertyIndex], otherQueuedLabel.lowerBounds[propertyIndex]);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return 0;
+        }
+
+        void offerStartLabel() throws IOException, ClassNotFoundException {
+            offer(new Label(startNodeId, queuedMinimum.length, resourceConstraints.length));
+        }
+
+        /**
+         * Settles the next label unless it is dominated or pruned, joins it with the settled labels of the other
+         * search at its node and queues its expansions.
+         */
+        void settleNext() throws IOException, ClassNotFoundException {
+            QueuedLabel queuedLabel = queue.poll();
+            Label subRoute = queuedLabel.label;
+            long nodeId = subRoute.getLastNodeId();
+            // the route skyline may have grown since the label was queued
+            if (isPruned(subRoute, queuedLabel.lowerBounds) || !localRouteSkylineManager.add(nodeId, subRoute)) {
+                return;
+            }
+            joinSettled(subRoute);
+            if (nodeId == endNodeId) {
+                return;
+            }
+            EdgeCursor edges = graph.outgoing((int) nodeId);
+            while (edges.next()) {
+                Label subRoutePrime = subRoute.expand(edges);
+                if (subRoutePrime.isValidByResourceConstraints(resourceConstraints)) {
+                    offer(subRoutePrime);
+                }
+            }
+        }
+
+        private void joinSettled(Label subRoute) throws IOException, ClassNotFoundException {
+            for (Label otherSubRoute : other.localRouteSkylineManager.get(subRoute.getLastNodeId())) {
+                if (isBackward) {
+                    join(otherSubRoute, subRoute);
+                } else {
+                    join(subRoute, otherSubRoute);
+                }
+            }
+        }
+
+        private void offer(Label subRoute) throws IOException, ClassNotFoundException {
+            long nodeId = subRoute.getLastNodeId();
+            double[] subRouteLb = new double[queuedMinimum.length];
+            for (int propertyIndex = 0; propertyIndex < subRouteLb.length; propertyIndex++) {
+                subRouteLb[propertyIndex] = subRoute.getCostByIndex(propertyIndex) + lowerBoundsCalculator.lowerBound((int) nodeId, propertyIndex);
+                // the other end cannot be reached from the node
+                if (Double.isInfinite(subRouteLb[propertyIndex])) {
+                    return;
+                }
+            }
+            // Pruning based on sub-route skyline criterion (Pruning Criterion II)
+            List<Label> localSkylineRoutes = localRouteSkylineManager.get(nodeId);
+            if (isPruned(subRoute, subRouteLb) || subRoute.isDominatedInRouteList(localSkylineRoutes) || localSkylineRoutes.contains(subRoute)) {
+                return;
+            }
+            queue.add(new QueuedLabel(subRoute, subRouteLb));
+        }
+
+        /**
+         * Lower bound of the costs of the queued labels and the labels queued later for the criterion. The queue is
+         * ordered by the first criterion of the search, so its next label gives that one.
+         */
+        double queuedMinimum(int propertyIndex) {
+            if (propertyIndex == firstPropertyIndex && !queue.isEmpty()) {
+                return Math.max(queuedMinimum[propertyIndex], queue.peek().lowerBounds[propertyIndex]);
+            }
+            return queuedMinimum[propertyIndex];
+        }
+
+        // the labels queued later extend settled labels, so the lower bounds are consistent and keep this bound
+        void updateQueuedMinimum() {
+            Arrays.fill(queuedMinimum, Double.POSITIVE_INFINITY);
+            for (QueuedLabel queuedLabel : queue) {
+                for (int propertyIndex = 0; propertyIndex < queuedMinimum.length; propertyIndex++) {
+                    queuedMinimum[propertyIndex] = Math.min(queuedMinimum[propertyIndex], queuedLabel.lowerBounds[propertyIndex]);
+                }
+            }
+        }
+
+        // Pruning based on forward estimation (Pruning Criterion I). A route through the label that is still to be
+        // found joins it with a label of the other search at its node that is not settled yet, so the label is also
+        // pruned if the route skyline covers its costs plus the least costs of such a label. It is joined with the
+        // settled labels of the other search before it is dropped for that.
+        private boolean isPruned(Label subRoute, double[] subRouteLb) throws IOException, ClassNotFoundException {
+            if (routeSkylines.isCovered(subRouteLb)) {
+                performanceReporter.countPrunedSubRoute();
+                return true;
+            }
+            int nodeId = (int) subRoute.getLastNodeId();
+            for (int propertyIndex = 0; propertyIndex < subRouteLb.length; propertyIndex++) {
+                // the costs plus the lower bounds of the other label are at least the queued minimum of its search
+                double otherSubRouteLb = other.queuedMinimum(propertyIndex) - other.lowerBoundsCalculator.lowerBound(nodeId, propertyIndex);
+                combinedLb[propertyIndex] = subRoute.getCostByIndex(propertyIndex)
+                        + Math.max(subRouteLb[propertyIndex] - subRoute.getCostByIndex(propertyIndex), otherSubRouteLb);
+            }
+            if (routeSkylines.isCovered(combinedLb)) {
+                joinSettled(subRoute);
+                performanceReporter.countPrunedSubRoute();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package project.CacheManagers;
 
-import java.util.HashMap;
-import java.util.Map;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.function.LongPredicate;
 
 public abstract class CacheManager {
     protected int index = 0;
-    protected Map<Long, Integer> elements = new HashMap<>();
+    protected LongIntHashMap elements = new LongIntHashMap();
     protected float hitCount = 0;
     protected float missCount = 0;
+    protected float prefetchHitCount = 0;
+    protected float prefetchMissCount = 0;
+    // number of pins of every pinned element
+    private LongIntHashMap pinCounts = new LongIntHashMap();
 
     public void incrementHitCount() {
         hitCount += 1;
@@ -17,6 +22,14 @@ public abstract class CacheManager {
         missCount += 1;
     }
 
+    public float getHitCount() {
+        return hitCount;
+    }
+
+    public float getMissCount() {
+        return missCount;
+    }
+
     public float hitRatio() {
         return (hitCount <= 0 && missCount <= 0) ? 0 : hitCount / (hitCount + missCount);
     }
@@ -25,6 +38,32 @@ public abstract class CacheManager {
         return 1 - hitRatio();
     }
 
+    /**
+     * Counts a miss whose local skyline had already been loaded by the prefetcher.
+     */
+    public void incrementPrefetchHitCount() {
+        prefetchHitCount += 1;
+    }
+
+    /**
+     * Counts a miss that had to load the local skyline from the spill file while prefetching.
+     */
+    public void incrementPrefetchMissCount() {
+        prefetchMissCount += 1;
+    }
+
+    public float getPrefetchHitCount() {
+        return prefetchHitCount;
+    }
+
+    public float getPrefetchMissCount() {
+        return prefetchMissCount;
+    }
+
+    public float prefetchHitRatio() {
+        return (prefetchHitCount <= 0 && prefetchMissCount <= 0) ? 0 : prefetchHitCount / (prefetchHitCount + prefetchMissCount);
+    }
+
     protected void incrementIndexByOne() {
         index += 1;
     }
@@ -33,13 +72,73 @@ public abstract class CacheManager {
 
     public abstract void push(long element);
 
-    public abstract Long peek();
+    /**
+     * Evicts the element the policy chooses.
+     *
+     * @return the evicted element or null if nothing is cached
+     */
+    public Long peek() {
+        return peek(element -> true);
+    }
+
+    /**
+     * Evicts the element the policy chooses among the cached elements the predicate accepts. The other elements keep
+     * their places and priorities, as if they had not been looked at.
+     *
+     * @return the evicted element or null if the predicate accepts no cached element
+     */
+    protected abstract Long peek(LongPredicate isEvictable);
+
+    /**
+     * Keeps the element from being evicted by {@link #peekUnpinned()} until it is unpinned as often as it was pinned.
+     */
+    public void pin(long element) {
+        pinCounts.addToValue(element, 1);
+    }
+
+    public void unpin(long element) {
+        if (pinCounts.addToValue(element, -1) <= 0) {
+            pinCounts.remove(element);
+        }
+    }
+
+    public boolean isPinned(long element) {
+        return pinCounts.containsKey(element);
+    }
+
+    /**
+     * Evicts the element peek() chooses, skipping pinned elements. Skipping does not count as an access, so the
+     * unpinned elements are evicted in the same order as without pins.
+     *
+     * @return the evicted element or null if every cached element is pinned
+     */
+    public Long peekUnpinned() {
+        if (pinCounts.isEmpty()) {
+            return peek();
+        }
+        return peek(element -> !isPinned(element));
+    }
+
+    /**
+     * Called with the number of labels of a node whenever its local skyline is loaded or grows, for policies that
+     * weigh the size of an element.
+     */
+    public void updateLabelCount(long element, int labelCount) {
+    }
+
+    /**
+     * Called by the disk manager with the measured time of spilling a local skyline, for cost-aware policies.
+     */
+    public void recordSpillCost(int labelCount, long nanoseconds) {
+    }
 
     @Override
     public String toString() {
         return name() + " {" +
                 "hitRatio= " + hitRatio() +
                 ", missRatio= " + missRatio() +
+                ", prefetchHits= " + (int) prefetchHitCount +
+                ", prefetchMisses= " + (int) prefetchMissCount +
                 '}';
     }
 }
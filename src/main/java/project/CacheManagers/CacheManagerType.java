@@ -0,0 +1,38 @@
+package project.CacheManagers;
+
+import java.util.Map;
+
+/**
+ * Selects the eviction policy for local route skylines that are spilled to disk, given by the "cacheManager" option.
+ */
+public enum CacheManagerType {
+    LRU, MRU, FIFO, LFU, LFUDA, GDSF, WTINYLFU;
+
+    public static final String OPTION_KEY = "cacheManager";
+
+    public static CacheManagerType of(Map<String, Object> options) {
+        if (options == null || options.get(OPTION_KEY) == null) {
+            return LFUDA;
+        }
+        return valueOf(options.get(OPTION_KEY).toString().toUpperCase());
+    }
+
+    public CacheManager create() {
+        switch (this) {
+            case LRU:
+                return new LRUCacheManager();
+            case MRU:
+                return new MRUCacheManager();
+            case FIFO:
+                return new FIFOCacheManager();
+            case LFU:
+                return new LFUCacheManager();
+            case GDSF:
+                return new GreedyDualSizeCacheManager();
+            case WTINYLFU:
+                return new WTinyLFUCacheManager();
+            default:
+                return new LFUDACacheManager();
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package project.CacheManagers;
 
-import scala.Int;
-
-import java.util.Map;
+import java.util.function.LongPredicate;
 
+/**
+ * Evicts the element that has been cached first, pushing a cached element again does not change the order.
+ */
 public class FIFOCacheManager extends CacheManager {
     private final String NAME = "FIFOCacheManager";
 
+    private LinkedElementList cache = new LinkedElementList();
+
     @Override
     public String name() {
         return NAME;
@@ -14,29 +17,17 @@ public class FIFOCacheManager extends CacheManager {
 
     @Override
     public void push(long element) {
-        incrementIndexByOne();
-        if (!elements.containsKey(element)) {
-            elements.put(element, index);
+        if (!cache.contains(element)) {
+            cache.addLast(element);
         }
     }
 
     @Override
-    public Long peek() {
-        long leastRecentlyUsedElement = -1;
-        int theLeastIndex = Integer.MAX_VALUE;
-        for(Map.Entry<Long, Integer> entry: elements.entrySet()){
-            if (entry.getValue() < theLeastIndex) {
-                theLeastIndex = entry.getValue();
-                leastRecentlyUsedElement = entry.getKey();
-            }
-        }
-
-        if (leastRecentlyUsedElement < 0) {
-            return null;
+    protected Long peek(LongPredicate isEvictable) {
+        Long element = cache.first(isEvictable);
+        if (element != null) {
+            cache.remove(element);
         }
-
-        elements.remove(leastRecentlyUsedElement);
-
-        return leastRecentlyUsedElement;
+        return element;
     }
 }
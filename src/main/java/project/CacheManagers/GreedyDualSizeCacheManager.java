@@ -0,0 +1,97 @@
+package project.CacheManagers;
+
+import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import project.DataStructures.IndexedMinHeap;
+
+import java.util.function.LongPredicate;
+
+/**
+ * GreedyDual-Size-Frequency: the priority of a node is L + frequency * cost(labelCount) / labelCount, where L is the
+ * priority of the last evicted node and cost is the expected time to spill and reload a local skyline of that size.
+ * Large local skylines that are cheap to reload per label are evicted first, so a spill frees the most memory for
+ * the least re-read I/O.
+ * <p>
+ * The cost is a least squares fit cost(n) = a + b * n of the spill times measured by the disk manager, until then
+ * every node has the cost 1 and the policy is plain GreedyDual-Size.
+ */
+public class GreedyDualSizeCacheManager extends CacheManager {
+    private final String NAME = "GreedyDualSizeCacheManager";
+
+    // nodes of equal priority are evicted in the order of their ids, regardless of the nodes evicted before
+    private IndexedMinHeap cache = new IndexedMinHeap(1024, true);
+    private LongIntHashMap labelCounts = new LongIntHashMap();
+    private double inflation = 0d;
+
+    private long spillCount = 0;
+    private double sumOfLabelCounts = 0d, sumOfSquaredLabelCounts = 0d, sumOfCosts = 0d, sumOfLabelCountCosts = 0d;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void push(long element) {
+        int frequency = elements.addToValue(element, 1);
+        cache.push((int) element, priority(element, frequency));
+    }
+
+    @Override
+    protected Long peek(LongPredicate isEvictable) {
+        // the skipped nodes are pushed back with the priorities they had, their frequencies stay in elements
+        IntArrayList skippedElements = new IntArrayList();
+        DoubleArrayList skippedPriorities = new DoubleArrayList();
+        Long evicted = null;
+        while (evicted == null && !cache.isEmpty()) {
+            int element = cache.peek();
+            double priority = cache.key(element);
+            cache.remove(element);
+            if (isEvictable.test(element)) {
+                inflation = priority;
+                elements.remove(element);
+                evicted = (long) element;
+            } else {
+                skippedElements.add(element);
+                skippedPriorities.add(priority);
+            }
+        }
+        for (int index = 0; index < skippedElements.size(); index++) {
+            cache.push(skippedElements.get(index), skippedPriorities.get(index));
+        }
+        return evicted;
+    }
+
+    @Override
+    public void updateLabelCount(long element, int labelCount) {
+        labelCounts.put(element, labelCount);
+        if (elements.containsKey(element)) {
+            cache.push((int) element, priority(element, elements.get(element)));
+        }
+    }
+
+    @Override
+    public void recordSpillCost(int labelCount, long nanoseconds) {
+        spillCount++;
+        sumOfLabelCounts += labelCount;
+        sumOfSquaredLabelCounts += (double) labelCount * labelCount;
+        sumOfCosts += nanoseconds;
+        sumOfLabelCountCosts += (double) labelCount * nanoseconds;
+    }
+
+    private double priority(long element, int frequency) {
+        int labelCount = Math.max(1, labelCounts.getIfAbsent(element, 1));
+        return inflation + frequency * cost(labelCount) / labelCount;
+    }
+
+    private double cost(int labelCount) {
+        double variance = spillCount * sumOfSquaredLabelCounts - sumOfLabelCounts * sumOfLabelCounts;
+        if (spillCount < 2 || variance <= 0d) {
+            return spillCount == 0 ? 1d : sumOfCosts / spillCount;
+        }
+        double costPerLabel = Math.max(0d, (spillCount * sumOfLabelCountCosts - sumOfLabelCounts * sumOfCosts) / variance);
+        double costPerSpill = Math.max(0d, (sumOfCosts - costPerLabel * sumOfLabelCounts) / spillCount);
+        return costPerSpill + costPerLabel * labelCount;
+    }
+}
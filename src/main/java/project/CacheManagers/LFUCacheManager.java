@@ -1,10 +1,15 @@
 package project.CacheManagers;
 
-import java.util.Map;
+import java.util.function.LongPredicate;
 
+/**
+ * Evicts the least frequently pushed element, elements of equal frequency in the order they reached it.
+ */
 public class LFUCacheManager extends CacheManager {
     private final String NAME = "LFUCacheManager";
 
+    private PriorityBuckets cache = new PriorityBuckets(elements);
+
     @Override
     public String name() {
         return NAME;
@@ -12,31 +17,15 @@ public class LFUCacheManager extends CacheManager {
 
     @Override
     public void push(long element) {
-        //incrementIndexByOne();
-        if (elements.containsKey(element)) {
-            int newFrequency = elements.get(element) + 1;
-            elements.put(element, newFrequency);
-        } else {
-            elements.put(element, 0);
-        }
+        cache.put(element, cache.priorityOf(element, -1) + 1);
     }
 
-    public Long peek() {
-        long leastFrequentlyUsedElement = -1;
-        int theLeastFrequency = Integer.MAX_VALUE;
-        for (Map.Entry<Long, Integer> entry : elements.entrySet()) {
-            if (entry.getValue() < theLeastFrequency) {
-                theLeastFrequency = entry.getValue();
-                leastFrequentlyUsedElement = entry.getKey();
-            }
-        }
-
-        if (leastFrequentlyUsedElement < 0) {
-            return null;
+    @Override
+    protected Long peek(LongPredicate isEvictable) {
+        Long element = cache.first(isEvictable);
+        if (element != null) {
+            cache.remove(element);
         }
-
-        elements.remove(leastFrequentlyUsedElement);
-
-        return leastFrequentlyUsedElement;
+        return element;
     }
 }
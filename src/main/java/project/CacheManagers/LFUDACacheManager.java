@@ -1,10 +1,15 @@
 package project.CacheManagers;
-import java.util.*;
 
+import java.util.function.LongPredicate;
+
+/**
+ * LFU with dynamic aging: a new element starts at the priority of the last evicted element plus one, so elements that
+ * were used frequently long ago do not stay cached forever. Elements of equal priority are evicted last in, first out.
+ */
 public class LFUDACacheManager extends CacheManager {
     private final String NAME = "LFUDACacheManager";
 
-    private Map<Integer, LinkedList<Long>> cache = new HashMap<>();
+    private PriorityBuckets cache = new PriorityBuckets(elements);
 
     private int age = 0;
 
@@ -15,57 +20,17 @@ public class LFUDACacheManager extends CacheManager {
 
     @Override
     public void push(long element) {
-        boolean isElementCached = false;
-        int priorityKey = 1 + age;
-        int deletedEntry = -1;
-        for (Map.Entry<Integer, LinkedList<Long>> entry : cache.entrySet()) {
-            for (Long node: entry.getValue()) {
-                if (node == element) {
-                    isElementCached = true;
-                    priorityKey = 1 + entry.getKey();
-                    element = node;
-                    break;
-                }
-            }
-            if (isElementCached) {
-                entry.getValue().remove(element);
-                if (entry.getValue().isEmpty()) {
-                    deletedEntry = entry.getKey();
-                }
-                break;
-            }
-        }
-
-        if (deletedEntry > -1) {
-            cache.remove(deletedEntry);
-        }
-
-        if (cache.containsKey(priorityKey)) {
-            cache.get(priorityKey).add(element);
-        } else {
-            LinkedList<Long> newLinkedList = new LinkedList<>();
-            newLinkedList.add(element);
-            cache.put(priorityKey, newLinkedList);
-        }
+        cache.put(element, 1 + cache.priorityOf(element, age));
     }
 
     @Override
-    public Long peek() {
-        if (!cache.isEmpty()) {
-            int smallestFrequency = Integer.MAX_VALUE;
-            for (Map.Entry<Integer, LinkedList<Long>> entry : cache.entrySet()) {
-                if (entry.getKey() < smallestFrequency) {
-                    smallestFrequency = entry.getKey();
-                }
-            }
-            age = smallestFrequency;
-            LinkedList<Long> list = cache.get(smallestFrequency);
-            long removedElement = list.removeLast();
-            if (list.isEmpty()) {
-                cache.remove(smallestFrequency);
-            }
-            return removedElement;
+    protected Long peek(LongPredicate isEvictable) {
+        Long element = cache.last(isEvictable);
+        if (element == null) {
+            return null;
         }
-        return null;
+        age = cache.priorityOf(element, age);
+        cache.remove(element);
+        return element;
     }
 }
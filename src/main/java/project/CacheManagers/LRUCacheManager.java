@@ -1,10 +1,15 @@
 package project.CacheManagers;
 
-import java.util.Map;
+import java.util.function.LongPredicate;
 
+/**
+ * Evicts the least recently pushed element, the list is kept in push order.
+ */
 public class LRUCacheManager extends CacheManager {
     private final String NAME = "LRUCacheManager";
 
+    private LinkedElementList cache = new LinkedElementList();
+
     @Override
     public String name() {
         return NAME;
@@ -12,26 +17,15 @@ public class LRUCacheManager extends CacheManager {
 
     @Override
     public void push(long element) {
-        incrementIndexByOne();
-        elements.put(element, index);
+        cache.addLast(element);
     }
 
-    public Long peek() {
-        long leastRecentlyUsedElement = -1;
-        int theLeastIndex = Integer.MAX_VALUE;
-        for (Map.Entry<Long, Integer> entry : elements.entrySet()) {
-            if (entry.getValue() < theLeastIndex) {
-                theLeastIndex = entry.getValue();
-                leastRecentlyUsedElement = entry.getKey();
-            }
-        }
-
-        if (leastRecentlyUsedElement < 0) {
-            return null;
+    @Override
+    protected Long peek(LongPredicate isEvictable) {
+        Long element = cache.first(isEvictable);
+        if (element != null) {
+            cache.remove(element);
         }
-
-        elements.remove(leastRecentlyUsedElement);
-
-        return leastRecentlyUsedElement;
+        return element;
     }
 }
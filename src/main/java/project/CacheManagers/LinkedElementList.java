@@ -0,0 +1,118 @@
+package project.CacheManagers;
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Doubly-linked list of cached elements with an index of its entries, so that elements are appended, moved and
+ * removed in O(1).
+ */
+class LinkedElementList {
+    private LongObjectHashMap<Entry> entries = new LongObjectHashMap<>();
+    private Entry head, tail;
+
+    private static class Entry {
+        private long element;
+        private Entry previous, next;
+
+        private Entry(long element) {
+            this.element = element;
+        }
+    }
+
+    boolean contains(long element) {
+        return entries.containsKey(element);
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Appends the element, or moves it to the tail if it is already in the list.
+     */
+    void addLast(long element) {
+        Entry entry = entries.get(element);
+        if (entry == null) {
+            entry = new Entry(element);
+            entries.put(element, entry);
+        } else if (entry == tail) {
+            return;
+        } else {
+            unlink(entry);
+        }
+        entry.previous = tail;
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.next = entry;
+        }
+        tail = entry;
+    }
+
+    boolean remove(long element) {
+        Entry entry = entries.remove(element);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    Long first() {
+        return head == null ? null : head.element;
+    }
+
+    /**
+     * @return the element closest to the head the predicate accepts or null
+     */
+    Long first(LongPredicate predicate) {
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            if (predicate.test(entry.element)) {
+                return entry.element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the element closest to the tail the predicate accepts or null
+     */
+    Long last(LongPredicate predicate) {
+        for (Entry entry = tail; entry != null; entry = entry.previous) {
+            if (predicate.test(entry.element)) {
+                return entry.element;
+            }
+        }
+        return null;
+    }
+
+    Long pollFirst() {
+        if (head == null) {
+            return null;
+        }
+        long element = head.element;
+        remove(element);
+        return element;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.previous == null) {
+            head = entry.next;
+        } else {
+            entry.previous.next = entry.next;
+        }
+        if (entry.next == null) {
+            tail = entry.previous;
+        } else {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+    }
+}
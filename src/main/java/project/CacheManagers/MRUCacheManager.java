@@ -1,35 +1,31 @@
 package project.CacheManagers;
 
-import java.util.Map;
+import java.util.function.LongPredicate;
 
+/**
+ * Evicts the most recently pushed element, the list is kept in push order.
+ */
 public class MRUCacheManager extends CacheManager {
     private final String NAME = "MRUCacheManager";
 
+    private LinkedElementList cache = new LinkedElementList();
+
     @Override
     public String name() {
         return NAME;
     }
 
+    @Override
     public void push(long element) {
-        incrementIndexByOne();
-        elements.put(element, index);
+        cache.addLast(element);
     }
 
-    public Long peek() {
-        long mostRecentlyUsedElement = -1;
-        int theBiggestIndex = Integer.MIN_VALUE;
-        for (Map.Entry<Long, Integer> entry : elements.entrySet()) {
-            if (entry.getValue() > theBiggestIndex) {
-                theBiggestIndex = entry.getValue();
-                mostRecentlyUsedElement = entry.getKey();
-            }
-        }
-
-        if (mostRecentlyUsedElement < 0) {
-            return null;
+    @Override
+    protected Long peek(LongPredicate isEvictable) {
+        Long element = cache.last(isEvictable);
+        if (element != null) {
+            cache.remove(element);
         }
-
-        elements.remove(mostRecentlyUsedElement);
-        return mostRecentlyUsedElement;
+        return element;
     }
 }
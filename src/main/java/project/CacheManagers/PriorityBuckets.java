@@ -0,0 +1,81 @@
+package project.CacheManagers;
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Cached elements grouped into buckets of equal priority, each bucket ordered by the time its elements entered it.
+ * The priority of an element is kept in the given map, the lowest bucket is found in O(log b) for b distinct priorities.
+ */
+class PriorityBuckets {
+    private LongIntHashMap priorities;
+    private TreeMap<Integer, LinkedElementList> buckets = new TreeMap<>();
+
+    PriorityBuckets(LongIntHashMap priorities) {
+        this.priorities = priorities;
+    }
+
+    /**
+     * @return the priority of the element or absentPriority if it is not cached
+     */
+    int priorityOf(long element, int absentPriority) {
+        return priorities.getIfAbsent(element, absentPriority);
+    }
+
+    /**
+     * Moves the element to the tail of the bucket of the priority.
+     */
+    void put(long element, int priority) {
+        if (priorities.containsKey(element)) {
+            int oldPriority = priorities.get(element);
+            LinkedElementList oldBucket = buckets.get(oldPriority);
+            oldBucket.remove(element);
+            if (oldBucket.isEmpty()) {
+                buckets.remove(oldPriority);
+            }
+        }
+        priorities.put(element, priority);
+        buckets.computeIfAbsent(priority, key -> new LinkedElementList()).addLast(element);
+    }
+
+    /**
+     * @return the element the predicate accepts that entered the lowest bucket first, or null
+     */
+    Long first(LongPredicate predicate) {
+        for (LinkedElementList bucket : buckets.values()) {
+            Long element = bucket.first(predicate);
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the element the predicate accepts that entered the lowest bucket last, or null
+     */
+    Long last(LongPredicate predicate) {
+        for (LinkedElementList bucket : buckets.values()) {
+            Long element = bucket.last(predicate);
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    void remove(long element) {
+        if (!priorities.containsKey(element)) {
+            return;
+        }
+        int priority = priorities.get(element);
+        priorities.remove(element);
+        LinkedElementList bucket = buckets.get(priority);
+        bucket.remove(element);
+        if (bucket.isEmpty()) {
+            buckets.remove(priority);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package project.CacheManagers;
+
+import project.DataStructures.CountMinSketch;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Window TinyLFU: new nodes enter a small LRU window, the rest of the cache is a segmented LRU of a probation and a
+ * protected segment. A node leaving the window is only admitted to the main segments if it has been accessed more
+ * often than the probation victim, measured by a count-min sketch. Nodes touched once while expanding are evicted
+ * from the window, so they do not displace the frequently revisited frontier.
+ * <p>
+ * Evictions are driven by peek() instead of a fixed capacity, so the window holds 1% and the protected segment 80%
+ * of the currently cached nodes, and every peek() lets the oldest window node compete with the probation victim.
+ */
+public class WTinyLFUCacheManager extends CacheManager {
+    private final String NAME = "WTinyLFUCacheManager";
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+    // frequencies are halved after three accesses per cached node, the frontier of ARSC changes quickly
+    private static final int SAMPLE_PERIOD_RATIO = 3;
+
+    private CountMinSketch sketch;
+    private LinkedElementList window = new LinkedElementList();
+    private LinkedElementList probation = new LinkedElementList();
+    private LinkedElementList protectedSegment = new LinkedElementList();
+
+    public WTinyLFUCacheManager() {
+        this(1 << 10);
+    }
+
+    public WTinyLFUCacheManager(int sketchWidth) {
+        this.sketch = new CountMinSketch(sketchWidth);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void push(long element) {
+        sketch.increment(element);
+        if (window.contains(element)) {
+            window.addLast(element);
+        } else if (probation.contains(element)) {
+            probation.remove(element);
+            protectedSegment.addLast(element);
+            if (protectedSegment.size() > PROTECTED_RATIO * (probation.size() + protectedSegment.size())) {
+                probation.addLast(protectedSegment.pollFirst());
+            }
+        } else if (protectedSegment.contains(element)) {
+            protectedSegment.addLast(element);
+        } else {
+            window.addLast(element);
+            // the cache is only full when it is asked for a victim, until then the window overflows into probation
+            int cachedCount = window.size() + probation.size() + protectedSegment.size();
+            sketch.setSamplePeriod(SAMPLE_PERIOD_RATIO * Math.max(16, cachedCount));
+            while (window.size() > Math.max(1, WINDOW_RATIO * cachedCount)) {
+                probation.addLast(window.pollFirst());
+            }
+        }
+    }
+
+    @Override
+    protected Long peek(LongPredicate isEvictable) {
+        LinkedElementList mainSegment = probation;
+        Long victim = probation.first(isEvictable);
+        if (victim == null) {
+            mainSegment = protectedSegment;
+            victim = protectedSegment.first(isEvictable);
+        }
+        Long candidate = window.first(isEvictable);
+        if (candidate == null) {
+            if (victim != null) {
+                mainSegment.remove(victim);
+            }
+            return victim;
+        }
+        window.remove(candidate);
+        if (victim == null) {
+            return candidate;
+        }
+        // the window candidate competes with the main victim, the loser is evicted, ties keep the victim so a scan of
+        // equally rare nodes does not flush the main segments
+        if (sketch.estimate(candidate) > sketch.estimate(victim)) {
+            mainSegment.remove(victim);
+            probation.addLast(candidate);
+            return victim;
+        }
+        return candidate;
+    }
+}
@@ -0,0 +1,61 @@
+package project.DataStructures;
+
+/**
+ * Count-min sketch estimating the access frequency of long elements in constant space. Counters are halved after
+ * every sample period, so the estimates follow recent frequencies (TinyLFU aging). The sample period defaults to ten
+ * times the width and should be about ten times the number of cached elements.
+ */
+public class CountMinSketch {
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private int[][] counters;
+    private int mask;
+    private int samplePeriod;
+    private int sampleCount = 0;
+
+    /**
+     * @param width number of counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int width) {
+        int powerOfTwoWidth = Integer.highestOneBit(Math.max(16, width - 1)) << 1;
+        this.counters = new int[SEEDS.length][powerOfTwoWidth];
+        this.mask = powerOfTwoWidth - 1;
+        this.samplePeriod = 10 * powerOfTwoWidth;
+    }
+
+    public void setSamplePeriod(int samplePeriod) {
+        this.samplePeriod = Math.max(1, samplePeriod);
+    }
+
+    public void increment(long element) {
+        for (int row = 0; row < SEEDS.length; row++) {
+            counters[row][index(element, row)]++;
+        }
+        if (++sampleCount >= samplePeriod) {
+            reset();
+        }
+    }
+
+    public int estimate(long element) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            estimate = Math.min(estimate, counters[row][index(element, row)]);
+        }
+        return estimate;
+    }
+
+    private void reset() {
+        for (int[] row : counters) {
+            for (int index = 0; index < row.length; index++) {
+                row[index] >>>= 1;
+            }
+        }
+        sampleCount /= 2;
+    }
+
+    private int index(long element, int row) {
+        long hash = (element + SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+        hash ^= hash >>> 32;
+        return (int) (hash ^ (hash >>> 16)) & mask;
+    }
+}
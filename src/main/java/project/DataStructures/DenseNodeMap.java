@@ -0,0 +1,89 @@
+package project.DataStructures;
+
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Map from the dense graph node ids [0, capacity) to values, backed by an array that grows with the largest node id.
+ * Lookups neither hash nor box the node id, an absent node costs one array slot.
+ */
+public class DenseNodeMap<V> {
+    private Object[] values;
+    private int size = 0;
+
+    public DenseNodeMap() {
+        this(16);
+    }
+
+    public DenseNodeMap(int capacity) {
+        values = new Object[Math.max(1, capacity)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long nodeId) {
+        return get(nodeId) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long nodeId) {
+        return nodeId >= 0 && nodeId < values.length ? (V) values[(int) nodeId] : null;
+    }
+
+    /**
+     * @return the previous value of the node or null
+     */
+    public V put(long nodeId, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Values of a dense node map can not be null.");
+        }
+        if (nodeId < 0 || nodeId > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Node " + nodeId + " is not a dense graph node id.");
+        }
+        ensureCapacity((int) nodeId + 1);
+        V previous = get(nodeId);
+        values[(int) nodeId] = value;
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * @return the removed value of the node or null
+     */
+    public V remove(long nodeId) {
+        V previous = get(nodeId);
+        if (previous != null) {
+            values[(int) nodeId] = null;
+            size--;
+        }
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjLongConsumer<V> action) {
+        for (int nodeId = 0; nodeId < values.length; nodeId++) {
+            if (values[nodeId] != null) {
+                action.accept((V) values[nodeId], nodeId);
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(capacity, 2L * values.length)));
+        }
+    }
+}
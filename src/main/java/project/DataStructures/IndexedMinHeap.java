@@ -0,0 +1,178 @@
+package project.DataStructures;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over the ids [0, capacity) with a double key per id.
+ * Every id is contained at most once, so push() of a contained id changes its key (decrease or increase key).
+ * Ids of equal keys come out in the order the heap happens to hold them, or in the order of the ids if asked for.
+ */
+public class IndexedMinHeap {
+    private int[] heap;
+    private int[] positions;
+    private double[] keys;
+    private int size = 0;
+    private final boolean breaksTiesByIds;
+
+    public IndexedMinHeap(int capacity) {
+        this(capacity, false);
+    }
+
+    public IndexedMinHeap(int capacity, boolean breaksTiesByIds) {
+        this.breaksTiesByIds = breaksTiesByIds;
+        heap = new int[Math.max(1, capacity)];
+        positions = new int[Math.max(1, capacity)];
+        keys = new double[Math.max(1, capacity)];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return id < positions.length && positions[id] >= 0;
+    }
+
+    public double key(int id) {
+        return keys[id];
+    }
+
+    public void push(int id, double key) {
+        ensureCapacity(id + 1);
+        if (contains(id)) {
+            double oldKey = keys[id];
+            keys[id] = key;
+            if (key < oldKey) {
+                siftUp(positions[id]);
+            } else {
+                siftDown(positions[id]);
+            }
+        } else {
+            keys[id] = key;
+            heap[size] = id;
+            positions[id] = size;
+            siftUp(size++);
+        }
+    }
+
+    public int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty.");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Fills ids with the contained ids of the smallest keys in ascending key order, without changing the heap.
+     *
+     * @return the number of filled ids
+     */
+    public int peek(int[] ids) {
+        int count = Math.min(ids.length, size);
+        // heap positions whose parents have been taken, the next smallest id is always among them
+        int[] candidates = new int[2 * count + 1];
+        int candidateCount = 0;
+        if (count > 0) {
+            candidates[candidateCount++] = 0;
+        }
+        for (int index = 0; index < count; index++) {
+            int smallest = 0;
+            for (int candidate = 1; candidate < candidateCount; candidate++) {
+                if (isLess(heap[candidates[candidate]], heap[candidates[smallest]])) {
+                    smallest = candidate;
+                }
+            }
+            int position = candidates[smallest];
+            candidates[smallest] = candidates[--candidateCount];
+            ids[index] = heap[position];
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                candidates[candidateCount++] = child;
+            }
+        }
+        return count;
+    }
+
+    public int poll() {
+        int id = peek();
+        remove(id);
+        return id;
+    }
+
+    public void remove(int id) {
+        if (!contains(id)) {
+            return;
+        }
+        int position = positions[id];
+        positions[id] = -1;
+        size--;
+        if (position != size) {
+            int last = heap[size];
+            heap[position] = last;
+            positions[last] = position;
+            siftUp(position);
+            siftDown(positions[last]);
+        }
+    }
+
+    public void clear() {
+        for (int index = 0; index < size; index++) {
+            positions[heap[index]] = -1;
+        }
+        size = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > positions.length) {
+            int newCapacity = Math.max(capacity, positions.length * 2);
+            heap = Arrays.copyOf(heap, newCapacity);
+            keys = Arrays.copyOf(keys, newCapacity);
+            int oldLength = positions.length;
+            positions = Arrays.copyOf(positions, newCapacity);
+            Arrays.fill(positions, oldLength, newCapacity, -1);
+        }
+    }
+
+    private boolean isLess(int id, int otherId) {
+        return keys[id] < keys[otherId] || breaksTiesByIds && keys[id] == keys[otherId] && id < otherId;
+    }
+
+    private void siftUp(int position) {
+        int id = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!isLess(id, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    private void siftDown(int position) {
+        int id = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && isLess(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!isLess(heap[child], id)) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+}
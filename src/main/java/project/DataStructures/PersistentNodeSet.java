@@ -0,0 +1,104 @@
+package project.DataStructures;
+
+/**
+ * Immutable set of graph node ids, for the nodes a path visits. Adding a node returns a new set that shares all but the
+ * changed trie path with the old one, so a path can extend the set of its prefix without copying it.
+ * <p>
+ * The set is a bitmap trie of fixed depth: the node id selects a 64-bit word by five levels of five bits, so lookups and
+ * insertions take constant time. Trie nodes only store the children they have, a set of a few nodes takes a few small
+ * arrays per level.
+ */
+public final class PersistentNodeSet {
+    public static final PersistentNodeSet EMPTY = new PersistentNodeSet(null, 0);
+
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int LEVELS = 5;
+    private static final int WORD_BITS = 6;
+
+    private final Trie root;
+    private final int size;
+
+    private PersistentNodeSet(Trie root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int nodeId) {
+        checkNodeId(nodeId);
+        int key = nodeId >>> WORD_BITS;
+        Trie trie = root;
+        for (int level = 0; trie != null; level++) {
+            int bit = 1 << chunk(key, level);
+            if ((trie.bitmap & bit) == 0) {
+                return false;
+            }
+            int index = Integer.bitCount(trie.bitmap & (bit - 1));
+            if (level == LEVELS - 1) {
+                return (trie.words[index] & (1L << nodeId)) != 0;
+            }
+            trie = trie.children[index];
+        }
+        return false;
+    }
+
+    /**
+     * @return a set with the node, this set if it already contains the node
+     */
+    public PersistentNodeSet with(int nodeId) {
+        if (contains(nodeId)) {
+            return this;
+        }
+        return new PersistentNodeSet(with(root, nodeId >>> WORD_BITS, 0, nodeId), size + 1);
+    }
+
+    private static Trie with(Trie trie, int key, int level, int nodeId) {
+        int bitmap = trie == null ? 0 : trie.bitmap;
+        int bit = 1 << chunk(key, level);
+        int index = Integer.bitCount(bitmap & (bit - 1));
+        boolean isPresent = (bitmap & bit) != 0;
+        int childCount = Integer.bitCount(bitmap | bit);
+        if (level == LEVELS - 1) {
+            long[] words = new long[childCount];
+            if (trie != null) {
+                System.arraycopy(trie.words, 0, words, 0, index);
+                System.arraycopy(trie.words, index, words, isPresent ? index : index + 1, trie.words.length - index);
+            }
+            words[index] |= 1L << nodeId;
+            return new Trie(bitmap | bit, null, words);
+        }
+        Trie[] children = new Trie[childCount];
+        if (trie != null) {
+            System.arraycopy(trie.children, 0, children, 0, index);
+            System.arraycopy(trie.children, index, children, isPresent ? index : index + 1, trie.children.length - index);
+        }
+        children[index] = with(isPresent ? trie.children[index] : null, key, level + 1, nodeId);
+        return new Trie(bitmap | bit, children, null);
+    }
+
+    private static int chunk(int key, int level) {
+        return (key >>> (BITS_PER_LEVEL * (LEVELS - 1 - level))) & ((1 << BITS_PER_LEVEL) - 1);
+    }
+
+    private static void checkNodeId(int nodeId) {
+        if (nodeId < 0) {
+            throw new IllegalArgumentException("Node ids could not be negative.");
+        }
+    }
+
+    private static final class Trie {
+        private final int bitmap;
+        // children of the inner levels, words of the last level, both in the order of their bits in the bitmap
+        private final Trie[] children;
+        private final long[] words;
+
+        Trie(int bitmap, Trie[] children, long[] words) {
+            this.bitmap = bitmap;
+            this.children = children;
+            this.words = words;
+        }
+    }
+}
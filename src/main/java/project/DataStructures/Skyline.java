@@ -0,0 +1,363 @@
+package project.DataStructures;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * Skyline of elements with a cost vector of any number of criteria. The costs are stored by criterion in one array
+ * each, and the elements are sorted by the sum of their costs as in sort-filter-skyline: a dominating vector has a
+ * smaller sum, so a dominance test scans the elements up to the sum of the tested vector, and the elements dominated
+ * by an inserted vector are the ones after its sum. Removed elements leave a tombstone that an insert may reuse, the
+ * slots are compacted when half of them are tombstones or when the list is accessed by index.
+ */
+public class Skyline<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BLOCK_SIZE = Long.SIZE;
+
+    private final int criteriaCount;
+    private final Function<? super E, double[]> costsOf;
+    private final boolean strictDominance;
+    private double[][] costs;
+    private double[] sums;
+    // a null element is a tombstone
+    private Object[] elements;
+    private int slotCount = 0;
+    private int size = 0;
+
+    /**
+     * Skyline by Pareto dominance, a vector is dominated by one that is not larger in any criterion and not equal.
+     */
+    public Skyline(int criteriaCount, Function<? super E, double[]> costsOf) {
+        this(criteriaCount, costsOf, false);
+    }
+
+    /**
+     * @param strictDominance whether a vector is only dominated by one that is smaller in every criterion
+     */
+    public Skyline(int criteriaCount, Function<? super E, double[]> costsOf, boolean strictDominance) {
+        this.criteriaCount = criteriaCount;
+        this.costsOf = costsOf;
+        this.strictDominance = strictDominance;
+        this.costs = new double[criteriaCount][4];
+        this.sums = new double[4];
+        this.elements = new Object[4];
+    }
+
+    /**
+     * Skyline of mutually non-dominated elements, which are only sorted.
+     */
+    public Skyline(int criteriaCount, Function<? super E, double[]> costsOf, Collection<? extends E> elements) {
+        this(criteriaCount, costsOf, false);
+        Object[] sortedElements = elements.toArray();
+        double[] elementSums = new double[sortedElements.length];
+        Integer[] order = new Integer[sortedElements.length];
+        for (int index = 0; index < sortedElements.length; index++) {
+            @SuppressWarnings("unchecked")
+            E element = (E) sortedElements[index];
+            elementSums[index] = sum(costsOf.apply(element));
+            order[index] = index;
+        }
+        Arrays.sort(order, (lhs, rhs) -> Double.compare(elementSums[lhs], elementSums[rhs]));
+        ensureCapacity(sortedElements.length);
+        for (int index : order) {
+            @SuppressWarnings("unchecked")
+            E element = (E) sortedElements[index];
+            setSlot(slotCount++, element, costsOf.apply(element), elementSums[index]);
+        }
+        size = slotCount;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        compact();
+        return (E) elements[index];
+    }
+
+    /**
+     * @return whether an element of the skyline dominates the vector
+     */
+    public boolean isDominated(double[] vector) {
+        return hasDominator(vector, strictDominance, !strictDominance);
+    }
+
+    /**
+     * @return whether an element of the skyline is not larger than the vector in any criterion
+     */
+    public boolean isCovered(double[] vector) {
+        return hasDominator(vector, false, false);
+    }
+
+    /**
+     * Inserts the element at the position of its cost sum and removes the elements it dominates.
+     *
+     * @return false if the element is dominated by an element of the skyline
+     */
+    @Override
+    public boolean add(E element) {
+        double[] vector = costsOf.apply(element);
+        if (isDominated(vector)) {
+            return false;
+        }
+        removeDominatedBy(vector);
+        insert(element, vector, sum(vector));
+        return true;
+    }
+
+    /**
+     * Removes the elements dominated by the vector, which follow the position of its cost sum.
+     *
+     * @return the number of removed elements
+     */
+    public int removeDominatedBy(double[] vector) {
+        int removedCount = 0;
+        int from = lowerBound(sum(vector));
+        for (int blockStart = from - from % BLOCK_SIZE; blockStart < slotCount; blockStart += BLOCK_SIZE) {
+            int blockEnd = Math.min(slotCount, blockStart + BLOCK_SIZE);
+            long dominated = liveSlots(Math.max(from, blockStart), blockEnd);
+            long larger = strictDominance ? dominated : 0L;
+            for (int criterion = 0; criterion < criteriaCount && dominated != 0; criterion++) {
+                double[] criterionCosts = costs[criterion];
+                double bound = vector[criterion];
+                for (long candidates = dominated; candidates != 0; candidates &= candidates - 1) {
+                    int slot = blockStart + Long.numberOfTrailingZeros(candidates);
+                    double cost = criterionCosts[slot];
+                    if (cost < bound || strictDominance && cost == bound) {
+                        dominated &= ~(1L << slot);
+                    } else if (cost > bound) {
+                        larger |= 1L << slot;
+                    }
+                }
+            }
+            for (long removed = dominated & larger; removed != 0; removed &= removed - 1) {
+                elements[blockStart + Long.numberOfTrailingZeros(removed)] = null;
+                removedCount++;
+            }
+        }
+        if (removedCount > 0) {
+            size -= removedCount;
+            modCount++;
+            compactIfSparse();
+        }
+        return removedCount;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return slotOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        compact();
+        return slotOf(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int slot = slotOf(o);
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    @Override
+    public E remove(int index) {
+        E element = get(index);
+        removeSlot(index);
+        return element;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, 0, slotCount, null);
+        slotCount = 0;
+        size = 0;
+        modCount++;
+    }
+
+    private void removeSlot(int slot) {
+        elements[slot] = null;
+        size--;
+        modCount++;
+        compactIfSparse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private int slotOf(Object o) {
+        if (o == null) {
+            return -1;
+        }
+        double[] vector;
+        try {
+            vector = costsOf.apply((E) o);
+        } catch (ClassCastException e) {
+            return -1;
+        }
+        double sum = sum(vector);
+        for (int slot = lowerBound(sum); slot < slotCount && sums[slot] == sum; slot++) {
+            if (Objects.equals(elements[slot], o)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(E element, double[] vector, double sum) {
+        int slot = upperBound(sum);
+        // a neighbouring tombstone keeps the order of the sums
+        if (slot > 0 && elements[slot - 1] == null) {
+            slot--;
+        } else if (slot >= slotCount || elements[slot] != null) {
+            ensureCapacity(slotCount + 1);
+            for (double[] criterionCosts : costs) {
+                System.arraycopy(criterionCosts, slot, criterionCosts, slot + 1, slotCount - slot);
+            }
+            System.arraycopy(sums, slot, sums, slot + 1, slotCount - slot);
+            System.arraycopy(elements, slot, elements, slot + 1, slotCount - slot);
+            slotCount++;
+        }
+        setSlot(slot, element, vector, sum);
+        size++;
+        modCount++;
+    }
+
+    private void setSlot(int slot, E element, double[] vector, double sum) {
+        for (int criterion = 0; criterion < criteriaCount; criterion++) {
+            costs[criterion][slot] = vector[criterion];
+        }
+        sums[slot] = sum;
+        elements[slot] = element;
+    }
+
+    /*
+     * Whether an element is not larger than the vector in any criterion, or smaller in every criterion if equal costs
+     * are excluded, and smaller in one criterion if required. The elements are filtered by one criterion at a time
+     * over blocks of slots, a bit per slot.
+     */
+    private boolean hasDominator(double[] vector, boolean excludesEqualCosts, boolean requiresSmallerCost) {
+        int end = upperBound(sum(vector));
+        for (int blockStart = 0; blockStart < end; blockStart += BLOCK_SIZE) {
+            int blockEnd = Math.min(end, blockStart + BLOCK_SIZE);
+            long dominators = liveSlots(blockStart, blockEnd);
+            long smaller = requiresSmallerCost ? 0L : dominators;
+            for (int criterion = 0; criterion < criteriaCount && dominators != 0; criterion++) {
+                double[] criterionCosts = costs[criterion];
+                double bound = vector[criterion];
+                for (long candidates = dominators; candidates != 0; candidates &= candidates - 1) {
+                    int slot = blockStart + Long.numberOfTrailingZeros(candidates);
+                    double cost = criterionCosts[slot];
+                    if (cost > bound || excludesEqualCosts && cost == bound) {
+                        dominators &= ~(1L << slot);
+                    } else if (cost < bound) {
+                        smaller |= 1L << slot;
+                    }
+                }
+            }
+            if ((dominators & smaller) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // bits of the slots in [from, to) that are not tombstones, the slots are in one block
+    private long liveSlots(int from, int to) {
+        long live = 0L;
+        for (int slot = from; slot < to; slot++) {
+            if (elements[slot] != null) {
+                live |= 1L << slot;
+            }
+        }
+        return live;
+    }
+
+    private void compactIfSparse() {
+        if (2 * size < slotCount) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        if (size == slotCount) {
+            return;
+        }
+        int liveSlot = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (elements[slot] != null) {
+                if (liveSlot != slot) {
+                    for (double[] criterionCosts : costs) {
+                        criterionCosts[liveSlot] = criterionCosts[slot];
+                    }
+                    sums[liveSlot] = sums[slot];
+                    elements[liveSlot] = elements[slot];
+                }
+                liveSlot++;
+            }
+        }
+        Arrays.fill(elements, liveSlot, slotCount, null);
+        slotCount = liveSlot;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            int newCapacity = Math.max(capacity, 2 * elements.length);
+            for (int criterion = 0; criterion < criteriaCount; criterion++) {
+                costs[criterion] = Arrays.copyOf(costs[criterion], newCapacity);
+            }
+            sums = Arrays.copyOf(sums, newCapacity);
+            elements = Arrays.copyOf(elements, newCapacity);
+        }
+    }
+
+    // first slot whose sum is not smaller than the sum
+    private int lowerBound(double sum) {
+        int low = 0;
+        int high = slotCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sums[middle] < sum) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // first slot whose sum is larger than the sum
+    private int upperBound(double sum) {
+        int low = 0;
+        int high = slotCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sums[middle] <= sum) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private double sum(double[] vector) {
+        double sum = 0d;
+        for (int criterion = 0; criterion < criteriaCount; criterion++) {
+            sum += vector[criterion];
+        }
+        return sum;
+    }
+}
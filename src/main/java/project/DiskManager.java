@@ -1,97 +1,201 @@
 package project;
 
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
 import java.io.*;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Vector;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Spills local route skylines chosen by the cache manager to the spill store once their estimated footprint exceeds
+ * the memory budget of the query, the global budget of the memory governor is exceeded, or the heap is under pressure.
+ * With a spill buffer, evicted local skylines are handed to a background writer through a bounded queue, reads of
+ * nodes that are still in flight are served from the buffer, and the search thread blocks while the buffer is full.
+ * With a prefetch distance, a background reader loads the spilled local skylines of nodes the search is about to
+ * visit, so their reload does not wait for the spill file. Prefetched local skylines count towards the budgets, cached
+ * nodes are spilled to make room for them.
+ */
 public class DiskManager {
-    private final String SUBROUTE_DIRECTORY_PATH = "src" + File.separator + "subRoutes";
-    private final String SUBROUTE_OF_NODE_FILE_PATH = SUBROUTE_DIRECTORY_PATH + File.separator + "Node-";
-    private float maximumMemoryPercentageForSubroute;
-    private Vector<Long> savedNodesToDisc = new Vector<>();
-    private int localSkylineLimit;
+    public static final String SPILL_DIRECTORY_OPTION_KEY = "spillDirectory";
+    public static final String SPILL_BUFFER_SIZE_OPTION_KEY = "spillBufferSize";
+    public static final String PREFETCH_DISTANCE_OPTION_KEY = "prefetchDistance";
+    // prefetched local skylines kept per node of the prefetch distance, the eldest ones are spilled again
+    private static final int PREFETCHED_NODES_PER_DISTANCE = 16;
+
+    private File spillDirectory;
+    private SpillStore spillStore;
+    // write-behind state, guarded by the disk manager
+    private BlockingQueue<Long> spillQueue;
+    private LongObjectHashMap<List<Label>> pendingSubRoutes = new LongObjectHashMap<>();
+    private Thread spillWriter;
+    private volatile IOException spillFileFailure;
+    private long pendingReadCount = 0;
+    // prefetching state, guarded by the disk manager
+    private int prefetchDistance;
+    private BlockingQueue<Long> prefetchQueue;
+    private LinkedHashMap<Long, List<Label>> prefetchedSubRoutes = new LinkedHashMap<>();
+    private long prefetchedBytes = 0;
+    private Thread prefetcher;
+    private long memoryBudgetInBytes;
 
-    /*
-    public DiskManager(float memoryPercentage) {
-        setMaximumMemoryPercentage(memoryPercentage);
+    public DiskManager(long memoryBudgetInBytes) {
+        this(memoryBudgetInBytes, new File(System.getProperty("java.io.tmpdir")));
     }
-    */
 
-    public DiskManager(int localSkylineLimit) {
-        this.localSkylineLimit = localSkylineLimit;
+    public DiskManager(long memoryBudgetInBytes, File spillDirectory) {
+        this(memoryBudgetInBytes, spillDirectory, 0);
     }
 
-    public void setMaximumMemoryPercentage(float percentage) {
-        maximumMemoryPercentageForSubroute = (percentage > 0f) ? percentage : 5;
+    /**
+     * @param spillBufferSize number of evicted nodes that may wait for the background writer, 0 spills synchronously
+     */
+    public DiskManager(long memoryBudgetInBytes, File spillDirectory, int spillBufferSize) {
+        this(memoryBudgetInBytes, spillDirectory, spillBufferSize, 0);
     }
 
-    public float getMaximumMemoryPercentageForSubroute() {
-        return maximumMemoryPercentageForSubroute;
+    /**
+     * @param prefetchDistance number of upcoming queue entries the search prefetches, 0 disables prefetching
+     */
+    public DiskManager(long memoryBudgetInBytes, File spillDirectory, int spillBufferSize, int prefetchDistance) {
+        this.memoryBudgetInBytes = memoryBudgetInBytes;
+        this.spillDirectory = spillDirectory;
+        if (spillBufferSize > 0) {
+            this.spillQueue = new ArrayBlockingQueue<>(spillBufferSize);
+        }
+        this.prefetchDistance = Math.max(0, prefetchDistance);
+        if (prefetchDistance > 0) {
+            this.prefetchQueue = new ArrayBlockingQueue<>(prefetchDistance * PREFETCHED_NODES_PER_DISTANCE);
+        }
     }
 
-    private int getLocalRouteSkylineLimit() {
-        return localSkylineLimit;
-        //return (float) ((Runtime.getRuntime().freeMemory() * getMaximumMemoryPercentageForSubroute() / 100) / Label.getBytesOfPrimitives());
+    /**
+     * Directory of the spill file given by the "spillDirectory" procedure option, the temporary directory by default.
+     */
+    public static File spillDirectoryOf(Map<String, Object> options) {
+        if (options == null || options.get(SPILL_DIRECTORY_OPTION_KEY) == null) {
+            return new File(System.getProperty("java.io.tmpdir"));
+        }
+        return new File(options.get(SPILL_DIRECTORY_OPTION_KEY).toString());
     }
 
-    private void setNodesAsSaved(LocalRouteSkylineManager localRouteSkylineManager, List<Long> nodeIds) {
-        for (long nodeId : nodeIds) {
-            localRouteSkylineManager.removeAllSubRouteFromMemory(nodeId);
-            if (!isNodeSaved(nodeId)) {
-                savedNodesToDisc.add(nodeId);
-            }
+    public static int spillBufferSizeOf(Map<String, Object> options) {
+        if (options == null || options.get(SPILL_BUFFER_SIZE_OPTION_KEY) == null) {
+            return 0;
         }
+        return ((Number) options.get(SPILL_BUFFER_SIZE_OPTION_KEY)).intValue();
     }
 
-    private void setNodeAsSaved(long nodeId) {
-        if (!isNodeSaved(nodeId)) {
-            savedNodesToDisc.add(nodeId);
+    public static int prefetchDistanceOf(Map<String, Object> options) {
+        if (options == null || options.get(PREFETCH_DISTANCE_OPTION_KEY) == null) {
+            return 0;
         }
+        return ((Number) options.get(PREFETCH_DISTANCE_OPTION_KEY)).intValue();
     }
 
-    private void deleteSavedNode(long nodeId) {
-        if (isNodeSaved(nodeId)) {
-            savedNodesToDisc.remove(nodeId);
+    public int getPrefetchDistance() {
+        return prefetchDistance;
+    }
+
+    /**
+     * Asks the background reader to load the local skyline of the node if it has been spilled. The request is dropped
+     * if prefetching is disabled, nothing has been spilled yet or too many requests are waiting.
+     */
+    public void prefetch(long nodeId) {
+        if (prefetchQueue != null && prefetcher != null) {
+            prefetchQueue.offer(nodeId);
         }
     }
 
-    private boolean isNodeSaved(long nodeId) {
-        return savedNodesToDisc.contains(nodeId);
+    public synchronized int getPrefetchedNodeCount() {
+        return prefetchedSubRoutes.size();
+    }
+
+    /**
+     * Estimated footprint of the prefetched local skylines that have not been reloaded yet.
+     */
+    public synchronized long getPrefetchedBytes() {
+        return prefetchedBytes;
     }
 
-    public void saveToDisc(LocalRouteSkylineManager localRouteSkylineManager, int additionalSubRouteCount) throws IOException, IllegalArgumentException {
-        if (additionalSubRouteCount < 0) {
-            throw new IllegalArgumentException("AdditionalSubRouteCount could not less than zero.");
+    /**
+     * Number of reloads served from the spill buffer before the background writer stored the node.
+     */
+    public synchronized long getPendingReadCount() {
+        return pendingReadCount;
+    }
+
+    public long getMemoryBudgetInBytes() {
+        return memoryBudgetInBytes;
+    }
+
+    private boolean exceedsMemoryBudget(long bytesInMemory, long additionalBytes) {
+        if (bytesInMemory + additionalBytes > memoryBudgetInBytes) {
+            return true;
         }
-        if (localRouteSkylineManager.getTotalLocalRouteSkylineCountInMemory() + additionalSubRouteCount > getLocalRouteSkylineLimit()) {
-            final File SUBROUTES_OF_NODES_DIR = new File(SUBROUTE_DIRECTORY_PATH);
-            if (!SUBROUTES_OF_NODES_DIR.exists()) {
-                SUBROUTES_OF_NODES_DIR.mkdir();
-            }
+        if (MemoryGovernor.isUnderHeapPressure() && bytesInMemory + additionalBytes > memoryBudgetInBytes / 2) {
+            return true;
+        }
+        return MemoryGovernor.getReservedBytes() + additionalBytes > MemoryGovernor.getGlobalBudgetInBytes();
+    }
+
+    private synchronized boolean isNodeSaved(long nodeId) {
+        return pendingSubRoutes.containsKey(nodeId) || prefetchedSubRoutes.containsKey(nodeId)
+                || (spillStore != null && spillStore.contains(nodeId));
+    }
+
+    public void saveToDisc(LocalRouteSkylineManager localRouteSkylineManager, long additionalBytes) throws IOException, IllegalArgumentException {
+        if (additionalBytes < 0) {
+            throw new IllegalArgumentException("AdditionalBytes could not less than zero.");
+        }
+        throwSpillFileFailure();
+        long bytesInMemory = localRouteSkylineManager.getFootprintInBytes() + getPrefetchedBytes();
+        MemoryGovernor.report(this, bytesInMemory);
+        if (exceedsMemoryBudget(bytesInMemory, additionalBytes)) {
+            openSpillStore();
 
             do {
-                Long nodeId = localRouteSkylineManager.cacheManager().peek();
+                Long nodeId = localRouteSkylineManager.cacheManager().peekUnpinned();
 
-                // If the cache memory is empty
+                // If the cache memory is empty or every cached node is pinned
                 if (nodeId == null) {
                     break;
                 }
 
-                File subRouteFile = new File(SUBROUTE_OF_NODE_FILE_PATH + nodeId);
-                FileOutputStream fos = new FileOutputStream(subRouteFile, false);
-                ObjectOutputStream oos = new ObjectOutputStream(fos);
-                if (!subRouteFile.exists()) {
-                    subRouteFile.createNewFile();
+                // a node that is not in memory has nothing to spill, its saved labels must not be overwritten
+                List<Label> subRoutes = localRouteSkylineManager.getSubRoutesOnMemory().get(nodeId);
+                if (subRoutes == null) {
+                    continue;
+                }
+                if (spillQueue == null) {
+                    long spillStartTime = System.nanoTime();
+                    synchronized (this) {
+                        spillStore.write(nodeId, subRoutes);
+                    }
+                    localRouteSkylineManager.cacheManager().recordSpillCost(subRoutes.size(), System.nanoTime() - spillStartTime);
+                } else {
+                    synchronized (this) {
+                        pendingSubRoutes.put(nodeId, subRoutes);
+                    }
+                    try {
+                        // blocks while the buffer is full, unless the writer has stopped
+                        while (!spillQueue.offer(nodeId, 100, TimeUnit.MILLISECONDS)) {
+                            throwSpillFileFailure();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for the spill writer.");
+                    }
                 }
-                oos.writeObject(localRouteSkylineManager.getSubRoutesOnMemory().get(nodeId));
-                oos.close();
-                fos.close();
 
                 // remove the node from cache or main memory
+                bytesInMemory -= localRouteSkylineManager.getFootprintInBytes(nodeId);
                 localRouteSkylineManager.removeAllSubRouteFromMemory(nodeId);
-                setNodeAsSaved(nodeId);
-            } while (localRouteSkylineManager.getTotalLocalRouteSkylineCountInMemory() > 0
-                    && localRouteSkylineManager.getTotalLocalRouteSkylineCountInMemory() + additionalSubRouteCount > getLocalRouteSkylineLimit());
+                MemoryGovernor.report(this, bytesInMemory);
+            } while (bytesInMemory > 0 && exceedsMemoryBudget(bytesInMemory, additionalBytes));
         }
     }
 
@@ -100,30 +204,140 @@ public class DiskManager {
     }
 
     public List<Label> getFromDisc(LocalRouteSkylineManager localRouteSkylineManager, long nodeId) throws IOException, ClassNotFoundException {
-        if (isNodeSaved(nodeId)) {
-            localRouteSkylineManager.cacheManager().incrementMissCount();
-            File subRouteFile = new File(SUBROUTE_OF_NODE_FILE_PATH + nodeId);
-            if (subRouteFile.exists()) {
-
-                FileInputStream fis = new FileInputStream(subRouteFile);
-                ObjectInputStream ois = new ObjectInputStream(fis);
-                List<Label> subRoutes = (List<Label>) ois.readObject();
-                ois.close();
-                fis.close();
-                subRouteFile.delete();
-
-                saveToDisc(localRouteSkylineManager, subRoutes.size());
-                deleteSavedNode(nodeId);
-
-                return subRoutes;
+        throwSpillFileFailure();
+        List<Label> subRoutes;
+        synchronized (this) {
+            if (!isNodeSaved(nodeId)) {
+                return null;
+            }
+            subRoutes = pendingSubRoutes.remove(nodeId);
+            if (subRoutes != null) {
+                pendingReadCount++;
+            } else if ((subRoutes = prefetchedSubRoutes.remove(nodeId)) != null) {
+                prefetchedBytes -= footprintOf(subRoutes);
+                localRouteSkylineManager.cacheManager().incrementPrefetchHitCount();
+            } else {
+                subRoutes = spillStore.read(nodeId);
+                if (prefetchQueue != null) {
+                    localRouteSkylineManager.cacheManager().incrementPrefetchMissCount();
+                }
             }
         }
-        return null;
+        localRouteSkylineManager.cacheManager().incrementMissCount();
+        saveToDisc(localRouteSkylineManager, footprintOf(subRoutes));
+        return subRoutes;
     }
 
     public void deleteAllFiles() throws IOException {
-        org.neo4j.io.fs.FileUtils.deleteRecursively(new File(SUBROUTE_DIRECTORY_PATH));
-        //FileUtils.deleteDirectory(new File(SUBROUTE_DIRECTORY_PATH));
+        MemoryGovernor.report(this, 0);
+        stop(spillWriter);
+        spillWriter = null;
+        stop(prefetcher);
+        prefetcher = null;
+        synchronized (this) {
+            if (spillQueue != null) {
+                spillQueue.clear();
+            }
+            if (prefetchQueue != null) {
+                prefetchQueue.clear();
+            }
+            pendingSubRoutes.clear();
+            prefetchedSubRoutes.clear();
+            prefetchedBytes = 0;
+            if (spillStore != null) {
+                spillStore.close();
+                spillStore = null;
+            }
+        }
+    }
+
+    private synchronized void openSpillStore() throws IOException {
+        if (spillStore == null) {
+            spillStore = new SpillStore(spillDirectory);
+        }
+        if (spillQueue != null && spillWriter == null) {
+            spillWriter = new Thread(this::writePendingSubRoutes, "spill-writer");
+            spillWriter.setDaemon(true);
+            spillWriter.start();
+        }
+        if (prefetchQueue != null && prefetcher == null) {
+            prefetcher = new Thread(this::prefetchSpilledSubRoutes, "spill-prefetcher");
+            prefetcher.setDaemon(true);
+            prefetcher.start();
+        }
+    }
+
+    private static void stop(Thread thread) {
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Background writer: stores the pending local skylines in the order they were evicted. A node that has been read
+     * back in the meantime is not pending anymore and is skipped.
+     */
+    private void writePendingSubRoutes() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long nodeId = spillQueue.take();
+                synchronized (this) {
+                    List<Label> subRoutes = pendingSubRoutes.remove(nodeId);
+                    if (subRoutes != null) {
+                        spillStore.write(nodeId, subRoutes);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // deleteAllFiles stops the writer
+        } catch (IOException e) {
+            spillFileFailure = e;
+        }
+    }
+
+    /**
+     * Background reader: moves the requested local skylines from the spill file into memory. Only nodes that are in the
+     * spill file are read, and when too many prefetched nodes have not been reloaded the eldest is spilled again.
+     */
+    private void prefetchSpilledSubRoutes() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long nodeId = prefetchQueue.take();
+                synchronized (this) {
+                    if (spillStore == null || !spillStore.contains(nodeId)) {
+                        continue;
+                    }
+                    List<Label> subRoutes = spillStore.read(nodeId);
+                    prefetchedSubRoutes.put(nodeId, subRoutes);
+                    prefetchedBytes += footprintOf(subRoutes);
+                    if (prefetchedSubRoutes.size() > prefetchDistance * PREFETCHED_NODES_PER_DISTANCE) {
+                        Map.Entry<Long, List<Label>> eldest = prefetchedSubRoutes.entrySet().iterator().next();
+                        prefetchedSubRoutes.remove(eldest.getKey());
+                        prefetchedBytes -= footprintOf(eldest.getValue());
+                        spillStore.write(eldest.getKey(), eldest.getValue());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // deleteAllFiles stops the prefetcher
+        } catch (IOException e) {
+            spillFileFailure = e;
+        }
+    }
+
+    private static long footprintOf(List<Label> subRoutes) {
+        return MemoryGovernor.nodeFootprint() + (subRoutes.isEmpty() ? 0 : (long) subRoutes.size() * subRoutes.get(0).getFootprintInBytes());
+    }
+
+    private void throwSpillFileFailure() throws IOException {
+        if (spillFileFailure != null) {
+            throw new IOException("Spilling to " + spillDirectory + " failed.", spillFileFailure);
+        }
     }
 
-}
\ No newline at end of file
+}
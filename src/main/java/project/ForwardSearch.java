@@ -0,0 +1,129 @@
+package project;
+
+import project.CacheManagers.CacheManagerType;
+import project.DataStructures.Skyline;
+import project.Graphs.EdgeCursor;
+import project.Graphs.Graph;
+import project.LowerBoundsCalculators.LowerBoundsCalculator;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Label search of ARSC from the start node to the destination node. The node queue hands out the node whose local
+ * skyline has the smallest lower bounding route costs, whose sub-routes are pruned by the route skyline (Pruning
+ * Criterion I) or expanded into the local skylines of their successors (Pruning Criterion II).
+ */
+public class ForwardSearch {
+    private final Graph graph;
+    private final long startNodeId;
+    private final long destinationNodeId;
+    private final double[] resourceConstraints;
+    private final LowerBoundsCalculator lowerBoundsCalculator;
+    private final PerformanceReporter performanceReporter;
+    private final DiskManager diskManager;
+    private final LocalRouteSkylineManager localRouteSkylinesManager;
+
+    public ForwardSearch(Graph graph, long startNodeId, long destinationNodeId, double[] resourceConstraints,
+                         LowerBoundsCalculator lowerBoundsCalculator, Map<String, Object> options, PerformanceReporter performanceReporter) {
+        this.graph = graph;
+        this.startNodeId = startNodeId;
+        this.destinationNodeId = destinationNodeId;
+        this.resourceConstraints = resourceConstraints;
+        this.lowerBoundsCalculator = lowerBoundsCalculator;
+        this.performanceReporter = performanceReporter;
+        this.diskManager = new DiskManager(MemoryGovernor.memoryBudgetOf(options), DiskManager.spillDirectoryOf(options),
+                DiskManager.spillBufferSizeOf(options), DiskManager.prefetchDistanceOf(options));
+        this.localRouteSkylinesManager = new LocalRouteSkylineManager(diskManager, CacheManagerType.of(options).create(),
+                graph.propertyKeys().size());
+    }
+
+    /**
+     * Runs the search and deletes its spill files.
+     *
+     * @return the route skyline, whose labels end at the destination node
+     */
+    public Skyline<Label> run() throws IOException, ClassNotFoundException {
+        int criteriaCount = graph.propertyKeys().size();
+        Skyline<Label> routeSkylines = new Skyline<>(criteriaCount, Label::getCosts);
+        double[] subRouteLb = new double[criteriaCount];
+        NodeQueue nodeQueue = new NodeQueue(graph.nodeCount(), lowerBoundsCalculator, criteriaCount);
+        int[] upcomingNodeIds = new int[diskManager.getPrefetchDistance() + 1];
+
+        Label startLabel = new Label(startNodeId, criteriaCount, resourceConstraints.length);
+        localRouteSkylinesManager.add(startNodeId, startLabel);
+        nodeQueue.offer(startNodeId, startLabel);
+
+        try {
+            while (!nodeQueue.isEmpty()) {
+                long activeNodeId = nodeQueue.peek();
+                if (upcomingNodeIds.length > 1) {
+                    prefetch(nodeQueue, upcomingNodeIds, activeNodeId);
+                }
+                // the local skyline of the active node is iterated by index, it must not be spilled meanwhile
+                localRouteSkylinesManager.pin(activeNodeId);
+                for (int subRouteSkylineIndex = 0; subRouteSkylineIndex < localRouteSkylinesManager.getSizeOfSubRoutes(activeNodeId); subRouteSkylineIndex++) {
+                    Label subRoute = localRouteSkylinesManager.getSubRouteByIndex(activeNodeId, subRouteSkylineIndex);
+                    // Pruning based on forward estimation (Pruning Criterion I)
+                    // compute attribute vector p.lb[] -> sub-route costs plus lower bounding cost estimations of its last node
+                    for (int propertyIndex = 0; propertyIndex < subRouteLb.length; propertyIndex++) {
+                        subRouteLb[propertyIndex] = subRoute.getCostByIndex(propertyIndex) + lowerBoundsCalculator.lowerBound((int) activeNodeId, propertyIndex);
+                    }
+                    boolean plb_isDominated = routeSkylines.isCovered(subRouteLb);
+                    if (plb_isDominated) {
+                        localRouteSkylinesManager.removeSubRoute(activeNodeId, subRoute);
+                        subRouteSkylineIndex--;
+                        performanceReporter.countPrunedSubRoute();
+                    }
+                    if (!plb_isDominated) {                                             // if sub-route is not processed yet
+                        for (Label subRoutePrime : subRoute.expandARSC(graph, destinationNodeId, resourceConstraints, nodeQueue, localRouteSkylinesManager)) {           // expand actual path p by one hop (in each direction)
+                            if (subRoutePrime.getLastNodeId() == destinationNodeId && !subRoutePrime.isDominatedInRouteList(routeSkylines)) {                 // route completed
+                                routeSkylines.add(subRoutePrime);                       // path must be a skyline route, removes the routes it dominates
+                            } else {
+                                // route is not completed and path must be further expanded
+                                // Pruning based on sub-route skyline criterion (Pruning Criterion II)
+                                long subRoutePrimeLastNodeId = subRoutePrime.getLastNodeId();
+                                localRouteSkylinesManager.pin(subRoutePrimeLastNodeId);
+                                if (!subRoutePrime.isDominatedInRouteList(localRouteSkylinesManager.get(subRoutePrimeLastNodeId)) && localRouteSkylinesManager.add(subRoutePrimeLastNodeId, subRoutePrime)) {
+                                    localRouteSkylinesManager.removeDominatedSubRoutes(subRoutePrimeLastNodeId, subRoutePrime);
+                                }
+                                localRouteSkylinesManager.unpin(subRoutePrimeLastNodeId);
+                            }
+                        }
+                    }
+                }
+                localRouteSkylinesManager.unpin(activeNodeId);
+                nodeQueue.remove(activeNodeId);
+            }
+        } finally {
+            diskManager.deleteAllFiles();
+        }
+        return routeSkylines;
+    }
+
+    /**
+     * Local route skyline manager of the search, for reporting.
+     */
+    public LocalRouteSkylineManager localRouteSkylineManager() {
+        return localRouteSkylinesManager;
+    }
+
+    /**
+     * Requests the spilled local skylines of the next queue entries and of the successors of the active node, which
+     * are read by the expansion of the active node.
+     */
+    private void prefetch(NodeQueue nodeQueue, int[] upcomingNodeIds, long activeNodeId) {
+        EdgeCursor edges = graph.outgoing((int) activeNodeId);
+        while (edges.next()) {
+            if (!localRouteSkylinesManager.hasSubRoutesInMemory(edges.otherNodeId())) {
+                diskManager.prefetch(edges.otherNodeId());
+            }
+        }
+        int upcomingNodeCount = nodeQueue.peek(upcomingNodeIds);
+        for (int index = 1; index < upcomingNodeCount; index++) {
+            if (!localRouteSkylinesManager.hasSubRoutesInMemory(upcomingNodeIds[index])) {
+                diskManager.prefetch(upcomingNodeIds[index]);
+            }
+        }
+    }
+}
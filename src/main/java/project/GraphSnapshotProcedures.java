@@ -0,0 +1,55 @@
+package project;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.procedure.*;
+import project.Graphs.GraphSnapshot;
+import project.Graphs.GraphSnapshotManager;
+import project.LowerBoundsCalculators.LowerBoundsCache;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class GraphSnapshotProcedures {
+    @Context
+    public GraphDatabaseService db;
+
+    @Procedure(value = "dbis.snapshot.rebuild", name = "dbis.snapshot.rebuild", mode = Mode.READ)
+    @Description("Builds or replaces the in-memory graph snapshot of the relationship types (null for all types) regarding to the relationship property keys")
+    public Stream<SnapshotStatus> rebuild(@Name("relationshipTypes") List<String> relationshipTypes,
+                                          @Name("relationshipPropertyKeys") List<String> relationshipPropertyKeys,
+                                          @Name(value = "resourceKeys", defaultValue = "[]") List<String> resourceKeys) {
+        GraphSnapshot snapshot = GraphSnapshotManager.rebuild(db, relationshipTypes, relationshipPropertyKeys, resourceKeys);
+        return Stream.of(new SnapshotStatus(snapshot));
+    }
+
+    @Procedure(value = "dbis.snapshot.invalidate", name = "dbis.snapshot.invalidate", mode = Mode.READ)
+    @Description("Drops every in-memory graph snapshot of the database and the lower bounds computed on them, they are built again on their next use")
+    public Stream<InvalidationResult> invalidate() {
+        LowerBoundsCache.invalidate(db);
+        return Stream.of(new InvalidationResult(GraphSnapshotManager.invalidate(db)));
+    }
+
+    public static class SnapshotStatus {
+        public List<String> relationshipTypes;
+        public List<String> relationshipPropertyKeys;
+        public long nodeCount;
+        public long relationshipCount;
+        public long buildTimeInMilliseconds;
+
+        public SnapshotStatus(GraphSnapshot snapshot) {
+            this.relationshipTypes = snapshot.relationshipTypes();
+            this.relationshipPropertyKeys = snapshot.propertyKeys();
+            this.nodeCount = snapshot.nodeCount();
+            this.relationshipCount = snapshot.relationshipCount();
+            this.buildTimeInMilliseconds = snapshot.buildTimeInMilliseconds();
+        }
+    }
+
+    public static class InvalidationResult {
+        public long invalidatedSnapshotCount;
+
+        public InvalidationResult(long invalidatedSnapshotCount) {
+            this.invalidatedSnapshotCount = invalidatedSnapshotCount;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package project.Graphs;
+
+import org.neo4j.graphdb.DependencyResolver;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
+import org.neo4j.kernel.impl.store.id.IdType;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Graph that reads every expansion through the Neo4j Core API. Graph node ids are the Neo4j node ids.
+ */
+public class CoreApiGraph implements Graph {
+    private final String NAME = "CoreApiGraph";
+
+    private GraphDatabaseService db;
+    private List<String> propertyKeys;
+    private List<String> resourceKeys;
+    private List<String> labelConstraints;
+
+    public CoreApiGraph(GraphDatabaseService db, List<String> propertyKeys, List<String> resourceKeys, List<String> labelConstraints) {
+        this.db = db;
+        this.propertyKeys = propertyKeys;
+        this.resourceKeys = resourceKeys == null ? Collections.emptyList() : resourceKeys;
+        this.labelConstraints = labelConstraints;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    // the graph node ids are the Neo4j node ids
+    @Override
+    public long nodeNumbering() {
+        return 0;
+    }
+
+    @Override
+    public int nodeCount() {
+        return (int) Math.min(Integer.MAX_VALUE, highestNodeId(db) + 1);
+    }
+
+    @Override
+    public List<String> propertyKeys() {
+        return propertyKeys;
+    }
+
+    @Override
+    public List<String> resourceKeys() {
+        return resourceKeys;
+    }
+
+    @Override
+    public int toGraphNodeId(long neo4jNodeId) {
+        return (neo4jNodeId < 0 || neo4jNodeId > Integer.MAX_VALUE) ? -1 : (int) neo4jNodeId;
+    }
+
+    @Override
+    public long toNeo4jNodeId(int graphNodeId) {
+        return graphNodeId;
+    }
+
+    @Override
+    public long toNeo4jRelationshipId(long edgeId) {
+        return edgeId;
+    }
+
+    @Override
+    public EdgeCursor outgoing(int graphNodeId) {
+        return new RelationshipCursor(graphNodeId, relationships(graphNodeId, Direction.OUTGOING));
+    }
+
+    @Override
+    public EdgeCursor incoming(int graphNodeId) {
+        return new RelationshipCursor(graphNodeId, relationships(graphNodeId, Direction.INCOMING));
+    }
+
+    @Override
+    public int startNodeOf(long edgeId) {
+        return (int) db.getRelationshipById(edgeId).getStartNodeId();
+    }
+
+    @Override
+    public int endNodeOf(long edgeId) {
+        return (int) db.getRelationshipById(edgeId).getEndNodeId();
+    }
+
+    @Override
+    public double cost(long edgeId, int criterionIndex) {
+        return costOf(db.getRelationshipById(edgeId), propertyKeys.get(criterionIndex));
+    }
+
+    @Override
+    public double resource(long edgeId, int resourceIndex) {
+        return resourceOf(db.getRelationshipById(edgeId), resourceKeys.get(resourceIndex));
+    }
+
+    private List<Relationship> relationships(int graphNodeId, Direction direction) {
+        Node node = db.getNodeById(graphNodeId);
+        List<Relationship> relationships = new LinkedList<>();
+        node.getRelationships(direction).forEach(relationships::add);
+        if (labelConstraints != null) {
+            relationships = filterByLabelConstraints(node.getId(), relationships, labelConstraints, propertyKeys);
+        }
+        return relationships;
+    }
+
+    static double costOf(Relationship relationship, String propertyKey) {
+        return Double.parseDouble(relationship.getProperty(propertyKey).toString());
+    }
+
+    static double resourceOf(Relationship relationship, String resourceKey) {
+        return relationship.hasProperty(resourceKey) ? Double.parseDouble(relationship.getProperty(resourceKey).toString()) : Double.MAX_VALUE;
+    }
+
+    public static long highestNodeId(GraphDatabaseService db) {
+        if (db instanceof GraphDatabaseAPI) {
+            return ((GraphDatabaseAPI) db).getDependencyResolver().resolveDependency(IdGeneratorFactory.class, DependencyResolver.SelectionStrategy.ONLY).get(IdType.NODE).getHighId() - 1;
+        }
+        long highestNodeId = -1;
+        for (Node node : db.getAllNodes()) {
+            highestNodeId = Math.max(highestNodeId, node.getId());
+        }
+        return highestNodeId;
+    }
+
+    // LABEL CONSTRAINTS
+    private static boolean isValidRelationShipByLabelConstraint(Relationship relationship, List<String> labelConstraints) {
+        if (labelConstraints != null) {
+            return labelConstraints.stream().anyMatch(x -> x.toLowerCase().equals(relationship.getType().name().toLowerCase()));
+        }
+        return true;
+    }
+
+    private static boolean isDominatedBy(Relationship lhs, Relationship rhs, List<String> propertyKeys) {
+        int dominatedPropertyCount = 0;
+        for (String propertyKey : propertyKeys) {
+            double rhsPropertyCost = resourceOf(rhs, propertyKey);
+            double lhsPropertyCost = resourceOf(lhs, propertyKey);
+            if (lhsPropertyCost >= rhsPropertyCost) {
+                dominatedPropertyCount++;
+            }
+        }
+        return dominatedPropertyCount == propertyKeys.size();
+    }
+
+    /**
+     * Keeps the relationships whose type is listed in the label constraints and drops every relationship
+     * which is dominated by a parallel relationship between the same pair of nodes.
+     */
+    static List<Relationship> filterByLabelConstraints(long nodeId, List<Relationship> relationships, List<String> labelConstraints, List<String> propertyKeys) {
+        List<Relationship> validRelationships = new LinkedList<>();
+
+        List<Relationship> tempRelationships = new LinkedList<>();
+        relationships.stream().filter(x -> isValidRelationShipByLabelConstraint(x, labelConstraints)).forEach(tempRelationships::add);
+
+        for (Relationship lhsRelationship : tempRelationships) {
+            boolean isLhsRelationshipDominated = false;
+            for (Relationship rhsRelationship : tempRelationships) {
+                if (!lhsRelationship.equals(rhsRelationship) && lhsRelationship.getOtherNodeId(nodeId) == rhsRelationship.getOtherNodeId(nodeId)) {
+                    isLhsRelationshipDominated = isDominatedBy(lhsRelationship, rhsRelationship, propertyKeys);
+                    if (isLhsRelationshipDominated) {
+                        break;
+                    }
+                }
+            }
+            if (!isLhsRelationshipDominated) {
+                validRelationships.add(lhsRelationship);
+            }
+        }
+
+        return validRelationships;
+    }
+
+    private class RelationshipCursor implements EdgeCursor {
+        private final long nodeId;
+        private final Iterator<Relationship> relationships;
+        private Relationship current;
+
+        RelationshipCursor(long nodeId, List<Relationship> relationships) {
+            this.nodeId = nodeId;
+            this.relationships = relationships.iterator();
+        }
+
+        @Override
+        public boolean next() {
+            current = relationships.hasNext() ? relationships.next() : null;
+            return current != null;
+        }
+
+        @Override
+        public long edgeId() {
+            return current.getId();
+        }
+
+        @Override
+        public int otherNodeId() {
+            return (int) current.getOtherNodeId(nodeId);
+        }
+
+        @Override
+        public double cost(int criterionIndex) {
+            return costOf(current, propertyKeys.get(criterionIndex));
+        }
+
+        @Override
+        public double resource(int resourceIndex) {
+            return resourceOf(current, resourceKeys.get(resourceIndex));
+        }
+    }
+}
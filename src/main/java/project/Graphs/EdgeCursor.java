@@ -0,0 +1,19 @@
+package project.Graphs;
+
+/**
+ * Iterates the edges of one node. Values are only valid after next() returned true.
+ */
+public interface EdgeCursor {
+    boolean next();
+
+    long edgeId();
+
+    /**
+     * @return the graph node id at the other end of the edge (end node for outgoing, start node for incoming)
+     */
+    int otherNodeId();
+
+    double cost(int criterionIndex);
+
+    double resource(int resourceIndex);
+}
@@ -0,0 +1,49 @@
+package project.Graphs;
+
+import java.util.List;
+
+/**
+ * Read-only view of the road network used by the route skyline algorithms.
+ * Nodes are addressed by graph node ids in [0, nodeCount()), edges by graph edge ids.
+ * Costs are read by criterion index (position in propertyKeys()) and resources by
+ * resource index (position in resourceKeys()).
+ */
+public interface Graph {
+    String name();
+
+    /**
+     * Tells apart graphs of the same name whose node ids are numbered differently, such as two graph snapshots.
+     * Node-indexed arrays of one graph are valid for another of the same name, numbering and node count.
+     */
+    long nodeNumbering();
+
+    /**
+     * Exclusive upper bound of the graph node ids, suitable for sizing node-indexed arrays.
+     */
+    int nodeCount();
+
+    List<String> propertyKeys();
+
+    List<String> resourceKeys();
+
+    /**
+     * @return the graph node id of the Neo4j node or -1 if the node is not part of the graph
+     */
+    int toGraphNodeId(long neo4jNodeId);
+
+    long toNeo4jNodeId(int graphNodeId);
+
+    long toNeo4jRelationshipId(long edgeId);
+
+    EdgeCursor outgoing(int graphNodeId);
+
+    EdgeCursor incoming(int graphNodeId);
+
+    int startNodeOf(long edgeId);
+
+    int endNodeOf(long edgeId);
+
+    double cost(long edgeId, int criterionIndex);
+
+    double resource(long edgeId, int resourceIndex);
+}
@@ -0,0 +1,30 @@
+package project.Graphs;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects how the procedures read the road network, given by the "engine" procedure option.
+ * CORE traverses the database on every expansion, SNAPSHOT runs on the cached in-memory graph snapshot.
+ */
+public enum GraphEngine {
+    CORE, SNAPSHOT;
+
+    public static final String OPTION_KEY = "engine";
+
+    public static GraphEngine of(Map<String, Object> options) {
+        if (options == null || options.get(OPTION_KEY) == null) {
+            return CORE;
+        }
+        return valueOf(options.get(OPTION_KEY).toString().toUpperCase());
+    }
+
+    public Graph open(GraphDatabaseService db, List<String> relationshipTypes, List<String> propertyKeys, List<String> resourceKeys) {
+        if (this == SNAPSHOT) {
+            return GraphSnapshotManager.get(db, relationshipTypes, propertyKeys, resourceKeys);
+        }
+        return new CoreApiGraph(db, propertyKeys, resourceKeys, relationshipTypes);
+    }
+}
@@ -0,0 +1,319 @@
+package project.Graphs;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable compressed-sparse-row copy of the road network for a relationship type set and property keys.
+ * Graph node ids are dense indices in [0, nodeCount()), edge ids are positions in the forward edge arrays.
+ */
+public class GraphSnapshot implements Graph {
+    private final String NAME = "GraphSnapshot";
+    private static final AtomicLong nodeNumberings = new AtomicLong();
+
+    private final List<String> propertyKeys;
+    private final List<String> resourceKeys;
+    private final List<String> relationshipTypes;
+
+    private final long[] neo4jNodeIds;
+    private final int[] graphNodeIds;
+
+    // forward adjacency; edge id = index in these arrays
+    private final int[] offsets;
+    private final int[] sources;
+    private final int[] targets;
+    private final long[] relationshipIds;
+    private final double[][] costs;
+    private final double[][] resources;
+
+    // backward adjacency; entries point into the forward edge arrays
+    private final int[] reverseOffsets;
+    private final int[] reverseEdges;
+
+    private final long buildTimeInMilliseconds;
+    // every snapshot numbers its nodes on its own
+    private final long nodeNumbering = nodeNumberings.incrementAndGet();
+
+    private GraphSnapshot(List<String> relationshipTypes, List<String> propertyKeys, List<String> resourceKeys,
+                          long[] neo4jNodeIds, int[] graphNodeIds, int[] offsets, int[] sources, int[] targets,
+                          long[] relationshipIds, double[][] costs, double[][] resources, long buildTimeInMilliseconds) {
+        this.relationshipTypes = relationshipTypes;
+        this.propertyKeys = propertyKeys;
+        this.resourceKeys = resourceKeys;
+        this.neo4jNodeIds = neo4jNodeIds;
+        this.graphNodeIds = graphNodeIds;
+        this.offsets = offsets;
+        this.sources = sources;
+        this.targets = targets;
+        this.relationshipIds = relationshipIds;
+        this.costs = costs;
+        this.resources = resources;
+        this.buildTimeInMilliseconds = buildTimeInMilliseconds;
+
+        int nodeCount = neo4jNodeIds.length;
+        reverseOffsets = new int[nodeCount + 1];
+        reverseEdges = new int[targets.length];
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            reverseOffsets[node + 1] += reverseOffsets[node];
+        }
+        int[] insertPositions = Arrays.copyOf(reverseOffsets, nodeCount);
+        for (int edge = 0; edge < targets.length; edge++) {
+            reverseEdges[insertPositions[targets[edge]]++] = edge;
+        }
+    }
+
+    /**
+     * Reads the whole graph through the Core API. Relationship types are matched case insensitively;
+     * if relationshipTypes is null every relationship is taken and no parallel relationship is filtered.
+     * Relationships lacking one of the property keys can not be part of any route and are left out.
+     */
+    public static GraphSnapshot build(GraphDatabaseService db, List<String> relationshipTypes, List<String> propertyKeys, List<String> resourceKeys) {
+        long startTime = System.currentTimeMillis();
+        resourceKeys = resourceKeys == null ? Collections.emptyList() : resourceKeys;
+
+        int nodeCount = 0;
+        long highestNodeId = CoreApiGraph.highestNodeId(db);
+        int[] graphNodeIds = new int[(int) (highestNodeId + 1)];
+        Arrays.fill(graphNodeIds, -1);
+        long[] neo4jNodeIds = new long[graphNodeIds.length];
+        for (Node node : db.getAllNodes()) {
+            graphNodeIds[(int) node.getId()] = nodeCount;
+            neo4jNodeIds[nodeCount++] = node.getId();
+        }
+        neo4jNodeIds = Arrays.copyOf(neo4jNodeIds, nodeCount);
+
+        int[] offsets = new int[nodeCount + 1];
+        int edgeCount = 0;
+        int capacity = Math.max(16, nodeCount * 2);
+        int[] sources = new int[capacity];
+        int[] targets = new int[capacity];
+        long[] relationshipIds = new long[capacity];
+        double[][] costs = new double[propertyKeys.size()][capacity];
+        double[][] resources = new double[resourceKeys.size()][capacity];
+
+        for (int node = 0; node < nodeCount; node++) {
+            long neo4jNodeId = neo4jNodeIds[node];
+            List<Relationship> relationships = new LinkedList<>();
+            for (Relationship relationship : db.getNodeById(neo4jNodeId).getRelationships(Direction.OUTGOING)) {
+                if (hasPropertyKeys(relationship, propertyKeys)) {
+                    relationships.add(relationship);
+                }
+            }
+            if (relationshipTypes != null) {
+                relationships = CoreApiGraph.filterByLabelConstraints(neo4jNodeId, relationships, relationshipTypes, propertyKeys);
+            }
+            for (Relationship relationship : relationships) {
+                if (edgeCount == capacity) {
+                    capacity *= 2;
+                    sources = Arrays.copyOf(sources, capacity);
+                    targets = Arrays.copyOf(targets, capacity);
+                    relationshipIds = Arrays.copyOf(relationshipIds, capacity);
+                    for (int index = 0; index < costs.length; index++) {
+                        costs[index] = Arrays.copyOf(costs[index], capacity);
+                    }
+                    for (int index = 0; index < resources.length; index++) {
+                        resources[index] = Arrays.copyOf(resources[index], capacity);
+                    }
+                }
+                sources[edgeCount] = node;
+                targets[edgeCount] = graphNodeIds[(int) relationship.getEndNodeId()];
+                relationshipIds[edgeCount] = relationship.getId();
+                for (int index = 0; index < propertyKeys.size(); index++) {
+                    costs[index][edgeCount] = CoreApiGraph.costOf(relationship, propertyKeys.get(index));
+                }
+                for (int index = 0; index < resourceKeys.size(); index++) {
+                    resources[index][edgeCount] = CoreApiGraph.resourceOf(relationship, resourceKeys.get(index));
+                }
+                edgeCount++;
+            }
+            offsets[node + 1] = edgeCount;
+        }
+
+        for (int index = 0; index < costs.length; index++) {
+            costs[index] = Arrays.copyOf(costs[index], edgeCount);
+        }
+        for (int index = 0; index < resources.length; index++) {
+            resources[index] = Arrays.copyOf(resources[index], edgeCount);
+        }
+        return new GraphSnapshot(relationshipTypes, propertyKeys, resourceKeys, neo4jNodeIds, graphNodeIds, offsets,
+                Arrays.copyOf(sources, edgeCount), Arrays.copyOf(targets, edgeCount), Arrays.copyOf(relationshipIds, edgeCount),
+                costs, resources, System.currentTimeMillis() - startTime);
+    }
+
+    private static boolean hasPropertyKeys(Relationship relationship, List<String> propertyKeys) {
+        for (String propertyKey : propertyKeys) {
+            if (!relationship.hasProperty(propertyKey)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public long nodeNumbering() {
+        return nodeNumbering;
+    }
+
+    @Override
+    public int nodeCount() {
+        return neo4jNodeIds.length;
+    }
+
+    public int relationshipCount() {
+        return targets.length;
+    }
+
+    public long buildTimeInMilliseconds() {
+        return buildTimeInMilliseconds;
+    }
+
+    public List<String> relationshipTypes() {
+        return relationshipTypes;
+    }
+
+    @Override
+    public List<String> propertyKeys() {
+        return propertyKeys;
+    }
+
+    @Override
+    public List<String> resourceKeys() {
+        return resourceKeys;
+    }
+
+    @Override
+    public int toGraphNodeId(long neo4jNodeId) {
+        return (neo4jNodeId < 0 || neo4jNodeId >= graphNodeIds.length) ? -1 : graphNodeIds[(int) neo4jNodeId];
+    }
+
+    @Override
+    public long toNeo4jNodeId(int graphNodeId) {
+        return neo4jNodeIds[graphNodeId];
+    }
+
+    @Override
+    public long toNeo4jRelationshipId(long edgeId) {
+        return relationshipIds[(int) edgeId];
+    }
+
+    @Override
+    public EdgeCursor outgoing(int graphNodeId) {
+        return new ForwardCursor(offsets[graphNodeId], offsets[graphNodeId + 1]);
+    }
+
+    @Override
+    public EdgeCursor incoming(int graphNodeId) {
+        return new BackwardCursor(reverseOffsets[graphNodeId], reverseOffsets[graphNodeId + 1]);
+    }
+
+    @Override
+    public int startNodeOf(long edgeId) {
+        return sources[(int) edgeId];
+    }
+
+    @Override
+    public int endNodeOf(long edgeId) {
+        return targets[(int) edgeId];
+    }
+
+    @Override
+    public double cost(long edgeId, int criterionIndex) {
+        return costs[criterionIndex][(int) edgeId];
+    }
+
+    @Override
+    public double resource(long edgeId, int resourceIndex) {
+        return resources[resourceIndex][(int) edgeId];
+    }
+
+    private class ForwardCursor implements EdgeCursor {
+        private int edge;
+        private final int end;
+
+        ForwardCursor(int begin, int end) {
+            this.edge = begin - 1;
+            this.end = end;
+        }
+
+        @Override
+        public boolean next() {
+            return ++edge < end;
+        }
+
+        @Override
+        public long edgeId() {
+            return edge;
+        }
+
+        @Override
+        public int otherNodeId() {
+            return targets[edge];
+        }
+
+        @Override
+        public double cost(int criterionIndex) {
+            return costs[criterionIndex][edge];
+        }
+
+        @Override
+        public double resource(int resourceIndex) {
+            return resources[resourceIndex][edge];
+        }
+    }
+
+    private class BackwardCursor implements EdgeCursor {
+        private int position;
+        private final int end;
+        private int edge;
+
+        BackwardCursor(int begin, int end) {
+            this.position = begin - 1;
+            this.end = end;
+        }
+
+        @Override
+        public boolean next() {
+            if (++position < end) {
+                edge = reverseEdges[position];
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long edgeId() {
+            return edge;
+        }
+
+        @Override
+        public int otherNodeId() {
+            return sources[edge];
+        }
+
+        @Override
+        public double cost(int criterionIndex) {
+            return costs[criterionIndex][edge];
+        }
+
+        @Override
+        public double resource(int resourceIndex) {
+            return resources[resourceIndex][edge];
+        }
+    }
+}
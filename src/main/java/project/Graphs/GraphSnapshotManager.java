@@ -0,0 +1,106 @@
+package project.Graphs;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import project.LowerBoundsCalculators.LowerBoundsCache;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps one graph snapshot per database and (relationship type set, property keys, resource keys).
+ * Snapshots are built on first use and live until they are invalidated or rebuilt.
+ */
+public class GraphSnapshotManager {
+    private static final Map<String, Map<SnapshotKey, GraphSnapshot>> snapshots = new HashMap<>();
+
+    public static GraphSnapshot get(GraphDatabaseService db, List<String> relationshipTypes, List<String> propertyKeys, List<String> resourceKeys) {
+        SnapshotKey key = new SnapshotKey(relationshipTypes, propertyKeys, resourceKeys);
+        synchronized (snapshots) {
+            GraphSnapshot snapshot = snapshotsOf(db).get(key);
+            if (snapshot == null) {
+                snapshot = GraphSnapshot.build(db, key.relationshipTypes, key.propertyKeys, key.resourceKeys);
+                snapshotsOf(db).put(key, snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Builds the snapshot again and drops the cached distance tables of the database, they may be indexed by the node
+     * ids of the replaced snapshot.
+     */
+    public static GraphSnapshot rebuild(GraphDatabaseService db, List<String> relationshipTypes, List<String> propertyKeys, List<String> resourceKeys) {
+        SnapshotKey key = new SnapshotKey(relationshipTypes, propertyKeys, resourceKeys);
+        synchronized (snapshots) {
+            GraphSnapshot snapshot = GraphSnapshot.build(db, key.relationshipTypes, key.propertyKeys, key.resourceKeys);
+            snapshotsOf(db).put(key, snapshot);
+            LowerBoundsCache.invalidate(db);
+            return snapshot;
+        }
+    }
+
+    /**
+     * @return the number of dropped snapshots
+     */
+    public static int invalidate(GraphDatabaseService db) {
+        synchronized (snapshots) {
+            Map<SnapshotKey, GraphSnapshot> snapshotsOfDb = snapshots.remove(databaseKey(db));
+            return snapshotsOfDb == null ? 0 : snapshotsOfDb.size();
+        }
+    }
+
+    private static Map<SnapshotKey, GraphSnapshot> snapshotsOf(GraphDatabaseService db) {
+        return snapshots.computeIfAbsent(databaseKey(db), x -> new HashMap<>());
+    }
+
+    /**
+     * Procedures get a new facade per call, so databases are told apart by their store directory.
+     */
+    public static String databaseKey(GraphDatabaseService db) {
+        if (db instanceof GraphDatabaseAPI) {
+            return ((GraphDatabaseAPI) db).databaseLayout().databaseDirectory().getAbsolutePath();
+        }
+        return String.valueOf(System.identityHashCode(db));
+    }
+
+    /**
+     * Relationship types are matched case insensitively and their order does not matter.
+     */
+    public static List<String> normalizeRelationshipTypes(List<String> relationshipTypes) {
+        return relationshipTypes == null ? null :
+                relationshipTypes.stream().map(String::toLowerCase).distinct().sorted().collect(Collectors.toList());
+    }
+
+    private static class SnapshotKey {
+        private final List<String> relationshipTypes;
+        private final List<String> propertyKeys;
+        private final List<String> resourceKeys;
+
+        SnapshotKey(List<String> relationshipTypes, List<String> propertyKeys, List<String> resourceKeys) {
+            this.relationshipTypes = normalizeRelationshipTypes(relationshipTypes);
+            this.propertyKeys = new ArrayList<>(propertyKeys);
+            this.resourceKeys = resourceKeys == null ? Collections.emptyList() : new ArrayList<>(resourceKeys);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            SnapshotKey that = (SnapshotKey) o;
+
+            if (!Objects.equals(relationshipTypes, that.relationshipTypes)) return false;
+            if (!propertyKeys.equals(that.propertyKeys)) return false;
+            return resourceKeys.equals(that.resourceKeys);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = relationshipTypes != null ? relationshipTypes.hashCode() : 0;
+            result = 31 * result + propertyKeys.hashCode();
+            result = 31 * result + resourceKeys.hashCode();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package project.Graphs;
+
+import java.util.List;
+
+/**
+ * Graph with the direction of every edge of another graph reversed, so that a search from the destination over
+ * incoming edges can run as a search over outgoing edges. Node and edge ids are the ones of the other graph.
+ */
+public class ReversedGraph implements Graph {
+    private final Graph graph;
+
+    public ReversedGraph(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * The graph whose edges are reversed.
+     */
+    public Graph original() {
+        return graph;
+    }
+
+    @Override
+    public String name() {
+        return "Reversed" + graph.name();
+    }
+
+    @Override
+    public long nodeNumbering() {
+        return graph.nodeNumbering();
+    }
+
+    @Override
+    public int nodeCount() {
+        return graph.nodeCount();
+    }
+
+    @Override
+    public List<String> propertyKeys() {
+        return graph.propertyKeys();
+    }
+
+    @Override
+    public List<String> resourceKeys() {
+        return graph.resourceKeys();
+    }
+
+    @Override
+    public int toGraphNodeId(long neo4jNodeId) {
+        return graph.toGraphNodeId(neo4jNodeId);
+    }
+
+    @Override
+    public long toNeo4jNodeId(int graphNodeId) {
+        return graph.toNeo4jNodeId(graphNodeId);
+    }
+
+    @Override
+    public long toNeo4jRelationshipId(long edgeId) {
+        return graph.toNeo4jRelationshipId(edgeId);
+    }
+
+    @Override
+    public EdgeCursor outgoing(int graphNodeId) {
+        return graph.incoming(graphNodeId);
+    }
+
+    @Override
+    public EdgeCursor incoming(int graphNodeId) {
+        return graph.outgoing(graphNodeId);
+    }
+
+    @Override
+    public int startNodeOf(long edgeId) {
+        return graph.endNodeOf(edgeId);
+    }
+
+    @Override
+    public int endNodeOf(long edgeId) {
+        return graph.startNodeOf(edgeId);
+    }
+
+    @Override
+    public double cost(long edgeId, int criterionIndex) {
+        return graph.cost(edgeId, criterionIndex);
+    }
+
+    @Override
+    public double resource(long edgeId, int resourceIndex) {
+        return graph.resource(edgeId, resourceIndex);
+    }
+}
@@ -1,217 +1,166 @@
 package project;
 
-import org.neo4j.graphdb.*;
+import project.DataStructures.Skyline;
+import project.Graphs.EdgeCursor;
+import project.Graphs.Graph;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 
 public class Label implements Serializable {
-    private static List<String> propertyKeys;
-    private static Map<String, Double> resourceConstraints;
-    private static List<String> labelConstraints;
+    private static final double DOUBLE_SIZE = 8;
 
-    private long destinationNodeId;
     private long lastNodeId;
-    public Vector<Double> cost;
-    private Map<String, Double> resourceConstraintValues;
-
-    public Label(long nodeId, long destinationNodeId, List<String> propertyKeys, Map<String, Double> resourceConstraints, List<String> labelConstraints) {
-        Label.propertyKeys = propertyKeys;
-        Label.resourceConstraints = resourceConstraints;
-        Label.labelConstraints = labelConstraints;
-        this.destinationNodeId = destinationNodeId;
+    private final double[] costs;
+    private final double[] resources;
+
+    public Label(long nodeId, int criteriaCount, int resourceCount) {
+        this(nodeId, new double[criteriaCount], new double[resourceCount]);
+    }
+
+    Label(long nodeId, double[] costs, double[] resources) {
         this.lastNodeId = nodeId;
-        createInitialCostValues(propertyKeys);
-        createInitialResourceConstraintValues(resourceConstraints);
+        this.costs = costs;
+        this.resources = resources;
+    }
+
+    public double getBytesOfPrimitives() {
+        return (costs.length + resources.length) * DOUBLE_SIZE;
     }
 
-    public static double getBytesOfPrimitives() {
-        final double DOUBLE_SIZE = 8;
-        return propertyKeys.size() * DOUBLE_SIZE;
+    /**
+     * Estimated heap bytes of the label in a local skyline, see {@link MemoryGovernor#labelFootprint(int, int)}.
+     */
+    public long getFootprintInBytes() {
+        return MemoryGovernor.labelFootprint(costs.length, resources.length);
     }
 
     public double getCostByIndex(int index) {
-        return cost.get((index < 0) ? 0 : Math.min(index, cost.size() - 1));
+        return costs[(index < 0) ? 0 : Math.min(index, costs.length - 1)];
     }
 
     public double preferenceFunction() {
         double result = 0d;
-        for (Double cost : getCosts()) {
+        for (double cost : costs) {
             result += cost;
         }
         return result;
     }
 
-    private void createInitialCostValues(List<String> propertyKeys) {
-        if (propertyKeys == null) {
-            return;
-        }
-        cost = new Vector<>();
-        for (int index = 0; index < propertyKeys.size(); index++) {
-            cost.add(index, 0d);
-        }
-    }
-
-    private void createInitialResourceConstraintValues(Map<String, Double> constraintValues) {
-        if (constraintValues == null) {
-            return;
-        }
-        resourceConstraintValues = new HashMap<>();
-        for (Map.Entry<String, Double> entry : constraintValues.entrySet()) {
-            resourceConstraintValues.put(entry.getKey(), 0.);
-        }
+    public double[] getCosts() {
+        return this.costs;
     }
 
-    public Vector<Double> getCosts() {
-        return this.cost;
+    double[] getResources() {
+        return this.resources;
     }
 
     public long getLastNodeId() {
         return this.lastNodeId;
     }
 
-    public List<Label> expandARSC(GraphDatabaseService db, Queue<Long> nodeQueue, LocalRouteSkylineManager localRouteSkylineManager) throws IOException, ClassNotFoundException {
+    void setLastNodeId(long lastNodeId) {
+        this.lastNodeId = lastNodeId;
+    }
+
+    public List<Label> expandARSC(Graph graph, long destinationNodeId, double[] resourceConstraints, NodeQueue nodeQueue, LocalRouteSkylineManager localRouteSkylineManager) throws IOException, ClassNotFoundException {
         List<Label> expandedPaths = new LinkedList<>();
-        Node lastNode = db.getNodeById(lastNodeId);
-        List<Relationship> validRelationships = new LinkedList<>();
-        lastNode.getRelationships(Direction.OUTGOING).forEach(validRelationships::add);
-        if (labelConstraints != null) {
-            validRelationships = getValidRelationshipsByLabelConstraints(validRelationships);
-        }
-        for (Relationship relationship : validRelationships) {
-            Label expandedPath = expand(relationship);
-            if (expandedPath.isValidByResourceConstraints()) {
-                long relationshipEndNodeId = relationship.getEndNodeId();
+        EdgeCursor edges = graph.outgoing((int) lastNodeId);
+        while (edges.next()) {
+            Label expandedPath = expand(edges);
+            if (expandedPath.isValidByResourceConstraints(resourceConstraints)) {
+                long relationshipEndNodeId = edges.otherNodeId();
+                // the local skyline of the end node stays in memory from the dominance test to the removal of dominated labels
+                localRouteSkylineManager.pin(relationshipEndNodeId);
                 if (localRouteSkylineManager.hasSubRoutes(relationshipEndNodeId)) {
                     boolean is_SubRouteDominated = expandedPath.isDominatedInRouteList(localRouteSkylineManager.get(relationshipEndNodeId));
                     if (!is_SubRouteDominated) {
                         if (localRouteSkylineManager.add(relationshipEndNodeId, expandedPath)) {
-                            for (int subRouteIndex = 0; subRouteIndex < localRouteSkylineManager.getSizeOfSubRoutes(relationshipEndNodeId); subRouteIndex++) {
-                                Label oldLabel = localRouteSkylineManager.getSubRouteByIndex(relationshipEndNodeId, subRouteIndex);
-                                if (oldLabel.isDominatedBy(expandedPath)) {
-                                    localRouteSkylineManager.removeSubRoute(relationshipEndNodeId, oldLabel);
-                                    subRouteIndex--;
-                                }
+                            // a node whose local skyline has been expanded already is queued again for the new label
+                            if (relationshipEndNodeId != destinationNodeId) {
+                                nodeQueue.offer(relationshipEndNodeId, expandedPath);
                             }
+                            localRouteSkylineManager.removeDominatedSubRoutes(relationshipEndNodeId, expandedPath);
+                            expandedPaths.add(expandedPath);
                         }
-                        expandedPaths.add(expandedPath);
                     }
                 } else {
                     localRouteSkylineManager.add(relationshipEndNodeId, expandedPath);
                     expandedPaths.add(expandedPath);
                     if (relationshipEndNodeId != destinationNodeId) {
-                        nodeQueue.add(relationshipEndNodeId);
+                        nodeQueue.offer(relationshipEndNodeId, expandedPath);
                     }
                 }
+                localRouteSkylineManager.unpin(relationshipEndNodeId);
             }
         }
         return expandedPaths;
     }
 
-    public Label expand(Relationship relationship) {
-        Label expandedLabel = new Label(relationship.getEndNode().getId(), destinationNodeId, propertyKeys, resourceConstraints, labelConstraints);
-        int index = 0;
-        for (String propertyKey : propertyKeys) {
-            expandedLabel.getCosts().set(index, getCostByIndex(index) +
-                    Double.parseDouble(relationship.getProperty(propertyKey).toString()));
-            index++;
+    public Label expand(EdgeCursor edge) {
+        double[] expandedCosts = new double[costs.length];
+        for (int index = 0; index < costs.length; index++) {
+            expandedCosts[index] = costs[index] + edge.cost(index);
         }
-
-        if (resourceConstraints != null && !resourceConstraints.isEmpty()) {
-            for (Map.Entry<String, Double> resourceConstraint : resourceConstraints.entrySet()) {
-                String resourceConstraintKey = resourceConstraint.getKey();
-                double relationshipCost = relationship.hasProperty(resourceConstraintKey) ? Double.parseDouble(relationship.getProperty(resourceConstraintKey).toString()) : Double.MAX_VALUE;
-                double updatedResourceConstraintValue = resourceConstraintValues.get(resourceConstraintKey)
-                        + relationshipCost;
-                expandedLabel.resourceConstraintValues.put(resourceConstraintKey, updatedResourceConstraintValue);
-            }
+        double[] expandedResources = new double[resources.length];
+        for (int index = 0; index < resources.length; index++) {
+            expandedResources[index] = resources[index] + edge.resource(index);
         }
-
-        return expandedLabel;
+        return new Label(edge.otherNodeId(), expandedCosts, expandedResources);
     }
 
-    // RESOURCE CONSTRAINTS
-    private boolean isValidByResourceConstraints() {
-        if (resourceConstraints != null) {
-            for (Map.Entry<String, Double> resourceConstraint : resourceConstraints.entrySet()) {
-                if (resourceConstraintValues.get(resourceConstraint.getKey()) > resourceConstraint.getValue()) {
-                    return false;
-                }
-            }
+    public Label expand(Graph graph, long edgeId) {
+        double[] expandedCosts = new double[costs.length];
+        for (int index = 0; index < costs.length; index++) {
+            expandedCosts[index] = costs[index] + graph.cost(edgeId, index);
         }
-        return true;
-    }
-
-    // LABEL CONSTRAINTS
-    private boolean isValidRelationShipByLabelConstraint(Relationship relationship) {
-        if (labelConstraints != null) {
-            return labelConstraints.stream().anyMatch(x -> x.toLowerCase().equals(relationship.getType().name().toLowerCase()));
-        }
-        return true;
-    }
-
-    private boolean isDominatedBy(Relationship lhs, Relationship rhs) {
-        int dominatedPropertyCount = 0;
-        for (String propertyKey: propertyKeys) {
-            double rhsPropertyCost = rhs.hasProperty(propertyKey) ? Double.parseDouble(rhs.getProperty(propertyKey).toString()) : Double.MAX_VALUE;
-            double lhsPropertyCost = lhs.hasProperty(propertyKey) ? Double.parseDouble(lhs.getProperty(propertyKey).toString()) : Double.MAX_VALUE;
-            if (lhsPropertyCost >= rhsPropertyCost) {
-                dominatedPropertyCount++;
-            }
+        double[] expandedResources = new double[resources.length];
+        for (int index = 0; index < resources.length; index++) {
+            expandedResources[index] = resources[index] + graph.resource(edgeId, index);
         }
-        return dominatedPropertyCount == propertyKeys.size();
+        return new Label(graph.endNodeOf(edgeId), expandedCosts, expandedResources);
     }
 
-    private List<Relationship> getValidRelationshipsByLabelConstraints(List<Relationship> relationships) {
-        List<Relationship> validRelationships = new LinkedList<>();
-
-        List<Relationship> tempRelationships = new LinkedList<>();
-        relationships.stream().filter(this::isValidRelationShipByLabelConstraint).forEach(tempRelationships::add);
-
-        for (Relationship lhsRelationship: tempRelationships) {
-            boolean isLhsRelationshipDominated = false;
-            for (Relationship rhsRelationship: tempRelationships) {
-                if (!lhsRelationship.equals(rhsRelationship) && lhsRelationship.getEndNodeId() == rhsRelationship.getEndNodeId()) {
-                    isLhsRelationshipDominated = isDominatedBy(lhsRelationship, rhsRelationship);
-                    if (isLhsRelationshipDominated) {
-                        break;
-                    }
-                }
-            }
-            if (!isLhsRelationshipDominated) {
-                validRelationships.add(lhsRelationship);
+    // RESOURCE CONSTRAINTS
+    public boolean isValidByResourceConstraints(double[] resourceConstraints) {
+        for (int index = 0; index < resources.length; index++) {
+            if (resources[index] > resourceConstraints[index]) {
+                return false;
             }
         }
-
-        return validRelationships;
+        return true;
     }
 
     // DEFINITION 7
     public boolean isDominatedBy(Label rhsLabel) {
-        if (rhsLabel == null || getCosts().isEmpty() || rhsLabel.getCosts().isEmpty() || equals(rhsLabel))
+        if (rhsLabel == null || costs.length == 0 || rhsLabel.costs.length == 0)
             return false;
-        int dominatedWeightCount = 0;
-        for (int index = 0; index < propertyKeys.size(); index++) {
-            if (getCostByIndex(index) >= rhsLabel.getCostByIndex(index)) {
-                dominatedWeightCount++;
+        for (int index = 0; index < costs.length; index++) {
+            if (costs[index] < rhsLabel.costs[index]) {
+                return false;
             }
         }
-        return dominatedWeightCount == propertyKeys.size();
+        return !equals(rhsLabel);
     }
 
-    public boolean doesDominate(Vector<Double> vector) {
-        if (vector == null || vector.isEmpty() || getCosts().isEmpty()) return false;
-        int dominatedWeightCount = 0;
-        for (int index = 0; index < propertyKeys.size(); index++) {
-            if (vector.get(index) >= getCostByIndex(index)) {
-                dominatedWeightCount++;
+    public boolean doesDominate(double[] vector) {
+        if (vector == null || vector.length == 0 || costs.length == 0) return false;
+        for (int index = 0; index < costs.length; index++) {
+            if (vector[index] < costs[index]) {
+                return false;
             }
         }
-        return dominatedWeightCount == propertyKeys.size();
+        return true;
     }
 
     public boolean isDominatedInRouteList(List<Label> subRoutes) {
+        if (subRoutes instanceof LocalSkyline) {
+            return ((LocalSkyline) subRoutes).dominates(this);
+        }
+        if (subRoutes instanceof Skyline) {
+            return ((Skyline<?>) subRoutes).isDominated(costs);
+        }
         for (Label subRoute : subRoutes) {
             if (isDominatedBy(subRoute)) {
                 return true;
@@ -228,12 +177,12 @@ public class Label implements Serializable {
         Label label = (Label) o;
 
         if (lastNodeId != label.lastNodeId) return false;
-        return Objects.equals(cost, label.cost);
+        return Arrays.equals(costs, label.costs);
     }
 
     @Override
     public int hashCode() {
-        int result = cost != null ? cost.hashCode() : 0;
+        int result = Arrays.hashCode(costs);
         result = 31 * result + (int) (lastNodeId ^ (lastNodeId >>> 32));
         return result;
     }
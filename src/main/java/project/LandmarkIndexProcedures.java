@@ -0,0 +1,67 @@
+package project;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.procedure.*;
+import project.LowerBoundsCalculators.LandmarkIndex;
+import project.LowerBoundsCalculators.LandmarkIndexManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class LandmarkIndexProcedures {
+    @Context
+    public GraphDatabaseService db;
+
+    @Procedure(value = "dbis.landmarks.build", name = "dbis.landmarks.build", mode = Mode.READ)
+    @Description("Chooses landmarks per relationship property key and stores their distance tables next to the database, used by the lowerBounds: 'landmarks' option")
+    public Stream<LandmarkIndexStatus> build(@Name("relationshipTypes") List<String> relationshipTypes,
+                                             @Name("relationshipPropertyKeys") List<String> relationshipPropertyKeys,
+                                             @Name(value = "landmarkCount", defaultValue = "" + LandmarkIndexManager.DEFAULT_LANDMARK_COUNT) long landmarkCount) throws IOException {
+        LandmarkIndex index = LandmarkIndexManager.build(db, relationshipTypes, relationshipPropertyKeys, (int) landmarkCount);
+        return Stream.of(new LandmarkIndexStatus(index));
+    }
+
+    @Procedure(value = "dbis.landmarks.status", name = "dbis.landmarks.status", mode = Mode.READ)
+    @Description("Lists the landmark indexes of the database, whether they are stale and the index files that could not be loaded")
+    public Stream<LandmarkIndexStatus> status() {
+        return Stream.concat(LandmarkIndexManager.indexes(db).stream().map(LandmarkIndexStatus::new),
+                LandmarkIndexManager.loadErrors(db).entrySet().stream().map(x -> new LandmarkIndexStatus(x.getKey(), x.getValue())));
+    }
+
+    public static class LandmarkIndexStatus {
+        public String file;
+        public List<String> relationshipTypes;
+        public List<String> relationshipPropertyKeys;
+        public long nodeCount;
+        public long landmarkCount;
+        public List<List<Long>> landmarks;
+        public long buildTimeInMilliseconds;
+        // the index may overestimate since the graph changed, it is not used until it is rebuilt
+        public boolean isStale;
+        // why the index file could not be loaded, null for loaded indexes
+        public String error;
+
+        public LandmarkIndexStatus(LandmarkIndex index) {
+            this.file = index.file().getAbsolutePath();
+            this.relationshipTypes = index.relationshipTypes();
+            this.relationshipPropertyKeys = index.propertyKeys();
+            this.nodeCount = index.nodeCount();
+            this.landmarkCount = index.landmarkCount();
+            this.landmarks = new ArrayList<>();
+            for (int propertyIndex = 0; propertyIndex < index.propertyKeys().size(); propertyIndex++) {
+                this.landmarks.add(index.landmarkNodeIds(propertyIndex));
+            }
+            this.buildTimeInMilliseconds = index.buildTimeInMilliseconds();
+            this.isStale = index.isStale();
+        }
+
+        public LandmarkIndexStatus(File file, String error) {
+            this.file = file.getAbsolutePath();
+            this.isStale = true;
+            this.error = error;
+        }
+    }
+}
@@ -1,60 +1,104 @@
 package project;
 
 import project.CacheManagers.*;
+import project.DataStructures.DenseNodeMap;
+import project.DataStructures.Skyline;
 import org.apache.commons.lang.NullArgumentException;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 public class LocalRouteSkylineManager {
-    private Map<Long, List<Label>> subRoutes = new HashMap<>();
+    // local skylines in memory by graph node id
+    private DenseNodeMap<List<Label>> subRoutes = new DenseNodeMap<>();
     private DiskManager diskManager;
-    private CacheManager cacheManager = new LFUDACacheManager();
+    private CacheManager cacheManager;
+    // local skylines of two criteria are staircases, of other criteria counts sorted skylines, unknown ones lists
+    private int criteriaCount;
+    // running totals of the local skylines in memory
+    private int subRouteCountInMemory = 0;
+    private long subRouteFootprint = 0;
 
     public LocalRouteSkylineManager(DiskManager diskManager) {
+        this(diskManager, new LFUDACacheManager());
+    }
+
+    public LocalRouteSkylineManager(DiskManager diskManager, CacheManager cacheManager) {
+        this(diskManager, cacheManager, 0);
+    }
+
+    public LocalRouteSkylineManager(DiskManager diskManager, CacheManager cacheManager, int criteriaCount) {
         this.diskManager = diskManager;
+        this.cacheManager = cacheManager;
+        this.criteriaCount = criteriaCount;
     }
 
     public CacheManager cacheManager() {
         return cacheManager;
     }
 
-    public Map<Long, List<Label>> getSubRoutesOnMemory() {
+    public DenseNodeMap<List<Label>> getSubRoutesOnMemory() {
         return subRoutes;
     }
 
     public double getTotalBytesOfPrimitivesInMemory() {
-        double result = 0;
-        for (Map.Entry<Long, List<Label>> entry : subRoutes.entrySet()) {
-            result += (entry.getValue().size() * Label.getBytesOfPrimitives());
-        }
-        return result;
+        double[] result = {0};
+        subRoutes.forEach((subRoutesOfNode, nodeId) -> result[0] += getBytesOfPrimitivesInMemory(nodeId));
+        return result[0];
     }
 
     public int getTotalLocalRouteSkylineCountInMemory() {
-        int subRouteCount = 0;
-        for (Map.Entry<Long, List<Label>> subRouteEntry : subRoutes.entrySet()) {
-            subRouteCount += subRouteEntry.getValue().size();
+        return subRouteCountInMemory;
+    }
+
+    /**
+     * Estimated heap bytes of the local skylines in memory.
+     */
+    public long getFootprintInBytes() {
+        return subRoutes.size() * MemoryGovernor.nodeFootprint() + subRouteCountInMemory * subRouteFootprint;
+    }
+
+    public long getFootprintInBytes(long nodeId) {
+        List<Label> subRoutesOfNode = subRoutes.get(nodeId);
+        if (subRoutesOfNode == null) {
+            return 0;
         }
-        return subRouteCount;
+        return MemoryGovernor.nodeFootprint() + subRoutesOfNode.size() * subRouteFootprint;
     }
 
     public double getBytesOfPrimitivesInMemory(long nodeId) {
-        return hasSubRoutesInMemory(nodeId) ? subRoutes.get(nodeId).size() * Label.getBytesOfPrimitives() : 0d;
+        double result = 0;
+        if (hasSubRoutesInMemory(nodeId)) {
+            for (Label subRoute : subRoutes.get(nodeId)) {
+                result += subRoute.getBytesOfPrimitives();
+            }
+        }
+        return result;
     }
 
     public List<Label> get(long nodeId) throws IOException, ClassNotFoundException {
 
-        if (cacheManager instanceof LFUCacheManager || cacheManager instanceof LFUDACacheManager) {
+        if (!isRecencyBased()) {
             cacheManager.push(nodeId);
         }
 
         if (!hasSubRoutesInMemory(nodeId)) {
             List<Label> subRoutesOfNode = diskManager.getFromDisc(this, nodeId);
-            subRoutes.put(nodeId, subRoutesOfNode == null ? new LinkedList<>() : subRoutesOfNode);
+            if (subRoutesOfNode == null) {
+                subRoutesOfNode = newLocalSkyline();
+            } else {
+                if (criteriaCount > 0 && subRoutesOfNode instanceof LinkedList) {
+                    // read back from the spill file
+                    subRoutesOfNode = criteriaCount == 2 ? new LocalSkyline(subRoutesOfNode) : new Skyline<>(criteriaCount, Label::getCosts, subRoutesOfNode);
+                }
+                if (!subRoutesOfNode.isEmpty()) {
+                    countSubRoutes(subRoutesOfNode.size(), subRoutesOfNode.get(0));
+                }
+            }
+            subRoutes.put(nodeId, subRoutesOfNode);
+            cacheManager.updateLabelCount(nodeId, subRoutesOfNode.size());
         } else {
             cacheManager.incrementHitCount();
         }
@@ -69,6 +113,18 @@ public class LocalRouteSkylineManager {
         return get(nodeId).size();
     }
 
+    /**
+     * Keeps the local skyline of the node in memory until it is unpinned, so that loops over it are not interrupted by
+     * spilling it.
+     */
+    public void pin(long nodeId) {
+        cacheManager.pin(nodeId);
+    }
+
+    public void unpin(long nodeId) {
+        cacheManager.unpin(nodeId);
+    }
+
     public Label getSubRouteByIndex(long nodeId, int index) throws IOException, ClassNotFoundException, IllegalArgumentException {
         if (index < 0) {
             throw new IllegalArgumentException("Index could not be less than zero.");
@@ -86,16 +142,41 @@ public class LocalRouteSkylineManager {
             throw new NullArgumentException("subRoute");
         }
 
-        if (hasSubRoutesInMemory(nodeId)) {
-            subRoutes.get(nodeId).remove(subRoute);
+        List<Label> subRoutesOfNode = hasSubRoutesInMemory(nodeId) ? subRoutes.get(nodeId) : get(nodeId);
+        if (subRoutesOfNode.remove(subRoute)) {
+            subRouteCountInMemory--;
+        }
+    }
+
+    /**
+     * Removes the sub-routes of the node that are dominated by the label.
+     *
+     * @return the number of removed sub-routes
+     */
+    @SuppressWarnings("unchecked")
+    public int removeDominatedSubRoutes(long nodeId, Label label) throws IOException, ClassNotFoundException {
+        List<Label> subRoutesOfNode = hasSubRoutesInMemory(nodeId) ? subRoutes.get(nodeId) : get(nodeId);
+        int removedCount = 0;
+        if (subRoutesOfNode instanceof LocalSkyline) {
+            removedCount = ((LocalSkyline) subRoutesOfNode).removeDominatedBy(label);
+        } else if (subRoutesOfNode instanceof Skyline) {
+            removedCount = ((Skyline<Label>) subRoutesOfNode).removeDominatedBy(label.getCosts());
         } else {
-            get(nodeId).remove(subRoute);
+            for (Iterator<Label> subRouteIterator = subRoutesOfNode.iterator(); subRouteIterator.hasNext(); ) {
+                if (subRouteIterator.next().isDominatedBy(label)) {
+                    subRouteIterator.remove();
+                    removedCount++;
+                }
+            }
         }
+        subRouteCountInMemory -= removedCount;
+        return removedCount;
     }
 
     public void removeAllSubRouteFromMemory(long nodeId) {
-        if (hasSubRoutesInMemory(nodeId)) {
-            subRoutes.remove(nodeId);
+        List<Label> subRoutesOfNode = subRoutes.remove(nodeId);
+        if (subRoutesOfNode != null) {
+            subRouteCountInMemory -= subRoutesOfNode.size();
         }
     }
 
@@ -105,14 +186,15 @@ public class LocalRouteSkylineManager {
         }
 
         List<Label> localSkylineRoutes = get(nodeId);
-        for (Label subLabel : localSkylineRoutes) {
-            if (label.equals(subLabel)) {
-                return false;
-            }
+        int sizeBefore = localSkylineRoutes.size();
+        // skylines reject dominated labels and remove the labels the label dominates
+        if (localSkylineRoutes.contains(label) || !localSkylineRoutes.add(label)) {
+            return false;
         }
-        localSkylineRoutes.add(label);
+        countSubRoutes(localSkylineRoutes.size() - sizeBefore, label);
+        cacheManager.updateLabelCount(nodeId, localSkylineRoutes.size());
 
-        if (cacheManager instanceof FIFOCacheManager || cacheManager instanceof LRUCacheManager || cacheManager instanceof  MRUCacheManager) {
+        if (isRecencyBased()) {
             cacheManager().push(nodeId);
         }
 
@@ -120,6 +202,26 @@ public class LocalRouteSkylineManager {
         return true;
     }
 
+    private List<Label> newLocalSkyline() {
+        if (criteriaCount == 2) {
+            return new LocalSkyline();
+        }
+        return criteriaCount > 0 ? new Skyline<>(criteriaCount, Label::getCosts) : new LinkedList<>();
+    }
+
+    private void countSubRoutes(int subRouteCount, Label subRoute) {
+        subRouteCountInMemory += subRouteCount;
+        if (subRouteFootprint == 0) {
+            // the labels of a query have the same number of costs and resources
+            subRouteFootprint = subRoute.getFootprintInBytes();
+        }
+    }
+
+    // recency based policies are pushed when a label is added, the frequency based ones on every read
+    private boolean isRecencyBased() {
+        return cacheManager instanceof FIFOCacheManager || cacheManager instanceof LRUCacheManager || cacheManager instanceof MRUCacheManager;
+    }
+
     public boolean hasSubRoutesInMemory(long nodeId) {
         return subRoutes.containsKey(nodeId);
     }
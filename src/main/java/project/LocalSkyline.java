@@ -0,0 +1,182 @@
+package project;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Local skyline of a node for two criteria. The labels are kept sorted by their first cost, and as none of them
+ * dominates another their second costs descend, so the skyline is a staircase. A dominance test is a binary search for
+ * the last label whose first cost is not larger, and the labels dominated by an inserted label are the labels that
+ * follow its position up to the first one with a smaller second cost.
+ */
+public class LocalSkyline extends AbstractList<Label> implements RandomAccess {
+    private Label[] labels;
+    private int size = 0;
+
+    public LocalSkyline() {
+        labels = new Label[4];
+    }
+
+    /**
+     * Local skyline of the labels of a spilled local skyline, which are mutually non-dominated.
+     */
+    public LocalSkyline(List<Label> subRoutes) {
+        labels = subRoutes.toArray(new Label[Math.max(4, subRoutes.size())]);
+        size = subRoutes.size();
+        // spilled in order, so this is a single pass
+        Arrays.sort(labels, 0, size, (lhs, rhs) -> {
+            int comparison = Double.compare(lhs.getCosts()[0], rhs.getCosts()[0]);
+            return comparison != 0 ? comparison : Double.compare(lhs.getCosts()[1], rhs.getCosts()[1]);
+        });
+    }
+
+    @Override
+    public Label get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return labels[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return whether a label of the skyline dominates the label, see {@link Label#isDominatedBy(Label)}
+     */
+    public boolean dominates(Label label) {
+        int index = upperBound(label.getCosts()[0]) - 1;
+        if (index < 0) {
+            return false;
+        }
+        // the label with the smallest second cost among the ones whose first cost is not larger
+        return labels[index].getCosts()[1] <= label.getCosts()[1] && !label.equals(labels[index]);
+    }
+
+    /**
+     * Inserts the label at its position and removes the labels it dominates.
+     *
+     * @return false if the label is already in the skyline or dominated by one of its labels
+     */
+    @Override
+    public boolean add(Label label) {
+        if (dominates(label) || indexOf(label) >= 0) {
+            return false;
+        }
+        removeDominatedBy(label);
+        int index = lowerBound(label.getCosts()[0]);
+        if (size == labels.length) {
+            labels = Arrays.copyOf(labels, 2 * size);
+        }
+        System.arraycopy(labels, index, labels, index + 1, size - index);
+        labels[index] = label;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes the labels dominated by the label, which follow the position of the label.
+     *
+     * @return the number of removed labels
+     */
+    public int removeDominatedBy(Label label) {
+        int from = lowerBound(label.getCosts()[0]);
+        if (from < size && labels[from].equals(label)) {
+            // the label itself is not dominated
+            from++;
+        }
+        int to = from;
+        while (to < size && labels[to].isDominatedBy(label)) {
+            to++;
+        }
+        removeRange(from, to);
+        return to - from;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Label)) {
+            return -1;
+        }
+        Label label = (Label) o;
+        for (int index = lowerBound(label.getCosts()[0]); index < size && labels[index].getCosts()[0] == label.getCosts()[0]; index++) {
+            if (labels[index].equals(label)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public Label remove(int index) {
+        Label label = get(index);
+        removeRange(index, index + 1);
+        return label;
+    }
+
+    @Override
+    public void clear() {
+        removeRange(0, size);
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        System.arraycopy(labels, toIndex, labels, fromIndex, size - toIndex);
+        Arrays.fill(labels, size - (toIndex - fromIndex), size, null);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    // index of the first label whose first cost is not smaller than the cost
+    private int lowerBound(double firstCost) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (labels[middle].getCosts()[0] < firstCost) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // index of the first label whose first cost is larger than the cost
+    private int upperBound(double firstCost) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (labels[middle].getCosts()[0] <= firstCost) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,48 @@
+package project;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.procedure.*;
+import project.LowerBoundsCalculators.LowerBoundsCache;
+
+import java.util.stream.Stream;
+
+public class LowerBoundsCacheProcedures {
+    @Context
+    public GraphDatabaseService db;
+
+    @Procedure(value = "dbis.lowerBounds.setCapacity", name = "dbis.lowerBounds.setCapacity", mode = Mode.DBMS)
+    @Description("Sets the number of bytes the cached lower bound distance tables may take before the least recently used ones are evicted")
+    public Stream<CacheStatus> setCapacity(@Name("capacityInBytes") long capacityInBytes) {
+        LowerBoundsCache.setCapacityInBytes(capacityInBytes);
+        return Stream.of(new CacheStatus());
+    }
+
+    @Procedure(value = "dbis.lowerBounds.status", name = "dbis.lowerBounds.status", mode = Mode.READ)
+    @Description("Capacity, size, table count and hit and miss counts of the lower bound distance tables shared by the queries")
+    public Stream<CacheStatus> status() {
+        return Stream.of(new CacheStatus());
+    }
+
+    @Procedure(value = "dbis.lowerBounds.invalidate", name = "dbis.lowerBounds.invalidate", mode = Mode.DBMS)
+    @Description("Drops the cached lower bound distance tables of the database, they are computed again by the next queries")
+    public Stream<CacheStatus> invalidate() {
+        LowerBoundsCache.invalidate(db);
+        return Stream.of(new CacheStatus());
+    }
+
+    public static class CacheStatus {
+        public long capacityInBytes;
+        public long sizeInBytes;
+        public long tableCount;
+        public long hitCount;
+        public long missCount;
+
+        public CacheStatus() {
+            this.capacityInBytes = LowerBoundsCache.getCapacityInBytes();
+            this.sizeInBytes = LowerBoundsCache.getSizeInBytes();
+            this.tableCount = LowerBoundsCache.getTableCount();
+            this.hitCount = LowerBoundsCache.getHitCount();
+            this.missCount = LowerBoundsCache.getMissCount();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package project.LowerBoundsCalculators;
+
+import project.DataStructures.IndexedMinHeap;
+import project.Graphs.EdgeCursor;
+import project.Graphs.Graph;
+
+import java.util.Arrays;
+
+/**
+ * Single-criterion one-to-all shortest paths on a graph.
+ */
+public class Dijkstra {
+    /**
+     * @param backward follow incoming edges, i.e. compute the distances from every node to the source
+     * @return distances indexed by graph node id, Double.POSITIVE_INFINITY for unreachable nodes
+     */
+    public static double[] oneToAll(Graph graph, int sourceNodeId, int criterionIndex, boolean backward) {
+        double[] distances = new double[graph.nodeCount()];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        boolean[] settled = new boolean[distances.length];
+        IndexedMinHeap open = new IndexedMinHeap(distances.length);
+
+        distances[sourceNodeId] = 0d;
+        open.push(sourceNodeId, 0d);
+        while (!open.isEmpty()) {
+            int nodeId = open.poll();
+            settled[nodeId] = true;
+            EdgeCursor edges = backward ? graph.incoming(nodeId) : graph.outgoing(nodeId);
+            while (edges.next()) {
+                int otherNodeId = edges.otherNodeId();
+                if (otherNodeId >= distances.length || settled[otherNodeId]) {
+                    continue;
+                }
+                double distance = distances[nodeId] + edges.cost(criterionIndex);
+                if (distance < distances[otherNodeId]) {
+                    distances[otherNodeId] = distance;
+                    open.push(otherNodeId, distance);
+                }
+            }
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,346 @@
+package project.LowerBoundsCalculators;
+
+import project.Graphs.EdgeCursor;
+import project.Graphs.GraphSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Landmark (ALT) distance tables of a graph snapshot, kept in a memory-mapped file.
+ * For every criterion K landmarks are chosen by farthest selection and the distances from each landmark to every
+ * node (forward) and from every node to each landmark (backward) are stored. By the triangle inequality
+ * d(v, t) >= d(v, L) - d(t, L) and d(v, t) >= d(L, t) - d(L, v) for every landmark L.
+ * <p>
+ * File layout: header, Neo4j node ids, landmark nodes, then per criterion the forward and the backward table,
+ * each laid out as [node][landmark] so that the K values of a node are contiguous.
+ * <p>
+ * The header holds the last committed transaction id of the database the tables are valid for. An index is stale once
+ * the relationships or the indexed property keys change, its bounds may then overestimate and prune routes.
+ */
+public class LandmarkIndex {
+    private static final int MAGIC = 0x4C4D4B31; // LMK1
+    private static final int VERSION = 2;
+    // magic, version, node count, landmark count and description length, then the transaction id
+    private static final int HEADER_SIZE = 5 * Integer.BYTES + Long.BYTES;
+    private static final double UNREACHABLE = Double.POSITIVE_INFINITY;
+
+    private final File file;
+    private final List<String> relationshipTypes;
+    private final List<String> propertyKeys;
+    private final int nodeCount;
+    private final int landmarkCount;
+    private final long[] neo4jNodeIds;
+    private final int[] indexNodeIds;
+    private final int[][] landmarks;
+    private final DoubleBuffer[] forwardDistances;
+    private final DoubleBuffer[] backwardDistances;
+    private final long buildTimeInMilliseconds;
+    private volatile long transactionId;
+    private volatile boolean isStale = false;
+
+    private LandmarkIndex(File file, List<String> relationshipTypes, List<String> propertyKeys, int landmarkCount,
+                          long[] neo4jNodeIds, int[][] landmarks, DoubleBuffer[] forwardDistances,
+                          DoubleBuffer[] backwardDistances, long buildTimeInMilliseconds, long transactionId) {
+        this.file = file;
+        this.relationshipTypes = relationshipTypes;
+        this.propertyKeys = propertyKeys;
+        this.nodeCount = neo4jNodeIds.length;
+        this.landmarkCount = landmarkCount;
+        this.neo4jNodeIds = neo4jNodeIds;
+        this.landmarks = landmarks;
+        this.forwardDistances = forwardDistances;
+        this.backwardDistances = backwardDistances;
+        this.buildTimeInMilliseconds = buildTimeInMilliseconds;
+        this.transactionId = transactionId;
+
+        long highestNodeId = -1;
+        for (long neo4jNodeId : neo4jNodeIds) {
+            highestNodeId = Math.max(highestNodeId, neo4jNodeId);
+        }
+        indexNodeIds = new int[(int) (highestNodeId + 1)];
+        Arrays.fill(indexNodeIds, -1);
+        for (int node = 0; node < nodeCount; node++) {
+            indexNodeIds[(int) neo4jNodeIds[node]] = node;
+        }
+    }
+
+    /**
+     * Chooses the landmarks of every criterion, computes their distance tables on the snapshot and writes them to the file.
+     *
+     * @param transactionId the last committed transaction id of the database the snapshot was built from
+     */
+    public static LandmarkIndex build(GraphSnapshot snapshot, int landmarkCount, File file, long transactionId) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int nodeCount = snapshot.nodeCount();
+        int criteriaCount = snapshot.propertyKeys().size();
+        if (nodeCount == 0) {
+            throw new IllegalArgumentException("Landmark index can not be built on an empty graph.");
+        }
+        landmarkCount = Math.max(1, Math.min(landmarkCount, nodeCount));
+
+        long[] neo4jNodeIds = new long[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            neo4jNodeIds[node] = snapshot.toNeo4jNodeId(node);
+        }
+
+        int[][] landmarks = new int[criteriaCount][];
+        double[][][] forward = new double[criteriaCount][][];
+        double[][][] backward = new double[criteriaCount][][];
+        for (int criterion = 0; criterion < criteriaCount; criterion++) {
+            selectLandmarks(snapshot, criterion, landmarkCount, landmarks, forward, backward);
+        }
+
+        file.getParentFile().mkdirs();
+        byte[] header = header(snapshot.relationshipTypes(), snapshot.propertyKeys(), nodeCount, landmarkCount, transactionId);
+        long tableSize = (long) nodeCount * landmarkCount * Double.BYTES;
+        long fileSize = header.length + (long) nodeCount * Long.BYTES + (long) criteriaCount * landmarkCount * Integer.BYTES
+                + 2 * criteriaCount * tableSize;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"); FileChannel channel = randomAccessFile.getChannel()) {
+            randomAccessFile.setLength(fileSize);
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, header.length + (long) nodeCount * Long.BYTES
+                    + (long) criteriaCount * landmarkCount * Integer.BYTES);
+            buffer.put(header);
+            for (long neo4jNodeId : neo4jNodeIds) {
+                buffer.putLong(neo4jNodeId);
+            }
+            for (int criterion = 0; criterion < criteriaCount; criterion++) {
+                for (int landmark = 0; landmark < landmarkCount; landmark++) {
+                    buffer.putInt(landmark < landmarks[criterion].length ? landmarks[criterion][landmark] : -1);
+                }
+            }
+            long position = buffer.capacity();
+            for (int criterion = 0; criterion < criteriaCount; criterion++) {
+                for (double[][] table : new double[][][]{forward[criterion], backward[criterion]}) {
+                    DoubleBuffer tableBuffer = channel.map(FileChannel.MapMode.READ_WRITE, position, tableSize).asDoubleBuffer();
+                    for (int node = 0; node < nodeCount; node++) {
+                        for (int landmark = 0; landmark < landmarkCount; landmark++) {
+                            tableBuffer.put(landmark < table.length ? table[landmark][node] : UNREACHABLE);
+                        }
+                    }
+                    position += tableSize;
+                }
+            }
+        }
+
+        LandmarkIndex index = load(file);
+        return new LandmarkIndex(file, index.relationshipTypes, index.propertyKeys, index.landmarkCount, index.neo4jNodeIds,
+                index.landmarks, index.forwardDistances, index.backwardDistances, System.currentTimeMillis() - startTime, transactionId);
+    }
+
+    /**
+     * Farthest selection: starts with the node farthest from the node of highest out-degree and adds the node whose
+     * smallest distance to the chosen landmarks is the largest. Nodes that no landmark can reach are avoided.
+     */
+    private static void selectLandmarks(GraphSnapshot snapshot, int criterion, int landmarkCount, int[][] landmarks,
+                                        double[][][] forward, double[][][] backward) {
+        int nodeCount = snapshot.nodeCount();
+        List<Integer> chosenLandmarks = new ArrayList<>();
+        List<double[]> forwardTables = new ArrayList<>();
+        List<double[]> backwardTables = new ArrayList<>();
+        int seedNode = 0, seedDegree = -1;
+        for (int node = 0; node < nodeCount; node++) {
+            int degree = 0;
+            EdgeCursor edges = snapshot.outgoing(node);
+            while (edges.next()) {
+                degree++;
+            }
+            if (degree > seedDegree) {
+                seedDegree = degree;
+                seedNode = node;
+            }
+        }
+        double[] closestLandmarkDistances = Dijkstra.oneToAll(snapshot, seedNode, criterion, false);
+
+        while (chosenLandmarks.size() < landmarkCount) {
+            int farthestNode = -1;
+            double farthestDistance = -1d;
+            for (int node = 0; node < nodeCount; node++) {
+                double distance = closestLandmarkDistances[node];
+                if (distance != UNREACHABLE && distance > farthestDistance && !chosenLandmarks.contains(node)) {
+                    farthestDistance = distance;
+                    farthestNode = node;
+                }
+            }
+            if (farthestNode < 0) {
+                break;
+            }
+            double[] forwardTable = Dijkstra.oneToAll(snapshot, farthestNode, criterion, false);
+            chosenLandmarks.add(farthestNode);
+            forwardTables.add(forwardTable);
+            backwardTables.add(Dijkstra.oneToAll(snapshot, farthestNode, criterion, true));
+            for (int node = 0; node < nodeCount; node++) {
+                closestLandmarkDistances[node] = chosenLandmarks.size() == 1 ? forwardTable[node] : Math.min(closestLandmarkDistances[node], forwardTable[node]);
+            }
+        }
+
+        landmarks[criterion] = chosenLandmarks.stream().mapToInt(Integer::intValue).toArray();
+        forward[criterion] = forwardTables.toArray(new double[0][]);
+        backward[criterion] = backwardTables.toArray(new double[0][]);
+    }
+
+    private static byte[] header(List<String> relationshipTypes, List<String> propertyKeys, int nodeCount, int landmarkCount, long transactionId) {
+        byte[] description = describe(relationshipTypes, propertyKeys).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + description.length);
+        header.putInt(MAGIC).putInt(VERSION).putInt(nodeCount).putInt(landmarkCount).putInt(description.length)
+                .putLong(transactionId).put(description);
+        return header.array();
+    }
+
+    private static String describe(List<String> relationshipTypes, List<String> propertyKeys) {
+        return (relationshipTypes == null ? "*" : String.join(",", relationshipTypes)) + ";" + String.join(",", propertyKeys);
+    }
+
+    public static LandmarkIndex load(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"); FileChannel channel = randomAccessFile.getChannel()) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("File " + file + " is not a landmark index.");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("File " + file + " is not a landmark index.");
+            }
+            if (header.getInt() != VERSION) {
+                throw new IOException("File " + file + " was written by another version, rebuild it with dbis.landmarks.build.");
+            }
+            int nodeCount = header.getInt();
+            int landmarkCount = header.getInt();
+            byte[] description = new byte[header.getInt()];
+            long transactionId = header.getLong();
+            if (description.length > 0) {
+                channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, description.length).get(description);
+            }
+            String[] keys = new String(description, StandardCharsets.UTF_8).split(";", -1);
+            List<String> relationshipTypes = keys[0].equals("*") ? null : Arrays.asList(keys[0].split(","));
+            List<String> propertyKeys = Arrays.asList(keys[1].split(","));
+            int criteriaCount = propertyKeys.size();
+
+            long position = HEADER_SIZE + description.length;
+            ByteBuffer ids = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) nodeCount * Long.BYTES
+                    + (long) criteriaCount * landmarkCount * Integer.BYTES);
+            long[] neo4jNodeIds = new long[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                neo4jNodeIds[node] = ids.getLong();
+            }
+            int[][] landmarks = new int[criteriaCount][landmarkCount];
+            for (int criterion = 0; criterion < criteriaCount; criterion++) {
+                for (int landmark = 0; landmark < landmarkCount; landmark++) {
+                    landmarks[criterion][landmark] = ids.getInt();
+                }
+            }
+            position += ids.capacity();
+
+            long tableSize = (long) nodeCount * landmarkCount * Double.BYTES;
+            DoubleBuffer[] forwardDistances = new DoubleBuffer[criteriaCount];
+            DoubleBuffer[] backwardDistances = new DoubleBuffer[criteriaCount];
+            for (int criterion = 0; criterion < criteriaCount; criterion++) {
+                forwardDistances[criterion] = channel.map(FileChannel.MapMode.READ_ONLY, position, tableSize).asDoubleBuffer();
+                position += tableSize;
+                backwardDistances[criterion] = channel.map(FileChannel.MapMode.READ_ONLY, position, tableSize).asDoubleBuffer();
+                position += tableSize;
+            }
+            return new LandmarkIndex(file, relationshipTypes, propertyKeys, landmarkCount, neo4jNodeIds, landmarks,
+                    forwardDistances, backwardDistances, 0, transactionId);
+        }
+    }
+
+    /**
+     * Writes the transaction id the index is still valid for into the header, so it is not stale when loaded again.
+     */
+    public void writeTransactionId(long transactionId) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(5 * Integer.BYTES);
+            randomAccessFile.writeLong(transactionId);
+        }
+        this.transactionId = transactionId;
+    }
+
+    public File file() {
+        return file;
+    }
+
+    public List<String> relationshipTypes() {
+        return relationshipTypes;
+    }
+
+    public List<String> propertyKeys() {
+        return propertyKeys;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int landmarkCount() {
+        return landmarkCount;
+    }
+
+    public long buildTimeInMilliseconds() {
+        return buildTimeInMilliseconds;
+    }
+
+    /**
+     * Last committed transaction id of the database when the index was built or last known to be valid.
+     */
+    public long transactionId() {
+        return transactionId;
+    }
+
+    public boolean isStale() {
+        return isStale;
+    }
+
+    public void markStale() {
+        isStale = true;
+    }
+
+    public List<Long> landmarkNodeIds(int criterionIndex) {
+        List<Long> landmarkNodeIds = new ArrayList<>();
+        for (int landmark : landmarks[criterionIndex]) {
+            if (landmark >= 0) {
+                landmarkNodeIds.add(neo4jNodeIds[landmark]);
+            }
+        }
+        return landmarkNodeIds;
+    }
+
+    /**
+     * @return the index node id of the Neo4j node or -1 if the node was not part of the indexed graph
+     */
+    public int toIndexNodeId(long neo4jNodeId) {
+        return (neo4jNodeId < 0 || neo4jNodeId >= indexNodeIds.length) ? -1 : indexNodeIds[(int) neo4jNodeId];
+    }
+
+    /**
+     * Triangle-inequality lower bound of the cost from one indexed node to another w.r.t. the criterion, in O(K).
+     */
+    public double lowerBound(int fromIndexNodeId, int toIndexNodeId, int criterionIndex) {
+        if (fromIndexNodeId < 0 || toIndexNodeId < 0) {
+            return 0d;
+        }
+        DoubleBuffer forward = forwardDistances[criterionIndex];
+        DoubleBuffer backward = backwardDistances[criterionIndex];
+        int fromOffset = fromIndexNodeId * landmarkCount;
+        int toOffset = toIndexNodeId * landmarkCount;
+        double lowerBound = 0d;
+        for (int landmark = 0; landmark < landmarkCount; landmark++) {
+            double fromToLandmark = backward.get(fromOffset + landmark);
+            double toToLandmark = backward.get(toOffset + landmark);
+            if (fromToLandmark != UNREACHABLE && toToLandmark != UNREACHABLE) {
+                lowerBound = Math.max(lowerBound, fromToLandmark - toToLandmark);
+            }
+            double landmarkToFrom = forward.get(fromOffset + landmark);
+            double landmarkToTo = forward.get(toOffset + landmark);
+            if (landmarkToFrom != UNREACHABLE && landmarkToTo != UNREACHABLE) {
+                lowerBound = Math.max(lowerBound, landmarkToTo - landmarkToFrom);
+            }
+        }
+        return lowerBound;
+    }
+}
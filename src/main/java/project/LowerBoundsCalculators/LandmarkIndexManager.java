@@ -0,0 +1,194 @@
+package project.LowerBoundsCalculators;
+
+import org.neo4j.graphdb.DependencyResolver;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import project.Graphs.GraphSnapshot;
+import project.Graphs.GraphSnapshotManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Builds landmark indexes, stores them next to the database and loads them again on first use after a restart.
+ * <p>
+ * The transaction event handler of the LowerBoundsCache marks the indexes of a database stale when relationships are
+ * created or deleted or an indexed property key is changed on a relationship. When the database shuts down the
+ * indexes that are not stale get its last committed transaction id in their header, an index loaded with another
+ * transaction id was built before changes made while it was not loaded and is stale as well.
+ */
+public class LandmarkIndexManager {
+    private static final String FILE_PREFIX = "landmarks-";
+    private static final String FILE_SUFFIX = ".idx";
+    public static final int DEFAULT_LANDMARK_COUNT = 8;
+
+    private static final Map<String, Map<File, LandmarkIndex>> indexes = new HashMap<>();
+    // the messages of the index files that could not be loaded, guarded by indexes
+    private static final Map<String, Map<File, String>> loadErrors = new HashMap<>();
+    // the last committed transaction id seen per database, the store is closed by the time the shutdown is handled
+    private static final Map<String, Long> transactionIds = new HashMap<>();
+
+    /**
+     * Builds the index on a snapshot rebuilt from the current graph, a cached snapshot may predate changes.
+     */
+    public static LandmarkIndex build(GraphDatabaseService db, List<String> relationshipTypes, List<String> propertyKeys, int landmarkCount) throws IOException {
+        // the handlers are registered before the graph is read, so changes made during the build mark the index stale
+        LowerBoundsCache.watch(db);
+        synchronized (indexes) {
+            Map<File, LandmarkIndex> indexesOfDb = indexesOf(db);
+            long transactionId = lastCommittedTransactionId(db);
+            GraphSnapshot snapshot = GraphSnapshotManager.rebuild(db, relationshipTypes, propertyKeys, null);
+            File file = indexFile(db, snapshot.relationshipTypes(), snapshot.propertyKeys());
+            indexesOfDb.remove(file);
+            loadErrors.get(GraphSnapshotManager.databaseKey(db)).remove(file);
+            LandmarkIndex index = LandmarkIndex.build(snapshot, landmarkCount, file, transactionId);
+            if (lastCommittedTransactionId(db) != transactionId) {
+                index.markStale();
+            }
+            committed(GraphSnapshotManager.databaseKey(db), transactionId);
+            indexesOfDb.put(file, index);
+            return index;
+        }
+    }
+
+    public static Collection<LandmarkIndex> indexes(GraphDatabaseService db) {
+        LowerBoundsCache.watch(db);
+        synchronized (indexes) {
+            return new ArrayList<>(indexesOf(db).values());
+        }
+    }
+
+    /**
+     * @return the messages of the index files of the database that could not be loaded, by file
+     */
+    public static Map<File, String> loadErrors(GraphDatabaseService db) {
+        LowerBoundsCache.watch(db);
+        synchronized (indexes) {
+            indexesOf(db);
+            return new HashMap<>(loadErrors.get(GraphSnapshotManager.databaseKey(db)));
+        }
+    }
+
+    /**
+     * Finds an index whose bounds are valid for the query: it covers all property keys and was built on all
+     * relationships or on exactly the relationship types of the query. Indexes that are not stale are preferred.
+     *
+     * @return the index, stale if only stale ones match, or null if no such index has been built
+     */
+    public static LandmarkIndex find(GraphDatabaseService db, List<String> relationshipTypes, List<String> propertyKeys) {
+        List<String> normalizedRelationshipTypes = GraphSnapshotManager.normalizeRelationshipTypes(relationshipTypes);
+        LandmarkIndex staleIndex = null;
+        for (LandmarkIndex index : indexes(db)) {
+            if ((index.relationshipTypes() == null || index.relationshipTypes().equals(normalizedRelationshipTypes))
+                    && index.propertyKeys().containsAll(propertyKeys)) {
+                if (!index.isStale()) {
+                    return index;
+                }
+                staleIndex = index;
+            }
+        }
+        return staleIndex;
+    }
+
+    /**
+     * Marks the loaded indexes of the database stale, those of the property key unless it is null.
+     */
+    static void markStale(String databaseKey, String propertyKey) {
+        synchronized (indexes) {
+            Map<File, LandmarkIndex> indexesOfDb = indexes.get(databaseKey);
+            if (indexesOfDb == null) {
+                return;
+            }
+            for (LandmarkIndex index : indexesOfDb.values()) {
+                if (propertyKey == null || index.propertyKeys().contains(propertyKey)) {
+                    index.markStale();
+                }
+            }
+        }
+    }
+
+    /**
+     * Notes the id of a transaction committed to the database.
+     */
+    static void committed(String databaseKey, long transactionId) {
+        synchronized (indexes) {
+            transactionIds.merge(databaseKey, transactionId, Math::max);
+        }
+    }
+
+    /**
+     * Stores the last committed transaction id in the headers of the indexes of the database that are not stale and
+     * forgets its indexes, they are loaded again by the next database at the same store directory.
+     */
+    static void shutdown(String databaseKey) {
+        synchronized (indexes) {
+            Map<File, LandmarkIndex> indexesOfDb = indexes.remove(databaseKey);
+            loadErrors.remove(databaseKey);
+            Long transactionId = transactionIds.remove(databaseKey);
+            if (indexesOfDb == null || transactionId == null || transactionId < 0) {
+                return;
+            }
+            for (LandmarkIndex index : indexesOfDb.values()) {
+                if (!index.isStale() && index.transactionId() != transactionId) {
+                    try {
+                        index.writeTransactionId(transactionId);
+                    } catch (IOException e) {
+                        // the index is loaded as stale
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the last committed transaction id of the database or -1 if it is not known
+     */
+    static long lastCommittedTransactionId(GraphDatabaseService db) {
+        if (db instanceof GraphDatabaseAPI) {
+            return ((GraphDatabaseAPI) db).getDependencyResolver()
+                    .resolveDependency(TransactionIdStore.class, DependencyResolver.SelectionStrategy.ONLY).getLastCommittedTransactionId();
+        }
+        return -1;
+    }
+
+    // guarded by indexes
+    private static Map<File, LandmarkIndex> indexesOf(GraphDatabaseService db) {
+        String databaseKey = GraphSnapshotManager.databaseKey(db);
+        Map<File, LandmarkIndex> indexesOfDb = indexes.get(databaseKey);
+        if (indexesOfDb == null) {
+            indexesOfDb = new HashMap<>();
+            Map<File, String> loadErrorsOfDb = new HashMap<>();
+            indexes.put(databaseKey, indexesOfDb);
+            loadErrors.put(databaseKey, loadErrorsOfDb);
+            long transactionId = lastCommittedTransactionId(db);
+            committed(databaseKey, transactionId);
+            File[] files = indexDirectory(db).listFiles((directory, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+            for (File file : files == null ? new File[0] : files) {
+                try {
+                    LandmarkIndex index = LandmarkIndex.load(file);
+                    if (transactionId < 0 || index.transactionId() != transactionId) {
+                        index.markStale();
+                    }
+                    indexesOfDb.put(file, index);
+                } catch (IOException | RuntimeException e) {
+                    loadErrorsOfDb.put(file, String.valueOf(e.getMessage()));
+                }
+            }
+        }
+        return indexesOfDb;
+    }
+
+    private static File indexDirectory(GraphDatabaseService db) {
+        if (db instanceof GraphDatabaseAPI) {
+            return ((GraphDatabaseAPI) db).databaseLayout().databaseDirectory();
+        }
+        return new File("landmarks");
+    }
+
+    private static File indexFile(GraphDatabaseService db, List<String> relationshipTypes, List<String> propertyKeys) {
+        String name = (relationshipTypes == null ? "*" : String.join(",", relationshipTypes)) + ";" + String.join(",", propertyKeys);
+        return new File(indexDirectory(db), FILE_PREFIX + Integer.toHexString(name.hashCode()) + FILE_SUFFIX);
+    }
+}
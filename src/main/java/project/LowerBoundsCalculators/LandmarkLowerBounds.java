@@ -0,0 +1,40 @@
+package project.LowerBoundsCalculators;
+
+import project.Graphs.Graph;
+import project.Graphs.ReversedGraph;
+
+/**
+ * Lower bounds to a destination read from a landmark index, for the nodes and criteria of a query graph. On a reversed
+ * graph they are the lower bounds from the destination, which is the start of the query, to the nodes.
+ */
+public class LandmarkLowerBounds implements LowerBoundsCalculator {
+    private LandmarkIndex index;
+    private Graph graph;
+    private int destinationIndexNodeId;
+    private int[] indexPropertyIndices;
+    private boolean isReversed;
+
+    public LandmarkLowerBounds(LandmarkIndex index, Graph graph, long destinationNodeId) {
+        this.index = index;
+        this.graph = graph;
+        this.destinationIndexNodeId = index.toIndexNodeId(graph.toNeo4jNodeId((int) destinationNodeId));
+        this.isReversed = graph instanceof ReversedGraph;
+        this.indexPropertyIndices = new int[graph.propertyKeys().size()];
+        for (int propertyIndex = 0; propertyIndex < indexPropertyIndices.length; propertyIndex++) {
+            indexPropertyIndices[propertyIndex] = index.propertyKeys().indexOf(graph.propertyKeys().get(propertyIndex));
+        }
+    }
+
+    @Override
+    public double lowerBound(int graphNodeId, int propertyIndex) {
+        int indexPropertyIndex = indexPropertyIndices[propertyIndex];
+        if (indexPropertyIndex < 0) {
+            return 0d;
+        }
+        int indexNodeId = index.toIndexNodeId(graph.toNeo4jNodeId(graphNodeId));
+        if (isReversed) {
+            return index.lowerBound(destinationIndexNodeId, indexNodeId, indexPropertyIndex);
+        }
+        return index.lowerBound(indexNodeId, destinationIndexNodeId, indexPropertyIndex);
+    }
+}
@@ -0,0 +1,382 @@
+package project.LowerBoundsCalculators;
+
+import org.neo4j.graphdb.DependencyResolver;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.event.ErrorState;
+import org.neo4j.graphdb.event.KernelEventHandler;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.txstate.TxStateHolder;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.kernel.impl.factory.GraphDatabaseFacade;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import project.Graphs.Graph;
+import project.Graphs.GraphSnapshotManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Distance tables the lower bounds are computed from, shared by the queries of all procedure calls. A table holds the
+ * distances of every graph node to one node w.r.t. one criterion, so repeated queries to the same destination
+ * skip their preprocessing.
+ * <p>
+ * Tables are read without locking and evicted least recently used first once they take more than the capacity. A
+ * transaction event handler, registered with a database instance on its first use, drops the tables of the database
+ * when nodes or relationships are created or deleted, and the tables of a property key when it is changed on a
+ * relationship. Tables are keyed by the node numbering and node count of their graph as well. Tables computed while
+ * the database changed, or in a transaction with uncommitted changes, are not kept. A kernel event handler drops the
+ * tables of the database when it shuts down, so a database started again at the same store directory registers its
+ * own handlers. The same handlers keep the staleness of the landmark indexes in the LandmarkIndexManager.
+ */
+public class LowerBoundsCache {
+    public static final long DEFAULT_CAPACITY_IN_BYTES = 128L * 1024 * 1024;
+
+    private static final Map<Key, Table> tables = new ConcurrentHashMap<>();
+    // counts the invalidations per database, a table is kept only if none happened while it was computed
+    private static final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    // the database instance whose handlers are registered, per database key
+    private static final Map<String, GraphDatabaseService> databases = new ConcurrentHashMap<>();
+    private static final AtomicLong clock = new AtomicLong();
+    private static final AtomicLong hitCount = new AtomicLong();
+    private static final AtomicLong missCount = new AtomicLong();
+    private static volatile long capacityInBytes = DEFAULT_CAPACITY_IN_BYTES;
+    // guarded by tables
+    private static long sizeInBytes = 0;
+
+    /**
+     * What a table holds for its node.
+     */
+    public enum TableType {
+        // distances from every node to the node, infinite for the nodes that cannot reach it, computed by ParetoPrep or
+        // MultiDijkstra alike
+        DISTANCES_TO
+    }
+
+    public static long getCapacityInBytes() {
+        return capacityInBytes;
+    }
+
+    public static void setCapacityInBytes(long capacityInBytes) {
+        if (capacityInBytes < 0) {
+            throw new IllegalArgumentException("The capacity could not be less than zero.");
+        }
+        LowerBoundsCache.capacityInBytes = capacityInBytes;
+        synchronized (tables) {
+            evict();
+        }
+    }
+
+    public static long getSizeInBytes() {
+        synchronized (tables) {
+            return sizeInBytes;
+        }
+    }
+
+    public static int getTableCount() {
+        return tables.size();
+    }
+
+    public static long getHitCount() {
+        return hitCount.get();
+    }
+
+    public static long getMissCount() {
+        return missCount.get();
+    }
+
+    public static Key key(GraphDatabaseService db, Graph graph, List<String> relationshipTypes, TableType tableType, int nodeId, int criterionIndex) {
+        String databaseKey = watch(db);
+        return new Key(databaseKey, graph.name(), graph.nodeNumbering(), graph.nodeCount(), GraphSnapshotManager.normalizeRelationshipTypes(relationshipTypes),
+                graph.propertyKeys().get(criterionIndex), tableType, nodeId);
+    }
+
+    /**
+     * Number of invalidations of the database of the key, to be read before a table is computed for {@link #put}.
+     */
+    public static long generation(Key key) {
+        AtomicLong generation = generations.get(key.databaseKey);
+        return generation == null ? -1 : generation.get();
+    }
+
+    /**
+     * @return the table or null
+     */
+    public static double[] get(Key key) {
+        Table table = tables.get(key);
+        if (table == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        table.lastAccess = clock.incrementAndGet();
+        hitCount.incrementAndGet();
+        return table.distances;
+    }
+
+    /**
+     * Keeps the table unless the database of the key changed since the generation was read, or the transaction of the
+     * calling thread has uncommitted changes the table may have been computed from. Tables must not be changed once
+     * they are put.
+     */
+    public static void put(Key key, double[] distances, long generation) {
+        // a rolled back transaction is not seen by the handlers, its changes must not get into the tables
+        if (hasUncommittedChanges(key.databaseKey)) {
+            return;
+        }
+        synchronized (tables) {
+            if (generation(key) != generation) {
+                return;
+            }
+            Table previous = tables.put(key, new Table(distances, clock.incrementAndGet()));
+            sizeInBytes += bytesOf(distances) - (previous == null ? 0 : bytesOf(previous.distances));
+            evict();
+        }
+    }
+
+    public static double[] computeIfAbsent(Key key, Supplier<double[]> computation) {
+        double[] distances = get(key);
+        if (distances == null) {
+            long generation = generation(key);
+            distances = computation.get();
+            put(key, distances, generation);
+        }
+        return distances;
+    }
+
+    /**
+     * Drops the tables of the database.
+     *
+     * @return the number of dropped tables
+     */
+    public static int invalidate(GraphDatabaseService db) {
+        return invalidate(GraphSnapshotManager.databaseKey(db), null);
+    }
+
+    // drops the tables of the database, of the property key unless it is null
+    private static int invalidate(String databaseKey, String propertyKey) {
+        synchronized (tables) {
+            AtomicLong generation = generations.get(databaseKey);
+            if (generation != null) {
+                generation.incrementAndGet();
+            }
+            int droppedCount = 0;
+            for (Iterator<Map.Entry<Key, Table>> entries = tables.entrySet().iterator(); entries.hasNext(); ) {
+                Map.Entry<Key, Table> entry = entries.next();
+                if (entry.getKey().databaseKey.equals(databaseKey) && (propertyKey == null || entry.getKey().propertyKey.equals(propertyKey))) {
+                    sizeInBytes -= bytesOf(entry.getValue().distances);
+                    entries.remove();
+                    droppedCount++;
+                }
+            }
+            return droppedCount;
+        }
+    }
+
+    // guarded by tables
+    private static void evict() {
+        while (sizeInBytes > capacityInBytes && !tables.isEmpty()) {
+            Map.Entry<Key, Table> eldest = null;
+            for (Map.Entry<Key, Table> entry : tables.entrySet()) {
+                if (eldest == null || entry.getValue().lastAccess < eldest.getValue().lastAccess) {
+                    eldest = entry;
+                }
+            }
+            tables.remove(eldest.getKey());
+            sizeInBytes -= bytesOf(eldest.getValue().distances);
+        }
+    }
+
+    private static long bytesOf(double[] distances) {
+        return (long) distances.length * Double.BYTES;
+    }
+
+    private static boolean hasUncommittedChanges(String databaseKey) {
+        GraphDatabaseService database = databases.get(databaseKey);
+        if (!(database instanceof GraphDatabaseAPI)) {
+            return false;
+        }
+        KernelTransaction transaction = ((GraphDatabaseAPI) database).getDependencyResolver()
+                .resolveDependency(ThreadToStatementContextBridge.class, DependencyResolver.SelectionStrategy.ONLY)
+                .getKernelTransactionBoundToThisThread(false);
+        return transaction instanceof TxStateHolder && ((TxStateHolder) transaction).hasTxStateWithChanges();
+    }
+
+    /**
+     * Registers the handlers with the database instance unless they are registered already.
+     *
+     * @return the database key
+     */
+    static String watch(GraphDatabaseService db) {
+        String databaseKey = GraphSnapshotManager.databaseKey(db);
+        GraphDatabaseService database = databaseOf(db);
+        if (databases.get(databaseKey) != database) {
+            register(database, databaseKey);
+        }
+        return databaseKey;
+    }
+
+    // procedures get a new facade per call, the facade of the database takes the handlers and lives as long as it
+    private static GraphDatabaseService databaseOf(GraphDatabaseService db) {
+        if (db instanceof GraphDatabaseAPI) {
+            return ((GraphDatabaseAPI) db).getDependencyResolver().resolveDependency(GraphDatabaseFacade.class, DependencyResolver.SelectionStrategy.ONLY);
+        }
+        return db;
+    }
+
+    private static void register(GraphDatabaseService database, String databaseKey) {
+        synchronized (generations) {
+            if (databases.get(databaseKey) != database) {
+                // the tables of an earlier database at the same store directory may be stale
+                invalidate(databaseKey, null);
+                generations.putIfAbsent(databaseKey, new AtomicLong());
+                database.registerTransactionEventHandler(new InvalidationHandler(databaseKey));
+                database.registerKernelEventHandler(new ShutdownHandler(database, databaseKey));
+                databases.put(databaseKey, database);
+            }
+        }
+    }
+
+    private static void unregister(GraphDatabaseService database, String databaseKey) {
+        synchronized (generations) {
+            if (databases.remove(databaseKey, database)) {
+                invalidate(databaseKey, null);
+                generations.remove(databaseKey);
+            }
+        }
+    }
+
+    public static class Key {
+        private final String databaseKey;
+        private final String graphName;
+        private final long nodeNumbering;
+        // the length of the table, nodes created since it was computed are not in it
+        private final int nodeCount;
+        private final List<String> relationshipTypes;
+        private final String propertyKey;
+        private final TableType tableType;
+        private final int nodeId;
+
+        private Key(String databaseKey, String graphName, long nodeNumbering, int nodeCount, List<String> relationshipTypes,
+                    String propertyKey, TableType tableType, int nodeId) {
+            this.databaseKey = databaseKey;
+            this.graphName = graphName;
+            this.nodeNumbering = nodeNumbering;
+            this.nodeCount = nodeCount;
+            this.relationshipTypes = relationshipTypes;
+            this.propertyKey = propertyKey;
+            this.tableType = tableType;
+            this.nodeId = nodeId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key key = (Key) o;
+
+            if (nodeId != key.nodeId) return false;
+            if (nodeNumbering != key.nodeNumbering) return false;
+            if (nodeCount != key.nodeCount) return false;
+            if (!databaseKey.equals(key.databaseKey)) return false;
+            if (!graphName.equals(key.graphName)) return false;
+            if (!Objects.equals(relationshipTypes, key.relationshipTypes)) return false;
+            if (!propertyKey.equals(key.propertyKey)) return false;
+            return tableType == key.tableType;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = databaseKey.hashCode();
+            result = 31 * result + graphName.hashCode();
+            result = 31 * result + (int) (nodeNumbering ^ (nodeNumbering >>> 32));
+            result = 31 * result + nodeCount;
+            result = 31 * result + (relationshipTypes != null ? relationshipTypes.hashCode() : 0);
+            result = 31 * result + propertyKey.hashCode();
+            result = 31 * result + tableType.hashCode();
+            result = 31 * result + nodeId;
+            return result;
+        }
+    }
+
+    private static class Table {
+        private final double[] distances;
+        private volatile long lastAccess;
+
+        Table(double[] distances, long lastAccess) {
+            this.distances = distances;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static class InvalidationHandler extends TransactionEventHandler.Adapter<Object> {
+        private final String databaseKey;
+
+        InvalidationHandler(String databaseKey) {
+            this.databaseKey = databaseKey;
+        }
+
+        @Override
+        public void afterCommit(TransactionData data, Object state) {
+            LandmarkIndexManager.committed(databaseKey, data.getTransactionId());
+            if (data.createdRelationships().iterator().hasNext() || data.deletedRelationships().iterator().hasNext()) {
+                invalidate(databaseKey, null);
+                LandmarkIndexManager.markStale(databaseKey, null);
+                return;
+            }
+            // nodes without relationships change no distance, but the number of nodes a table covers
+            if (data.createdNodes().iterator().hasNext() || data.deletedNodes().iterator().hasNext()) {
+                invalidate(databaseKey, null);
+            }
+            Set<String> changedPropertyKeys = new HashSet<>();
+            addPropertyKeys(changedPropertyKeys, data.assignedRelationshipProperties());
+            addPropertyKeys(changedPropertyKeys, data.removedRelationshipProperties());
+            for (String propertyKey : changedPropertyKeys) {
+                invalidate(databaseKey, propertyKey);
+                LandmarkIndexManager.markStale(databaseKey, propertyKey);
+            }
+        }
+
+        private static void addPropertyKeys(Set<String> propertyKeys, Iterable<PropertyEntry<Relationship>> propertyEntries) {
+            for (PropertyEntry<Relationship> propertyEntry : propertyEntries) {
+                propertyKeys.add(propertyEntry.key());
+            }
+        }
+    }
+
+    private static class ShutdownHandler implements KernelEventHandler {
+        private final GraphDatabaseService database;
+        private final String databaseKey;
+
+        ShutdownHandler(GraphDatabaseService database, String databaseKey) {
+            this.database = database;
+            this.databaseKey = databaseKey;
+        }
+
+        @Override
+        public void beforeShutdown() {
+            unregister(database, databaseKey);
+            // outside of the lock of unregister, the landmark index manager registers the handlers under its own
+            LandmarkIndexManager.shutdown(databaseKey);
+        }
+
+        @Override
+        public void kernelPanic(ErrorState error) {
+        }
+
+        @Override
+        public Object getResource() {
+            return null;
+        }
+
+        @Override
+        public ExecutionOrder orderComparedTo(KernelEventHandler other) {
+            return ExecutionOrder.DOESNT_MATTER;
+        }
+    }
+}
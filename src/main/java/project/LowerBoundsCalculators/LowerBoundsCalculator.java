@@ -0,0 +1,16 @@
+package project.LowerBoundsCalculators;
+
+/**
+ * Lower bounds of the cost from a graph node to the destination of a query, per criterion.
+ */
+public interface LowerBoundsCalculator {
+    double lowerBound(int graphNodeId, int propertyIndex);
+
+    default double[] lowerBounds(int graphNodeId, int propertyCount) {
+        double[] lowerBounds = new double[propertyCount];
+        for (int propertyIndex = 0; propertyIndex < propertyCount; propertyIndex++) {
+            lowerBounds[propertyIndex] = lowerBound(graphNodeId, propertyIndex);
+        }
+        return lowerBounds;
+    }
+}
@@ -0,0 +1,46 @@
+package project.LowerBoundsCalculators;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import project.Graphs.Graph;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects how the procedures compute lower bounds for forward-estimation pruning, given by the "lowerBounds" option.
+ * PARETOPREP and MULTIDIJKSTRA run preprocessing for every query, LANDMARKS reads a prebuilt landmark index.
+ * All methods give a bound for every node, so sub-routes can be pruned by their cost plus the bound of their last node.
+ * The distance tables of PARETOPREP and MULTIDIJKSTRA are kept in the LowerBoundsCache across queries.
+ */
+public enum LowerBoundsMethod {
+    PARETOPREP, MULTIDIJKSTRA, LANDMARKS;
+
+    public static final String OPTION_KEY = "lowerBounds";
+
+    public static LowerBoundsMethod of(Map<String, Object> options, LowerBoundsMethod defaultMethod) {
+        if (options == null || options.get(OPTION_KEY) == null) {
+            return defaultMethod;
+        }
+        return valueOf(options.get(OPTION_KEY).toString().toUpperCase());
+    }
+
+    public LowerBoundsCalculator open(GraphDatabaseService db, Graph graph, List<String> relationshipTypes, long startNodeId, long destinationNodeId) {
+        switch (this) {
+            case PARETOPREP:
+                return ParetoPrep.forAllNodes(db, graph, relationshipTypes, startNodeId, destinationNodeId);
+            case MULTIDIJKSTRA:
+                return new MultiDijkstra(db, graph, relationshipTypes, destinationNodeId);
+            case LANDMARKS:
+                LandmarkIndex index = LandmarkIndexManager.find(db, relationshipTypes, graph.propertyKeys());
+                if (index == null) {
+                    throw new IllegalStateException("There is no landmark index for " + graph.propertyKeys() + ", build it with dbis.landmarks.build.");
+                }
+                if (index.isStale()) {
+                    throw new IllegalStateException("The landmark index " + index.file() + " is stale, rebuild it with dbis.landmarks.build.");
+                }
+                return new LandmarkLowerBounds(index, graph, destinationNodeId);
+            default:
+                throw new IllegalArgumentException("Unknown lower bounds method " + this);
+        }
+    }
+}
@@ -1,84 +1,61 @@
 package project.LowerBoundsCalculators;
 
-import org.neo4j.graphalgo.GraphAlgoFactory;
-import org.neo4j.graphalgo.PathFinder;
-import org.neo4j.graphalgo.WeightedPath;
-import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.GraphDatabaseService;
-import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.PathExpanders;
+import project.Graphs.Graph;
 import project.Label;
 
-import java.util.*;
-
-public class MultiDijkstra {
-    private Map<Long, Map<String, Map<Long, Double>>> distanceEstimations = new HashMap<>();
-    private GraphDatabaseService db;
-    private long destinationNodeId;
-    private List<String> propertyKeys;
-
-    public MultiDijkstra(GraphDatabaseService dbs, long destinationNodeId, List<String> propertyKeys) {
-        db = dbs;
-        this.destinationNodeId = destinationNodeId;
-        this.propertyKeys = propertyKeys;
+import java.util.List;
+
+public class MultiDijkstra implements LowerBoundsCalculator {
+    // network distances of every node to the destination, indexed by [criterion][node]
+    private double[][] distancesToDestination;
+    private Graph graph;
+
+    /**
+     * Runs one backward Dijkstra from the destination per criterion, or reads its distances from the lower bounds cache.
+     *
+     * @param db database whose lower bounds cache keeps the network distances, or null to compute them for this query
+     */
+    public MultiDijkstra(GraphDatabaseService db, Graph graph, List<String> relationshipTypes, long destinationNodeId) {
+        this.graph = graph;
+        this.distancesToDestination = new double[graph.propertyKeys().size()][];
+        for (int propertyIndex = 0; propertyIndex < distancesToDestination.length; propertyIndex++) {
+            int criterionIndex = propertyIndex;
+            if (db == null) {
+                distancesToDestination[propertyIndex] = calculateNetworkDistance((int) destinationNodeId, criterionIndex);
+            } else {
+                LowerBoundsCache.Key key = LowerBoundsCache.key(db, graph, relationshipTypes, LowerBoundsCache.TableType.DISTANCES_TO, (int) destinationNodeId, propertyIndex);
+                distancesToDestination[propertyIndex] = LowerBoundsCache.computeIfAbsent(key, () -> calculateNetworkDistance((int) destinationNodeId, criterionIndex));
+            }
+        }
     }
 
     // DEFINITION 5
-    private double networkDistanceEstimation(long intermediateNodeId, String propertyKey) {
-        // Stores distances from node to another nodes in the graph (reference nodes)
-        Map<Long, Double> distancesFromSource = getNetworkDistance(intermediateNodeId, propertyKey);
-        Map<Long, Double> distancesFromTarget = getNetworkDistance(destinationNodeId, propertyKey);
-        Vector<Double> results = new Vector<>();
-        for (Map.Entry<Long, Double> sourceEntry : distancesFromSource.entrySet()) {
-            for (Map.Entry<Long, Double> targetEntry : distancesFromTarget.entrySet()) {
-                // if distances are through same nodes ex; vs -> N, vt -> N
-                if (sourceEntry.getKey().equals(targetEntry.getKey())) {
-                    // subtraction from source to target distance and take absolute of it
-                    // if sourceDistance or targetDistance equals 0, set the network estimation distance 0
-                    results.add(Math.abs(sourceEntry.getValue() - targetEntry.getValue()));
-                    break;
-                }
-            }
-        }
-        // get and return the maximum value
-        return Collections.max(results);
+    public double networkDistanceEstimation(int intermediateNodeId, int propertyIndex) {
+        // The maximum of d(source, N) - d(target, N) over the reference nodes N. The edges are directed, so
+        // d(source, N) <= d(source, target) + d(target, N) bounds every term by d(source, target), and the reference node
+        // N = target reaches it. The estimation is the distance to the target, infinite if the target cannot be reached.
+        return distancesToDestination[propertyIndex][intermediateNodeId];
     }
 
-    private Map<Long, Double> getNetworkDistance(long nodeId, String propertyKey) {
-        if (distanceEstimations.containsKey(nodeId)) {
-            if (!distanceEstimations.get(nodeId).containsKey(propertyKey)) {
-                distanceEstimations.get(nodeId).put(propertyKey, calculateNetworkDistance(nodeId, propertyKey));
-            }
-        } else {
-            Map<String, Map<Long, Double>> propertyDistance = new HashMap<>();
-            propertyDistance.put(propertyKey, calculateNetworkDistance(nodeId, propertyKey));
-            distanceEstimations.put(nodeId, propertyDistance);
-        }
-        return distanceEstimations.get(nodeId).get(propertyKey);
+    @Override
+    public double lowerBound(int graphNodeId, int propertyIndex) {
+        return networkDistanceEstimation(graphNodeId, propertyIndex);
     }
 
-    private Map<Long, Double> calculateNetworkDistance(long targetId, String propertyKey) {
-        // Store cost of shortest path w.r.t nodes
-        Map<Long, Double> networkDistances = new LinkedHashMap<>();
-        // Apply dijkstra according to attribute/weightIndex
-        Node target = db.getNodeById(targetId);
-        PathFinder<WeightedPath> finder = GraphAlgoFactory.dijkstra(PathExpanders.forDirection(Direction.INCOMING), propertyKey);
-        for (Node graphNode : db.getAllNodes()) {
-            WeightedPath p = finder.findSinglePath(graphNode, target);
-            networkDistances.put(graphNode.getId(), (p == null) ? 0d : p.weight());
-        }
-        return networkDistances;
+    /**
+     * Cost of the shortest path from every node of the graph to the node w.r.t. one attribute, computed by a single
+     * one-to-all dijkstra over incoming edges. Nodes that cannot reach it get Double.POSITIVE_INFINITY.
+     */
+    private double[] calculateNetworkDistance(int nodeId, int propertyIndex) {
+        return Dijkstra.oneToAll(graph, nodeId, propertyIndex, true);
     }
 
-    public Vector<Double> lb(Label intermediateLabel) {
-        Vector<Double> lb = new Vector<>();
-        int propertyIndex = 0;
-        for (String propertyKey : propertyKeys) {
-            lb.add(intermediateLabel.getCostByIndex(propertyIndex) + networkDistanceEstimation(intermediateLabel.getLastNodeId(), propertyKey));
-            propertyIndex++;
+    public double[] lb(Label intermediateLabel) {
+        double[] lb = new double[graph.propertyKeys().size()];
+        for (int propertyIndex = 0; propertyIndex < lb.length; propertyIndex++) {
+            lb[propertyIndex] = intermediateLabel.getCostByIndex(propertyIndex) + networkDistanceEstimation((int) intermediateLabel.getLastNodeId(), propertyIndex);
         }
         return lb;
     }
 }
-
-
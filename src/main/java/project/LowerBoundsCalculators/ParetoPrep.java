@@ -1,179 +1,182 @@
 package project.LowerBoundsCalculators;
 
-import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.GraphDatabaseService;
-import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.Relationship;
+import project.DataStructures.IndexedMinHeap;
+import project.Graphs.EdgeCursor;
+import project.Graphs.Graph;
 import project.Label;
 
 import java.util.*;
 
-public class ParetoPrep {
-    private long startNodeId, destinationNodeId;
+public class ParetoPrep implements LowerBoundsCalculator {
+    private int startNodeId, destinationNodeId;
     private List<String> propertyKeys;
-    private Map<String, Double> resourceConstraints;
-    private List<String> labelConstraints;
-    private Map<Long, Map<String, Double>> lowerBounds ;
-    private Map<Long, Map<String, Relationship>> successorEdges;
-
-    public ParetoPrep(long startNodeId, long destinationId, List<String> propertyKeys, Map<String, Double> resourceConstraints, List<String> labelConstraints) {
-        this.startNodeId = startNodeId;
-        this.destinationNodeId = destinationId;
+    // indexed by [criterion][graph node id]
+    private double[][] lowerBounds;
+    // cost vectors of the paths along the successor edges of each criterion, indexed by [criterion][graph node id *
+    // criteria count + criterion], null if no paths are constructed
+    private double[][] pathCosts;
+
+    public ParetoPrep(long startNodeId, long destinationId, List<String> propertyKeys) {
+        this.startNodeId = (int) startNodeId;
+        this.destinationNodeId = (int) destinationId;
         this.propertyKeys = propertyKeys;
-        this.resourceConstraints = resourceConstraints;
-        this.labelConstraints = labelConstraints;
-        lowerBounds = new HashMap<>();
-        successorEdges = new HashMap<>();
     }
 
-    private double getLb(long fromNodeId, String propertyKey) {
-        if (fromNodeId == destinationNodeId) {
-            return 0d;
+    private void initialize(Graph graph, boolean constructsPaths) {
+        int nodeCount = graph.nodeCount();
+        lowerBounds = new double[propertyKeys.size()][nodeCount];
+        pathCosts = constructsPaths ? new double[propertyKeys.size()][nodeCount * propertyKeys.size()] : null;
+        for (int propertyIndex = 0; propertyIndex < propertyKeys.size(); propertyIndex++) {
+            Arrays.fill(lowerBounds[propertyIndex], Double.POSITIVE_INFINITY);
+            lowerBounds[propertyIndex][destinationNodeId] = 0d;
         }
+    }
 
-        if (!lowerBounds.containsKey(fromNodeId)) {
-            lowerBounds.put(fromNodeId, new HashMap<String, Double>() {{
-                put(propertyKey, Double.POSITIVE_INFINITY);
-            }});
-        } else if (!lowerBounds.get(fromNodeId).containsKey(propertyKey)) {
-            lowerBounds.get(fromNodeId).put(propertyKey, Double.POSITIVE_INFINITY);
+    private double getLowerBoundSum(int nodeId) {
+        double lowerBoundSum = 0d;
+        for (double[] lowerBound : lowerBounds) {
+            lowerBoundSum += lowerBound[nodeId];
         }
-
-        return lowerBounds.get(fromNodeId).get(propertyKey);
+        return lowerBoundSum;
     }
 
-    private void setLb(long fromNodeId, String propertyKey, Double value) {
-        if (lowerBounds.containsKey(fromNodeId)) {
-            if (lowerBounds.get(fromNodeId) == null) {
-                lowerBounds.put(fromNodeId, new HashMap<>());
+    private boolean doesAKnownPathDominate(Set<Label> S, int nodeId) {
+        for (Label aKnownPath : S) {
+            boolean dominates = true;
+            for (int propertyIndex = 0; propertyIndex < propertyKeys.size() && dominates; propertyIndex++) {
+                dominates = aKnownPath.getCostByIndex(propertyIndex) <= lowerBounds[propertyIndex][nodeId];
+            }
+            if (dominates) {
+                return true;
             }
-            lowerBounds.get(fromNodeId).put(propertyKey, value);
-        } else {
-            lowerBounds.put(fromNodeId, new HashMap<String, Double>() {{
-                put(propertyKey, value);
-            }});
         }
+        return false;
     }
 
-    private void setSuccessorEdges(long fromNodeId, String propertyKey, Relationship edge) {
-        if (successorEdges.containsKey(fromNodeId)) {
-            if (successorEdges.get(fromNodeId) == null) {
-                successorEdges.put(fromNodeId, new HashMap<>());
+    public double[] execute(Graph graph) {
+        return execute(graph, false);
+    }
+
+    /**
+     * Runs without global selection and also expands the start node, so that the lower bound of every node to the
+     * destination is its exact shortest path cost per criterion, and the bound table can be used by lowerBound. No paths
+     * are constructed, as they only serve the global selection.
+     */
+    public LowerBoundsCalculator executeForAllNodes(Graph graph) {
+        execute(graph, true);
+        return this;
+    }
+
+    /**
+     * Lower bounds of every node to the destination as computed by executeForAllNodes, which do not depend on the start
+     * node. They are read from the lower bounds cache, or computed and put into it.
+     */
+    public static LowerBoundsCalculator forAllNodes(GraphDatabaseService db, Graph graph, List<String> relationshipTypes, long startNodeId, long destinationNodeId) {
+        int criteriaCount = graph.propertyKeys().size();
+        LowerBoundsCache.Key[] keys = new LowerBoundsCache.Key[criteriaCount];
+        double[][] lowerBounds = new double[criteriaCount][];
+        boolean isCached = true;
+        for (int propertyIndex = 0; propertyIndex < criteriaCount; propertyIndex++) {
+            keys[propertyIndex] = LowerBoundsCache.key(db, graph, relationshipTypes, LowerBoundsCache.TableType.DISTANCES_TO, (int) destinationNodeId, propertyIndex);
+            lowerBounds[propertyIndex] = LowerBoundsCache.get(keys[propertyIndex]);
+            isCached &= lowerBounds[propertyIndex] != null;
+        }
+        if (!isCached) {
+            long generation = LowerBoundsCache.generation(keys[0]);
+            ParetoPrep paretoPrep = new ParetoPrep(startNodeId, destinationNodeId, graph.propertyKeys());
+            paretoPrep.executeForAllNodes(graph);
+            lowerBounds = paretoPrep.lowerBounds;
+            for (int propertyIndex = 0; propertyIndex < criteriaCount; propertyIndex++) {
+                LowerBoundsCache.put(keys[propertyIndex], lowerBounds[propertyIndex], generation);
             }
-            successorEdges.get(fromNodeId).put(propertyKey, edge);
-        } else {
-            successorEdges.put(fromNodeId, new HashMap<String, Relationship>() {{
-                put(propertyKey, edge);
-            }});
         }
+        double[][] cachedLowerBounds = lowerBounds;
+        return (graphNodeId, propertyIndex) -> cachedLowerBounds[propertyIndex][graphNodeId];
     }
 
-    private Relationship getSuccessorEdges(long fromNodeId, String propertyKey) {
-        if (!successorEdges.containsKey(fromNodeId) || successorEdges.get(fromNodeId) == null) {
-            return null;
-        }
-        return successorEdges.get(fromNodeId).get(propertyKey);
+    @Override
+    public double lowerBound(int graphNodeId, int propertyIndex) {
+        return lowerBounds[propertyIndex][graphNodeId];
     }
 
-    public Vector<Double> execute(GraphDatabaseService db) {
+    private double[] execute(Graph graph, boolean forAllNodes) {
         // Initialization
+        initialize(graph, !forAllNodes);
         Set<Label> S = new LinkedHashSet<>();
-        Queue<Long> open = new PriorityQueue<>(new Comparator<Long>() {
-            @Override
-            public int compare(Long lhsNodeId, Long rhsNodeId) {
-                double costSumNode1 = 0d, costSumNode2 = 0d;
-                for (String propertyKey : propertyKeys) {
-                    costSumNode1 += getLb(lhsNodeId, propertyKey);
-                    costSumNode2 += getLb(rhsNodeId, propertyKey);
-                }
-                return Double.compare(costSumNode1, costSumNode2);
-            }
-        });
-        open.add(destinationNodeId);
+        IndexedMinHeap open = new IndexedMinHeap(graph.nodeCount());
+        open.push(destinationNodeId, 0d);
         while (!open.isEmpty()) {
             // Node Selection
             // select n with minimal lower bound sum from open and remove from set
-            long currentNodeId = open.peek();
+            int currentNodeId = open.poll();
             // Global Selection
-            boolean doesAKnownPathDominate = false;
-            for (Label aKnownPath : S) {
-                Vector<Double> globalLowerBoundVector = new Vector<>();
-                int index = 0;
-                for (String propertyKey : propertyKeys) {
-                    double sum = getLb(currentNodeId, propertyKey) + 0d; //getLb(startNode, propertyKey);
-                    globalLowerBoundVector.add(index, sum);
-                    index++;
-                }
-                if (aKnownPath.doesDominate(globalLowerBoundVector)) {
-                    doesAKnownPathDominate = true;
-                    break;
-                }
-            }
-
-            if (!doesAKnownPathDominate) {
+            if (forAllNodes || !doesAKnownPathDominate(S, currentNodeId)) {
                 // Node Expansion
-                Vector<String> modifiedComponents = new Vector<>();
-                Node node = db.getNodeById(currentNodeId);
-                for (Relationship edge : node.getRelationships(Direction.INCOMING)) {
-                    long mId = edge.getStartNode().getId();
-                    boolean isNodeAddedForAProperty = false;
-                    for (String propertyKey : propertyKeys) {
-                        double lbPlusCost = getLb(currentNodeId, propertyKey) + Double.parseDouble(edge.getProperty(propertyKey).toString());
-                        if (lbPlusCost < getLb(mId, propertyKey)) {
-                            setLb(mId, propertyKey, lbPlusCost);
-                            if (mId == startNodeId) {
-                                modifiedComponents.add(propertyKey);
-                            }
-                            setSuccessorEdges(mId, propertyKey, edge);
-                            if (!isNodeAddedForAProperty) {
-                                if (mId != startNodeId) {
-                                    open.add(mId);
-                                    isNodeAddedForAProperty = true;
+                List<Integer> modifiedComponents = new ArrayList<>(propertyKeys.size());
+                EdgeCursor edges = graph.incoming(currentNodeId);
+                while (edges.next()) {
+                    int mId = edges.otherNodeId();
+                    boolean isNodeModified = false;
+                    for (int propertyIndex = 0; propertyIndex < propertyKeys.size(); propertyIndex++) {
+                        double lbPlusCost = lowerBounds[propertyIndex][currentNodeId] + edges.cost(propertyIndex);
+                        if (lbPlusCost < lowerBounds[propertyIndex][mId]) {
+                            lowerBounds[propertyIndex][mId] = lbPlusCost;
+                            if (!forAllNodes) {
+                                extendPath(edges, propertyIndex, currentNodeId, mId);
+                                if (mId == startNodeId) {
+                                    modifiedComponents.add(propertyIndex);
                                 }
                             }
+                            isNodeModified = true;
                         }
                     }
+                    if (isNodeModified && (forAllNodes || mId != startNodeId)) {
+                        // decrease key, or insert again if the node has already been selected
+                        open.push(mId, getLowerBoundSum(mId));
+                    }
                 }
 
                 // Path Construction
-                if (!modifiedComponents.isEmpty()) {
-                    for (String modifiedComponent : modifiedComponents) {
-                        Label p = constructPath(modifiedComponent);
-                        S.add(p);
-
-                        for (int index = 0; index < S.size(); index++) {
-                            Label label = (Label) S.toArray()[index];
-                            if (label.isDominatedBy(p)) {
-                                S.remove(label);
-                                index--;
-                            }
-                        }
-                    }
+                for (int modifiedComponent : modifiedComponents) {
+                    Label p = constructPath(modifiedComponent);
+                    S.add(p);
+                    S.removeIf(label -> label.isDominatedBy(p));
                 }
             }
-            open.remove(currentNodeId);
         }
 
-        Vector<Double> lowerBoundVector = new Vector<>();
+        double[] lowerBoundVector = new double[propertyKeys.size()];
         for (int lowerBoundVectorIndex = 0; lowerBoundVectorIndex < propertyKeys.size(); lowerBoundVectorIndex++) {
             double lowerBound = Double.MAX_VALUE;
             for (Label l : S) {
                 lowerBound = Math.min(lowerBound, l.getCostByIndex(lowerBoundVectorIndex));
             }
-            lowerBoundVector.add(lowerBoundVectorIndex, lowerBound);
+            lowerBoundVector[lowerBoundVectorIndex] = lowerBound;
         }
         return lowerBoundVector;
     }
 
-    private Label constructPath(String modifiedComponent) {
-        long mId = startNodeId;
-        Label p = new Label(startNodeId, destinationNodeId, propertyKeys, resourceConstraints, labelConstraints);
-        while (mId != destinationNodeId) {
-            Relationship m_n = getSuccessorEdges(mId, modifiedComponent);
-            if (m_n == null) break;
-            p = p.expand(m_n);
-            mId = m_n.getEndNode().getId();
+    /**
+     * The edge from the node m to the current node is the new successor edge of m w.r.t. the criterion, so the cost
+     * vector of the path of m is the one of the current node plus the edge costs.
+     */
+    private void extendPath(EdgeCursor edge, int propertyIndex, int currentNodeId, int mId) {
+        int criteriaCount = propertyKeys.size();
+        double[] pathCostsOfCriterion = pathCosts[propertyIndex];
+        for (int index = 0; index < criteriaCount; index++) {
+            pathCostsOfCriterion[mId * criteriaCount + index] = pathCostsOfCriterion[currentNodeId * criteriaCount + index] + edge.cost(index);
         }
+    }
+
+    /**
+     * The path from the start node along the successor edges of the modified component, whose cost vector is kept
+     * up to date while the bounds are relaxed.
+     */
+    private Label constructPath(int modifiedComponent) {
+        int criteriaCount = propertyKeys.size();
+        Label p = new Label(startNodeId, criteriaCount, 0);
+        System.arraycopy(pathCosts[modifiedComponent], startNodeId * criteriaCount, p.getCosts(), 0, criteriaCount);
         return p;
     }
 }
@@ -0,0 +1,140 @@
+package project;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Memory accounting of the local route skylines of all running queries. Footprints are estimated from the HotSpot
+ * object layout, every disk manager reports the bytes of its local skylines, and their sum is kept under a global
+ * budget. Heap pressure is signalled by the collection usage thresholds of the heap pools: while the heap is still
+ * above the threshold after a collection, queries spill down to half of their budget.
+ */
+public class MemoryGovernor {
+    public static final String MEMORY_BUDGET_OPTION_KEY = "memoryBudget";
+    private static final double HEAP_PRESSURE_THRESHOLD = 0.8;
+    private static final double DEFAULT_GLOBAL_BUDGET_SHARE = 0.25;
+
+    // object layout, references are compressed below 32 GB of heap
+    private static final boolean COMPRESSED_REFERENCES = Runtime.getRuntime().maxMemory() < (32L << 30);
+    private static final int REFERENCE_SIZE = COMPRESSED_REFERENCES ? 4 : 8;
+    private static final int OBJECT_HEADER_SIZE = COMPRESSED_REFERENCES ? 12 : 16;
+    private static final int ARRAY_HEADER_SIZE = COMPRESSED_REFERENCES ? 16 : 24;
+    private static final long NODE_FOOTPRINT = align(OBJECT_HEADER_SIZE + 2 * Integer.BYTES + 2 * REFERENCE_SIZE);
+
+    private static volatile long globalBudgetInBytes = (long) (Runtime.getRuntime().maxMemory() * DEFAULT_GLOBAL_BUDGET_SHARE);
+    // bytes reported by the disk managers of running queries, a query that failed before releasing is collected
+    private static final Map<DiskManager, Long> reservedBytes = new WeakHashMap<>();
+    private static final List<MemoryPoolMXBean> watchedPools = new ArrayList<>();
+    private static volatile boolean heapPressure = false;
+
+    static {
+        watchHeapPools();
+    }
+
+    /**
+     * Estimated bytes of a label with its cost and resource arrays and its entry in a local skyline list.
+     */
+    public static long labelFootprint(int criteriaCount, int resourceCount) {
+        long label = align(OBJECT_HEADER_SIZE + Long.BYTES + 2 * REFERENCE_SIZE);
+        long arrays = align(ARRAY_HEADER_SIZE + (long) criteriaCount * Double.BYTES) + align(ARRAY_HEADER_SIZE + (long) resourceCount * Double.BYTES);
+        long listEntry = align(OBJECT_HEADER_SIZE + 3 * REFERENCE_SIZE);
+        return label + arrays + listEntry;
+    }
+
+    /**
+     * Estimated bytes of a node in the local skyline map apart from its labels, which is the empty list. The slots of
+     * the dense node map are allocated per graph node and not per local skyline.
+     */
+    public static long nodeFootprint() {
+        return NODE_FOOTPRINT;
+    }
+
+    public static long getGlobalBudgetInBytes() {
+        return globalBudgetInBytes;
+    }
+
+    public static void setGlobalBudgetInBytes(long budgetInBytes) {
+        if (budgetInBytes <= 0) {
+            throw new IllegalArgumentException("The global memory budget must be positive.");
+        }
+        globalBudgetInBytes = budgetInBytes;
+    }
+
+    /**
+     * Byte budget of a query given by the "memoryBudget" procedure option, the global budget by default.
+     */
+    public static long memoryBudgetOf(Map<String, Object> options) {
+        if (options == null || options.get(MEMORY_BUDGET_OPTION_KEY) == null) {
+            return globalBudgetInBytes;
+        }
+        return ((Number) options.get(MEMORY_BUDGET_OPTION_KEY)).longValue();
+    }
+
+    static void report(DiskManager diskManager, long bytesInMemory) {
+        synchronized (reservedBytes) {
+            if (bytesInMemory > 0) {
+                reservedBytes.put(diskManager, bytesInMemory);
+            } else {
+                reservedBytes.remove(diskManager);
+            }
+        }
+    }
+
+    public static long getReservedBytes() {
+        synchronized (reservedBytes) {
+            long total = 0;
+            for (long bytes : reservedBytes.values()) {
+                total += bytes;
+            }
+            return total;
+        }
+    }
+
+    public static boolean isUnderHeapPressure() {
+        if (!heapPressure) {
+            return false;
+        }
+        for (MemoryPoolMXBean pool : watchedPools) {
+            if (pool.isCollectionUsageThresholdExceeded()) {
+                return true;
+            }
+        }
+        // the last collections freed enough memory
+        heapPressure = false;
+        return false;
+    }
+
+    private static void watchHeapPools() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported()) {
+                continue;
+            }
+            long max = pool.getUsage().getMax();
+            // keep a threshold that has been configured by someone else
+            if (max > 0 && pool.getCollectionUsageThreshold() == 0) {
+                pool.setCollectionUsageThreshold((long) (max * HEAP_PRESSURE_THRESHOLD));
+            }
+            if (pool.getCollectionUsageThreshold() > 0) {
+                watchedPools.add(pool);
+            }
+        }
+        if (ManagementFactory.getMemoryMXBean() instanceof NotificationEmitter) {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(
+                    (Notification notification, Object handback) -> heapPressure = true,
+                    notification -> MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType()),
+                    null);
+        }
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
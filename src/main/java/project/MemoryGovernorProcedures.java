@@ -0,0 +1,33 @@
+package project;
+
+import org.neo4j.procedure.*;
+
+import java.util.stream.Stream;
+
+public class MemoryGovernorProcedures {
+
+    @Procedure(value = "dbis.memory.setGlobalBudget", name = "dbis.memory.setGlobalBudget", mode = Mode.DBMS)
+    @Description("Sets the number of bytes the local route skylines of all running queries may take together before they are spilled")
+    public Stream<MemoryStatus> setGlobalBudget(@Name("globalBudgetInBytes") long globalBudgetInBytes) {
+        MemoryGovernor.setGlobalBudgetInBytes(globalBudgetInBytes);
+        return Stream.of(new MemoryStatus());
+    }
+
+    @Procedure(value = "dbis.memory.status", name = "dbis.memory.status", mode = Mode.READ)
+    @Description("Global byte budget of the local route skylines, the bytes taken by running queries and whether the heap is under pressure")
+    public Stream<MemoryStatus> status() {
+        return Stream.of(new MemoryStatus());
+    }
+
+    public static class MemoryStatus {
+        public long globalBudgetInBytes;
+        public long reservedBytes;
+        public boolean heapPressure;
+
+        public MemoryStatus() {
+            this.globalBudgetInBytes = MemoryGovernor.getGlobalBudgetInBytes();
+            this.reservedBytes = MemoryGovernor.getReservedBytes();
+            this.heapPressure = MemoryGovernor.isUnderHeapPressure();
+        }
+    }
+}
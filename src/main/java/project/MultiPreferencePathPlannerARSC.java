@@ -1,12 +1,18 @@
 package project;
 
-import project.LowerBoundsCalculators.ParetoPrep;
+import project.DataStructures.Skyline;
+import project.Graphs.Graph;
+import project.Graphs.GraphEngine;
+import project.Graphs.ReversedGraph;
+import project.LowerBoundsCalculators.LowerBoundsCalculator;
+import project.LowerBoundsCalculators.LowerBoundsMethod;
 import org.neo4j.graphdb.*;
 import org.neo4j.procedure.*;
 
 import java.io.*;
 import java.util.*;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class MultiPreferencePathPlannerARSC {
     @Context
@@ -18,114 +24,175 @@ public class MultiPreferencePathPlannerARSC {
                                      @Name("destination") Node destination,
                                      @Name("relationshipPropertyKeys") List<String> relationshipPropertyKeys,
                                      @Name("resourceConstraints") Map<String, Double> resourceConstraints,
-                                     @Name("labelConstraint") List<String> labelConstraints) throws IOException, ClassNotFoundException {
-        long startNodeId = start.getId();
-        long destinationNodeId = destination.getId();
+                                     @Name("labelConstraint") List<String> labelConstraints,
+                                     @Name(value = "options", defaultValue = "{}") Map<String, Object> options) throws IOException, ClassNotFoundException {
+        Graph graph = GraphEngine.of(options).open(db, labelConstraints, relationshipPropertyKeys,
+                resourceConstraints == null ? null : new ArrayList<>(resourceConstraints.keySet()));
+        long startNodeId = toGraphNodeId(graph, start);
+        long destinationNodeId = toGraphNodeId(graph, destination);
+        double[] resourceConstraintValues = resourceConstraintValues(graph, resourceConstraints);
+        if (BidirectionalSearch.isBidirectional(options)) {
+            if (ParallelSearch.isParallel(options)) {
+                throw new IllegalArgumentException("The bidirectional mode does not take the threads option.");
+            }
+            return bidirectionalARSC(graph, start, destination, startNodeId, destinationNodeId, resourceConstraintValues, labelConstraints, options);
+        }
 
-        DiskManager diskManager = new DiskManager(500); //0.00001f
-        LocalRouteSkylineManager localRouteSkylinesManager = new LocalRouteSkylineManager(diskManager);
         PerformanceReporter performanceReporter = new PerformanceReporter();
 
         //performanceReporter.startMemoryUsage();
         performanceReporter.startExecutionTime();
 
-        PriorityQueue<Long> nodeQueue = new PriorityQueue<>(
-                new Comparator<Long>() {
-                    @Override
-                    public int compare(Long lhsNodeId, Long rhsNodeId) {
-                        List<Label> lhsSubRoutes = null;
-                        List<Label> rhsSubRoutes = null;
-                        try {
-                            lhsSubRoutes = localRouteSkylinesManager.get(lhsNodeId);
-                            rhsSubRoutes = localRouteSkylinesManager.get(rhsNodeId);
-                        } catch (IOException | ClassNotFoundException e) {
-                            e.printStackTrace();
-                        }
-                        if (lhsSubRoutes != null && rhsSubRoutes != null) {
-                            for (Label lhsNodeSubRoute : lhsSubRoutes) {
-                                int higherPrefenceCount = 0;
-                                for (Label rhsNodeSubRoute : rhsSubRoutes) {
-                                    if (lhsNodeSubRoute.preferenceFunction() > rhsNodeSubRoute.preferenceFunction()) {
-                                        higherPrefenceCount += 1;
-                                    } else {
-                                        break;
-                                    }
-                                }
-                                if (higherPrefenceCount == rhsSubRoutes.size()) {
-                                    return 1;
-                                }
-                            }
-                        }
-                        return 0;
-                    }
-                }
-        );
-        List<Label> routeSkylines = new LinkedList<>();
-
-        // Pareto-prep Method to compute lower bounds
-        ParetoPrep paretoPrep = new ParetoPrep(startNodeId, destinationNodeId, relationshipPropertyKeys, resourceConstraints, labelConstraints);
-        Vector<Double> pLb = paretoPrep.execute(db);
-
-        //MultiDijkstra md = new MultiDijkstra(db, destinationNodeId, propertyKeys);
-        //Vector<Double> pLb = md.lb(startLabel);
-
-        localRouteSkylinesManager.add(startNodeId, new Label(startNodeId, destinationNodeId, relationshipPropertyKeys, resourceConstraints, labelConstraints));
-        nodeQueue.add(startNodeId);
-
-        while (!nodeQueue.isEmpty()) {
-            long activeNodeId = nodeQueue.peek();
-            for (int subRouteSkylineIndex = 0; subRouteSkylineIndex < localRouteSkylinesManager.getSizeOfSubRoutes(activeNodeId); subRouteSkylineIndex++) {
-                Label subRoute = localRouteSkylinesManager.getSubRouteByIndex(activeNodeId, subRouteSkylineIndex);
-                // Pruning based on forward estimation
-                // compute attribute vector p.lb[] -> lower bounding cost estimations for each path attribute
-                boolean plb_isDominated = false;
-                for (Label route : routeSkylines) {
-                    if (route.doesDominate(pLb)) {
-                        plb_isDominated = true;
-                        localRouteSkylinesManager.removeSubRoute(activeNodeId, subRoute);
-                        subRouteSkylineIndex--;
-                        break;
+        // Pareto-prep Method to compute lower bounds of every node, or a prebuilt landmark index
+        LowerBoundsCalculator lowerBoundsCalculator = LowerBoundsMethod.of(options, LowerBoundsMethod.PARETOPREP)
+                .open(db, graph, labelConstraints, startNodeId, destinationNodeId);
+        Skyline<Label> routeSkylines;
+        LocalRouteSkylineManager localRouteSkylineManager = null;
+        if (ParallelSearch.isParallel(options)) {
+            routeSkylines = new ParallelSearch(graph, startNodeId, destinationNodeId, resourceConstraintValues,
+                    lowerBoundsCalculator, options, performanceReporter).run();
+        } else {
+            ForwardSearch search = new ForwardSearch(graph, startNodeId, destinationNodeId, resourceConstraintValues,
+                    lowerBoundsCalculator, options, performanceReporter);
+            routeSkylines = search.run();
+            localRouteSkylineManager = search.localRouteSkylineManager();
+        }
+        for (Label route : routeSkylines) {
+            route.setLastNodeId(graph.toNeo4jNodeId((int) route.getLastNodeId()));
+        }
+
+        performanceReporter.endExecutionTime();
+        //performanceReporter.endMemoryUsage();
+
+        performanceReporter.printReport(start, destination, relationshipPropertyKeys, routeSkylines, localRouteSkylineManager);
+        return routeSkylines.stream().map(RouteSkyline::new);
+    }
+
+    @Procedure(value = "dbis.ARSCBatch", name = "dbis.ARSCBatch", mode = Mode.READ)
+    @Description("Advanced Route Skyline Computation for every [start node, destination node] pair regarding to the relationship property keys, the pairs of a destination share its lower bounds")
+    public Stream<PairRouteSkyline> ARSCBatch(@Name("pairs") List<List<Node>> pairs,
+                                              @Name("relationshipPropertyKeys") List<String> relationshipPropertyKeys,
+                                              @Name("resourceConstraints") Map<String, Double> resourceConstraints,
+                                              @Name("labelConstraint") List<String> labelConstraints,
+                                              @Name(value = "options", defaultValue = "{}") Map<String, Object> options) {
+        Graph graph = GraphEngine.of(options).open(db, labelConstraints, relationshipPropertyKeys,
+                resourceConstraints == null ? null : new ArrayList<>(resourceConstraints.keySet()));
+        long[] startNodeIds = new long[pairs.size()];
+        long[] destinationNodeIds = new long[pairs.size()];
+        for (int pairIndex = 0; pairIndex < pairs.size(); pairIndex++) {
+            if (pairs.get(pairIndex).size() != 2) {
+                throw new IllegalArgumentException("Pair " + pairIndex + " is not a list of a start node and a destination node.");
+            }
+            startNodeIds[pairIndex] = toGraphNodeId(graph, pairs.get(pairIndex).get(0));
+            destinationNodeIds[pairIndex] = toGraphNodeId(graph, pairs.get(pairIndex).get(1));
+        }
+        double[] resourceConstraintValues = resourceConstraintValues(graph, resourceConstraints);
+        return new ARSCBatch(db, graph, labelConstraints, resourceConstraintValues, options).run(startNodeIds, destinationNodeIds)
+                .flatMap(pairResult -> pairResult.routeSkylines.stream().map(route -> new PairRouteSkyline(
+                        pairResult.pairIndex, pairs.get(pairResult.pairIndex), route)));
+    }
+
+    @Procedure(value = "dbis.ARSCOneToMany", name = "dbis.ARSCOneToMany", mode = Mode.READ)
+    @Description("Advanced Route Skyline Computation from specified start node to every destination node by one search regarding to the relationship property keys, the routes of a destination are streamed once they are final")
+    public Stream<DestinationRouteSkyline> ARSCOneToMany(@Name("start") Node start,
+                                                         @Name("destinations") List<Node> destinations,
+                                                         @Name("relationshipPropertyKeys") List<String> relationshipPropertyKeys,
+                                                         @Name("resourceConstraints") Map<String, Double> resourceConstraints,
+                                                         @Name("labelConstraint") List<String> labelConstraints,
+                                                         @Name(value = "options", defaultValue = "{}") Map<String, Object> options) {
+        Graph graph = GraphEngine.of(options).open(db, labelConstraints, relationshipPropertyKeys,
+                resourceConstraints == null ? null : new ArrayList<>(resourceConstraints.keySet()));
+        long startNodeId = toGraphNodeId(graph, start);
+        List<Node> distinctDestinations = new ArrayList<>(new LinkedHashSet<>(destinations));
+        long[] destinationNodeIds = new long[distinctDestinations.size()];
+        LowerBoundsMethod lowerBoundsMethod = LowerBoundsMethod.of(options, LowerBoundsMethod.PARETOPREP);
+        LowerBoundsCalculator[] lowerBoundsCalculators = new LowerBoundsCalculator[distinctDestinations.size()];
+        for (int destinationIndex = 0; destinationIndex < destinationNodeIds.length; destinationIndex++) {
+            destinationNodeIds[destinationIndex] = toGraphNodeId(graph, distinctDestinations.get(destinationIndex));
+            lowerBoundsCalculators[destinationIndex] = lowerBoundsMethod.open(db, graph, labelConstraints, startNodeId, destinationNodeIds[destinationIndex]);
+        }
+        double[] resourceConstraintValues = resourceConstraintValues(graph, resourceConstraints);
+        OneToManySearch search = new OneToManySearch(graph, startNodeId, destinationNodeIds, resourceConstraintValues,
+                lowerBoundsCalculators, options, new PerformanceReporter());
+        // the search goes on while the routes of the final destinations are read
+        Iterator<Integer> finalDestinationIndexes = new Iterator<Integer>() {
+            private int next = -2;
+
+            @Override
+            public boolean hasNext() {
+                if (next == -2) {
+                    try {
+                        next = search.nextFinalDestination();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (ClassNotFoundException e) {
+                        throw new IllegalStateException(e);
                     }
                 }
-                if (!plb_isDominated) {                                             // if sub-route is not processed yet
-                    for (Label subRoutePrime : subRoute.expandARSC(db, nodeQueue, localRouteSkylinesManager)) {           // expand actual path p by one hop (in each direction)
-                        if (subRoutePrime.getLastNodeId() == destination.getId() && !subRoutePrime.isDominatedInRouteList(routeSkylines)) {                 // route completed
-                            routeSkylines.add(subRoutePrime);                       // path must be a skyline route
-                            for (int skylineRouteIndex = 0; skylineRouteIndex < routeSkylines.size(); skylineRouteIndex++) {
-                                Label route = routeSkylines.get(skylineRouteIndex);
-                                if (route.isDominatedBy(subRoutePrime)) {
-                                    routeSkylines.remove(route);                    // update route skyline
-                                    skylineRouteIndex--;
-                                }
-                            }
-                        } else {
-                            // route is not completed and path must be further expanded
-                            // Pruning based on sub-route skyline criterion (Pruning Criterion II)
-                            long subRoutePrimeLastNodeId = subRoutePrime.getLastNodeId();
-                            if (!subRoutePrime.isDominatedInRouteList(localRouteSkylinesManager.get(subRoutePrimeLastNodeId)) && localRouteSkylinesManager.add(subRoutePrimeLastNodeId, subRoutePrime)) {
-                                for (int vNextSubRouteSkylineIndex = 0; vNextSubRouteSkylineIndex < localRouteSkylinesManager.getSizeOfSubRoutes(subRoutePrimeLastNodeId); vNextSubRouteSkylineIndex++) {
-                                    Label route = localRouteSkylinesManager.getSubRouteByIndex(subRoutePrimeLastNodeId, vNextSubRouteSkylineIndex);
-                                    if (route.isDominatedBy(subRoutePrime)) {
-                                        localRouteSkylinesManager.removeSubRoute(subRoutePrimeLastNodeId, route);
-                                        vNextSubRouteSkylineIndex--;
-                                    }
-                                }
-                            }
-                        }
-                    }
+                return next >= 0;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
                 }
+                int destinationIndex = next;
+                next = -2;
+                return destinationIndex;
             }
-            nodeQueue.remove(activeNodeId);
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(finalDestinationIndexes, Spliterator.ORDERED), false)
+                .flatMap(destinationIndex -> search.routeSkylines(destinationIndex).stream().map(route -> new DestinationRouteSkyline(
+                        distinctDestinations.get(destinationIndex), new Label(graph.toNeo4jNodeId((int) route.getLastNodeId()), route.getCosts(), route.getResources()))))
+                .onClose(() -> {
+                    try {
+                        search.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private Stream<RouteSkyline> bidirectionalARSC(Graph graph, Node start, Node destination, long startNodeId, long destinationNodeId,
+                                                   double[] resourceConstraintValues, List<String> labelConstraints,
+                                                   Map<String, Object> options) throws IOException, ClassNotFoundException {
+        PerformanceReporter performanceReporter = new PerformanceReporter();
+        performanceReporter.startExecutionTime();
+
+        // lower bounds to the destination for the forward search and from the start for the backward search
+        LowerBoundsMethod lowerBoundsMethod = LowerBoundsMethod.of(options, LowerBoundsMethod.PARETOPREP);
+        LowerBoundsCalculator lowerBoundsCalculator = lowerBoundsMethod.open(db, graph, labelConstraints, startNodeId, destinationNodeId);
+        LowerBoundsCalculator reversedLowerBoundsCalculator = lowerBoundsMethod.open(db, new ReversedGraph(graph), labelConstraints, destinationNodeId, startNodeId);
+        BidirectionalSearch search = new BidirectionalSearch(graph, startNodeId, destinationNodeId, resourceConstraintValues,
+                lowerBoundsCalculator, reversedLowerBoundsCalculator, options, performanceReporter);
+        Skyline<Label> routeSkylines = search.run();
+        for (Label route : routeSkylines) {
+            route.setLastNodeId(graph.toNeo4jNodeId((int) route.getLastNodeId()));
         }
-        diskManager.deleteAllFiles();
 
         performanceReporter.endExecutionTime();
-        //performanceReporter.endMemoryUsage();
-
-        performanceReporter.printReport(start, destination, relationshipPropertyKeys, routeSkylines, localRouteSkylinesManager);
+        performanceReporter.printReport(start, destination, graph.propertyKeys(), routeSkylines, search.localRouteSkylineManager());
         return routeSkylines.stream().map(RouteSkyline::new);
     }
 
+    // the constraints in the order of the resource keys of the graph
+    private static double[] resourceConstraintValues(Graph graph, Map<String, Double> resourceConstraints) {
+        double[] resourceConstraintValues = new double[graph.resourceKeys().size()];
+        for (int resourceIndex = 0; resourceIndex < resourceConstraintValues.length; resourceIndex++) {
+            resourceConstraintValues[resourceIndex] = resourceConstraints.get(graph.resourceKeys().get(resourceIndex));
+        }
+        return resourceConstraintValues;
+    }
+
+    private static long toGraphNodeId(Graph graph, Node node) {
+        int graphNodeId = graph.toGraphNodeId(node.getId());
+        if (graphNodeId < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not part of the " + graph.name() + ", rebuild the graph snapshot.");
+        }
+        return graphNodeId;
+    }
+
     public static class RouteSkyline {
         public String route;
 
@@ -133,4 +200,28 @@ public class MultiPreferencePathPlannerARSC {
             this.route = p.toString();
         }
     }
-}
\ No newline at end of file
+
+    public static class PairRouteSkyline {
+        public long pairIndex;
+        public Node start;
+        public Node destination;
+        public String route;
+
+        public PairRouteSkyline(int pairIndex, List<Node> pair, Label p) {
+            this.pairIndex = pairIndex;
+            this.start = pair.get(0);
+            this.destination = pair.get(1);
+            this.route = p.toString();
+        }
+    }
+
+    public static class DestinationRouteSkyline {
+        public Node destination;
+        public String route;
+
+        public DestinationRouteSkyline(Node destination, Label p) {
+            this.destination = destination;
+            this.route = p.toString();
+        }
+    }
+}
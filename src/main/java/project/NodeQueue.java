@@ -0,0 +1,64 @@
+package project;
+
+import project.DataStructures.IndexedMinHeap;
+import project.LowerBoundsCalculators.LowerBoundsCalculator;
+
+/**
+ * Node queue of ARSC. The key of a queued node is the minimal preference value of its local skyline plus the sum of
+ * its lower bounds, so queue operations never read local skylines and never touch the disk.
+ */
+public class NodeQueue {
+    private IndexedMinHeap heap;
+    private LowerBoundsCalculator lowerBoundsCalculator;
+    private int propertyCount;
+
+    public NodeQueue(int nodeCount, LowerBoundsCalculator lowerBoundsCalculator, int propertyCount) {
+        this.heap = new IndexedMinHeap(nodeCount);
+        this.lowerBoundsCalculator = lowerBoundsCalculator;
+        this.propertyCount = propertyCount;
+    }
+
+    /**
+     * Adds the node of the label to the queue, or decreases its key if the label has a smaller preference value
+     * than the local skyline of the queued node.
+     */
+    public void offer(long nodeId, Label label) {
+        double key = label.preferenceFunction() + lowerBoundSum((int) nodeId);
+        if (!heap.contains((int) nodeId) || key < heap.key((int) nodeId)) {
+            heap.push((int) nodeId, key);
+        }
+    }
+
+    public boolean contains(long nodeId) {
+        return heap.contains((int) nodeId);
+    }
+
+    public long peek() {
+        return heap.peek();
+    }
+
+    /**
+     * Fills nodeIds with the next queued nodes in processing order, the first one is the head of the queue.
+     *
+     * @return the number of filled node ids
+     */
+    public int peek(int[] nodeIds) {
+        return heap.peek(nodeIds);
+    }
+
+    public void remove(long nodeId) {
+        heap.remove((int) nodeId);
+    }
+
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    private double lowerBoundSum(int nodeId) {
+        double lowerBoundSum = 0d;
+        for (int propertyIndex = 0; propertyIndex < propertyCount; propertyIndex++) {
+            lowerBoundSum += lowerBoundsCalculator.lowerBound(nodeId, propertyIndex);
+        }
+        return lowerBoundSum;
+    }
+}
@@ -0,0 +1,228 @@
+package project;
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import project.CacheManagers.CacheManagerType;
+import project.DataStructures.Skyline;
+import project.Graphs.EdgeCursor;
+import project.Graphs.Graph;
+import project.LowerBoundsCalculators.LowerBoundsCalculator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Label search of ARSC from one start node to several destination nodes, as asked for by dbis.ARSCOneToMany. The
+ * labels are settled in the order of their costs plus the smallest lower bounds to any destination, so a settled label
+ * is not dominated by a label that is settled later, and the route skyline of a destination is the set of labels that
+ * are settled at it. Labels at a destination are expanded further, for the destinations behind it.
+ * <p>
+ * A label is dropped if a settled label of its node dominates or equals it, or if the route skyline of every remaining
+ * destination covers its costs plus the lower bounds to that destination (Pruning Criterion I). A destination is final
+ * once no queued label could add a route to its route skyline. The queue is scanned for that after as many settled
+ * labels as it holds, so the scans take about as long as the settling.
+ */
+public class OneToManySearch {
+    private final Graph graph;
+    private final long startNodeId;
+    private final double[] resourceConstraints;
+    private final LowerBoundsCalculator[] lowerBoundsCalculators;
+    private final PerformanceReporter performanceReporter;
+    private final DiskManager diskManager;
+    private final LocalRouteSkylineManager localRouteSkylineManager;
+    private final PriorityQueue<QueuedLabel> queue = new PriorityQueue<>(Comparator.comparingDouble((QueuedLabel queuedLabel) -> queuedLabel.key));
+    // destination indexes by node id
+    private final LongIntHashMap destinationIndexes = new LongIntHashMap();
+    private final List<Skyline<Label>> routeSkylines;
+    private final boolean[] isFinal;
+    // destinations that are final but not handed out yet
+    private final Deque<Integer> finalDestinations = new ArrayDeque<>();
+    private final double[] subRouteLb;
+    private int remainingDestinationCount;
+    private long settledCountSinceScan = 0;
+    private boolean isStarted = false;
+
+    /**
+     * @param destinationNodeIds     distinct destination nodes
+     * @param lowerBoundsCalculators lower bounds to the destination node of the same index
+     */
+    public OneToManySearch(Graph graph, long startNodeId, long[] destinationNodeIds, double[] resourceConstraints,
+                           LowerBoundsCalculator[] lowerBoundsCalculators, Map<String, Object> options, PerformanceReporter performanceReporter) {
+        int criteriaCount = graph.propertyKeys().size();
+        this.graph = graph;
+        this.startNodeId = startNodeId;
+        this.resourceConstraints = resourceConstraints;
+        this.lowerBoundsCalculators = lowerBoundsCalculators;
+        this.performanceReporter = performanceReporter;
+        this.diskManager = new DiskManager(MemoryGovernor.memoryBudgetOf(options), DiskManager.spillDirectoryOf(options), DiskManager.spillBufferSizeOf(options));
+        this.localRouteSkylineManager = new LocalRouteSkylineManager(diskManager, CacheManagerType.of(options).create(), criteriaCount);
+        this.routeSkylines = new ArrayList<>(destinationNodeIds.length);
+        for (int destinationIndex = 0; destinationIndex < destinationNodeIds.length; destinationIndex++) {
+            destinationIndexes.put(destinationNodeIds[destinationIndex], destinationIndex);
+            routeSkylines.add(new Skyline<>(criteriaCount, Label::getCosts));
+        }
+        this.isFinal = new boolean[destinationNodeIds.length];
+        this.subRouteLb = new double[criteriaCount];
+        this.remainingDestinationCount = destinationNodeIds.length;
+    }
+
+    /**
+     * Settles labels until the route skyline of a destination is final. The spill files are deleted once every
+     * destination is handed out.
+     *
+     * @return the index of the destination, or -1 if every destination has been handed out
+     */
+    public int nextFinalDestination() throws IOException, ClassNotFoundException {
+        if (!isStarted) {
+            isStarted = true;
+            offer(new Label(startNodeId, subRouteLb.length, resourceConstraints.length));
+        }
+        while (finalDestinations.isEmpty() && remainingDestinationCount > 0) {
+            if (queue.isEmpty()) {
+                for (int destinationIndex = 0; destinationIndex < isFinal.length; destinationIndex++) {
+                    if (!isFinal[destinationIndex]) {
+                        markFinal(destinationIndex);
+                    }
+                }
+            } else {
+                settleNext();
+                if (++settledCountSinceScan >= queue.size()) {
+                    finalizeUnreachableDestinations();
+                    settledCountSinceScan = 0;
+                }
+            }
+        }
+        if (finalDestinations.isEmpty()) {
+            close();
+            return -1;
+        }
+        return finalDestinations.poll();
+    }
+
+    /**
+     * Route skyline of the destination, whose labels end at its graph node id.
+     */
+    public Skyline<Label> routeSkylines(int destinationIndex) {
+        return routeSkylines.get(destinationIndex);
+    }
+
+    /**
+     * Local route skyline manager of the search, for reporting.
+     */
+    public LocalRouteSkylineManager localRouteSkylineManager() {
+        return localRouteSkylineManager;
+    }
+
+    /**
+     * Deletes the spill files, the search cannot be continued afterwards.
+     */
+    public void close() throws IOException {
+        diskManager.deleteAllFiles();
+    }
+
+    /**
+     * Settles the next label unless it is dominated or pruned, adds it to the route skyline of its node if that is a
+     * destination and queues its expansions.
+     */
+    private void settleNext() throws IOException, ClassNotFoundException {
+        Label subRoute = queue.poll().label;
+        long nodeId = subRoute.getLastNodeId();
+        // the route skylines may have grown since the label was queued
+        if (isPruned(subRoute) || !localRouteSkylineManager.add(nodeId, subRoute)) {
+            return;
+        }
+        int destinationIndex = destinationIndexes.getIfAbsent(nodeId, -1);
+        if (destinationIndex >= 0 && !isFinal[destinationIndex]) {
+            routeSkylines.get(destinationIndex).add(subRoute);
+        }
+        EdgeCursor edges = graph.outgoing((int) nodeId);
+        while (edges.next()) {
+            Label subRoutePrime = subRoute.expand(edges);
+            if (subRoutePrime.isValidByResourceConstraints(resourceConstraints)) {
+                offer(subRoutePrime);
+            }
+        }
+    }
+
+    private void offer(Label subRoute) throws IOException, ClassNotFoundException {
+        long nodeId = subRoute.getLastNodeId();
+        // Pruning based on sub-route skyline criterion (Pruning Criterion II)
+        List<Label> localSkylineRoutes = localRouteSkylineManager.get(nodeId);
+        if (isPruned(subRoute) || subRoute.isDominatedInRouteList(localSkylineRoutes) || localSkylineRoutes.contains(subRoute)) {
+            return;
+        }
+        // the smallest lower bounds to any destination keep the order of the labels consistent along edges
+        double key = 0d;
+        for (int propertyIndex = 0; propertyIndex < subRouteLb.length; propertyIndex++) {
+            double lowerBound = Double.POSITIVE_INFINITY;
+            for (LowerBoundsCalculator lowerBoundsCalculator : lowerBoundsCalculators) {
+                lowerBound = Math.min(lowerBound, lowerBoundsCalculator.lowerBound((int) nodeId, propertyIndex));
+            }
+            key += subRoute.getCostByIndex(propertyIndex) + lowerBound;
+        }
+        queue.add(new QueuedLabel(subRoute, key));
+    }
+
+    // Pruning based on forward estimation (Pruning Criterion I) w.r.t. every remaining destination
+    private boolean isPruned(Label subRoute) {
+        for (int destinationIndex = 0; destinationIndex < isFinal.length; destinationIndex++) {
+            if (!isFinal[destinationIndex] && canReach(subRoute, destinationIndex)) {
+                return false;
+            }
+        }
+        performanceReporter.countPrunedSubRoute();
+        return true;
+    }
+
+    // whether the route skyline of the destination does not cover the costs plus the lower bounds, fills subRouteLb
+    private boolean canReach(Label subRoute, int destinationIndex) {
+        for (int propertyIndex = 0; propertyIndex < subRouteLb.length; propertyIndex++) {
+            subRouteLb[propertyIndex] = subRoute.getCostByIndex(propertyIndex)
+                    + lowerBoundsCalculators[destinationIndex].lowerBound((int) subRoute.getLastNodeId(), propertyIndex);
+            // the destination cannot be reached from the node
+            if (Double.isInfinite(subRouteLb[propertyIndex])) {
+                return false;
+            }
+        }
+        return !routeSkylines.get(destinationIndex).isCovered(subRouteLb);
+    }
+
+    // finalizes the remaining destinations no queued label can reach
+    private void finalizeUnreachableDestinations() {
+        boolean[] isReachable = new boolean[isFinal.length];
+        for (QueuedLabel queuedLabel : queue) {
+            for (int destinationIndex = 0; destinationIndex < isFinal.length; destinationIndex++) {
+                if (!isFinal[destinationIndex] && !isReachable[destinationIndex] && canReach(queuedLabel.label, destinationIndex)) {
+                    isReachable[destinationIndex] = true;
+                }
+            }
+        }
+        for (int destinationIndex = 0; destinationIndex < isFinal.length; destinationIndex++) {
+            if (!isFinal[destinationIndex] && !isReachable[destinationIndex]) {
+                markFinal(destinationIndex);
+            }
+        }
+    }
+
+    private void markFinal(int destinationIndex) {
+        isFinal[destinationIndex] = true;
+        remainingDestinationCount--;
+        finalDestinations.add(destinationIndex);
+    }
+
+    private static class QueuedLabel {
+        private final Label label;
+        // costs plus the smallest lower bounds to any destination
+        private final double key;
+
+        QueuedLabel(Label label, double key) {
+            this.label = label;
+            this.key = key;
+        }
+    }
+}
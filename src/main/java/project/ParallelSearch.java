@@ -0,0 +1,295 @@
+package project;
+
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import project.DataStructures.Skyline;
+import project.Graphs.EdgeCursor;
+import project.Graphs.Graph;
+import project.Graphs.GraphSnapshot;
+import project.Graphs.ReversedGraph;
+import project.LowerBoundsCalculators.LowerBoundsCalculator;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Label-setting search of ARSC from the start node to the destination node on several threads, as asked for by the
+ * "threads" option of dbis.ARSC. The queued labels form one frontier shared by the threads, ordered by the sum of their
+ * costs plus lower bounds. The search runs in rounds: the coordinating thread takes labels from the head of the
+ * frontier that no other queued label dominates by costs plus lower bounds, and the threads expand them together.
+ * <p>
+ * The lower bounds of every lowerBounds method are consistent along edges, so a label whose costs plus lower bounds no
+ * queued label dominates cannot be dominated by a label found later, it is settled. A label that a label taken in the
+ * same round dominates waits for a later round, and labels dominated only by waiting labels are dominated by a taken
+ * one as well, so the labels of a round are checked against the taken ones only. The route skyline is the exact
+ * Pareto set, as on one thread.
+ * <p>
+ * The local skylines are kept in memory in maps striped by node id, each stripe is locked while the skyline of one of
+ * its nodes is read or changed. The route skyline is read under a shared lock for Pruning Criterion I and changed
+ * under an exclusive one. The memory budget options do not apply, no local skyline is spilled. The Neo4j core API is
+ * bound to the transaction of the procedure, so the labels are expanded by the calling thread only unless the graph is
+ * the graph snapshot.
+ */
+public class ParallelSearch {
+    public static final String THREADS_OPTION_KEY = "threads";
+    // labels taken per round and thread, a round costs a hand-over to the threads
+    private static final int ROUND_SIZE_PER_THREAD = 64;
+    // labels looked at per taken label before a round is started with fewer
+    private static final int SCAN_RATIO = 4;
+    private static final int STRIPE_COUNT = 64;
+
+    private final Graph graph;
+    private final long startNodeId;
+    private final long destinationNodeId;
+    private final double[] resourceConstraints;
+    private final LowerBoundsCalculator lowerBoundsCalculator;
+    private final PerformanceReporter performanceReporter;
+    private final int threadCount;
+    private final int criteriaCount;
+    private final PriorityQueue<QueuedLabel> frontier = new PriorityQueue<>(Comparator.comparingDouble((QueuedLabel queuedLabel) -> queuedLabel.key));
+    // local skylines by node id, the map of a stripe is its lock
+    private final List<IntObjectHashMap<Skyline<Label>>> localSkylineStripes = new ArrayList<>(STRIPE_COUNT);
+    private final Skyline<Label> routeSkylines;
+    private final ReadWriteLock routeSkylinesLock = new ReentrantReadWriteLock();
+    private final LongAdder prunedCount = new LongAdder();
+    private long roundCount = 0;
+    private long settledCount = 0;
+
+    public ParallelSearch(Graph graph, long startNodeId, long destinationNodeId, double[] resourceConstraints,
+                          LowerBoundsCalculator lowerBoundsCalculator, Map<String, Object> options, PerformanceReporter performanceReporter) {
+        this.graph = graph;
+        this.startNodeId = startNodeId;
+        this.destinationNodeId = destinationNodeId;
+        this.resourceConstraints = resourceConstraints;
+        this.lowerBoundsCalculator = lowerBoundsCalculator;
+        this.performanceReporter = performanceReporter;
+        Graph originalGraph = graph instanceof ReversedGraph ? ((ReversedGraph) graph).original() : graph;
+        this.threadCount = originalGraph instanceof GraphSnapshot ? threadsOf(options) : 1;
+        this.criteriaCount = graph.propertyKeys().size();
+        for (int stripe = 0; stripe < STRIPE_COUNT; stripe++) {
+            localSkylineStripes.add(new IntObjectHashMap<>());
+        }
+        this.routeSkylines = new Skyline<>(criteriaCount, Label::getCosts);
+    }
+
+    /**
+     * Whether the "threads" procedure option is given, dbis.ARSC runs this search instead of ForwardSearch then, on one
+     * thread as well.
+     */
+    public static boolean isParallel(Map<String, Object> options) {
+        return options != null && options.get(THREADS_OPTION_KEY) != null;
+    }
+
+    /**
+     * Number of threads given by the "threads" procedure option, 1 by default.
+     */
+    public static int threadsOf(Map<String, Object> options) {
+        if (options == null || options.get(THREADS_OPTION_KEY) == null) {
+            return 1;
+        }
+        int threadCount = ((Number) options.get(THREADS_OPTION_KEY)).intValue();
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive.");
+        }
+        return threadCount;
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @return the route skyline, whose labels end at the destination node
+     */
+    public Skyline<Label> run() throws InterruptedIOException {
+        Label startLabel = new Label(startNodeId, criteriaCount, resourceConstraints.length);
+        List<QueuedLabel> offered = new ArrayList<>();
+        offer(startLabel, offered);
+        frontier.addAll(offered);
+        ForkJoinPool pool = threadCount > 1 ? new ForkJoinPool(threadCount) : null;
+        try {
+            while (!frontier.isEmpty()) {
+                List<QueuedLabel> round = takeRound();
+                roundCount++;
+                settledCount += round.size();
+                if (pool == null) {
+                    frontier.addAll(expand(round, 0, 1));
+                } else {
+                    List<Callable<List<QueuedLabel>>> tasks = new ArrayList<>(threadCount);
+                    for (int thread = 0; thread < threadCount; thread++) {
+                        int firstIndex = thread;
+                        tasks.add(() -> expand(round, firstIndex, threadCount));
+                    }
+                    for (Future<List<QueuedLabel>> task : pool.invokeAll(tasks)) {
+                        frontier.addAll(task.get());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while expanding the labels of a round.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+            performanceReporter.countPrunedSubRoutes(prunedCount.sumThenReset());
+        }
+        return routeSkylines;
+    }
+
+    /**
+     * Number of rounds the last run took, each of them expanded its labels on all threads.
+     */
+    public long getRoundCount() {
+        return roundCount;
+    }
+
+    /**
+     * Number of labels the last run settled and expanded.
+     */
+    public long getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Takes the labels of the next round off the frontier, in the order of their keys: the ones no taken label
+     * dominates by costs plus lower bounds, are dominated at their node or are pruned. The dominated ones are queued
+     * again.
+     */
+    private List<QueuedLabel> takeRound() {
+        int roundSize = ROUND_SIZE_PER_THREAD * threadCount;
+        List<QueuedLabel> round = new ArrayList<>(roundSize);
+        Skyline<QueuedLabel> roundSkyline = new Skyline<>(criteriaCount, queuedLabel -> queuedLabel.costsLb);
+        List<QueuedLabel> waiting = new ArrayList<>();
+        for (int scannedCount = 0; scannedCount < SCAN_RATIO * roundSize && round.size() < roundSize && !frontier.isEmpty(); scannedCount++) {
+            QueuedLabel queuedLabel = frontier.poll();
+            if (isDominatedAtItsNode(queuedLabel.label) || isPruned(queuedLabel)) {
+                continue;
+            }
+            if (roundSkyline.isDominated(queuedLabel.costsLb)) {
+                waiting.add(queuedLabel);
+            } else {
+                roundSkyline.add(queuedLabel);
+                round.add(queuedLabel);
+            }
+        }
+        frontier.addAll(waiting);
+        return round;
+    }
+
+    /**
+     * Expands the labels of the round from firstIndex on in steps of the thread count, run by each of the threads.
+     *
+     * @return the expansions that have been added to the local skylines of their nodes
+     */
+    private List<QueuedLabel> expand(List<QueuedLabel> round, int firstIndex, int step) {
+        List<QueuedLabel> offered = new ArrayList<>();
+        for (int index = firstIndex; index < round.size(); index += step) {
+            Label subRoute = round.get(index).label;
+            EdgeCursor edges = graph.outgoing((int) subRoute.getLastNodeId());
+            while (edges.next()) {
+                Label subRoutePrime = subRoute.expand(edges);
+                if (subRoutePrime.isValidByResourceConstraints(resourceConstraints)) {
+                    offer(subRoutePrime, offered);
+                }
+            }
+        }
+        return offered;
+    }
+
+    /**
+     * Adds the label to the route skyline if it ends at the destination node, otherwise to the local skyline of its
+     * node and to the offered labels, unless it is pruned or dominated.
+     */
+    private void offer(Label subRoute, List<QueuedLabel> offered) {
+        int nodeId = (int) subRoute.getLastNodeId();
+        double[] costsLb = new double[criteriaCount];
+        double key = 0d;
+        for (int propertyIndex = 0; propertyIndex < criteriaCount; propertyIndex++) {
+            costsLb[propertyIndex] = subRoute.getCostByIndex(propertyIndex) + lowerBoundsCalculator.lowerBound(nodeId, propertyIndex);
+            key += costsLb[propertyIndex];
+        }
+        // the destination cannot be reached from the node
+        if (Double.isInfinite(key)) {
+            return;
+        }
+        QueuedLabel queuedLabel = new QueuedLabel(subRoute, costsLb, key);
+        if (isPruned(queuedLabel)) {
+            return;
+        }
+        if (nodeId == destinationNodeId) {
+            routeSkylinesLock.writeLock().lock();
+            try {
+                if (!routeSkylines.isCovered(subRoute.getCosts())) {
+                    routeSkylines.add(subRoute);
+                }
+            } finally {
+                routeSkylinesLock.writeLock().unlock();
+            }
+            return;
+        }
+        // Pruning based on sub-route skyline criterion (Pruning Criterion II), an equal label is dropped as well
+        IntObjectHashMap<Skyline<Label>> stripe = localSkylineStripes.get(nodeId % STRIPE_COUNT);
+        synchronized (stripe) {
+            Skyline<Label> localSkyline = stripe.getIfAbsentPut(nodeId, () -> new Skyline<>(criteriaCount, Label::getCosts));
+            if (localSkyline.isCovered(subRoute.getCosts())) {
+                return;
+            }
+            localSkyline.add(subRoute);
+        }
+        offered.add(queuedLabel);
+    }
+
+    // whether a label added to the local skyline of its node after it has been queued dominates it
+    private boolean isDominatedAtItsNode(Label subRoute) {
+        int nodeId = (int) subRoute.getLastNodeId();
+        IntObjectHashMap<Skyline<Label>> stripe = localSkylineStripes.get(nodeId % STRIPE_COUNT);
+        synchronized (stripe) {
+            return stripe.get(nodeId).isDominated(subRoute.getCosts());
+        }
+    }
+
+    // Pruning based on forward estimation (Pruning Criterion I)
+    private boolean isPruned(QueuedLabel queuedLabel) {
+        boolean isCovered;
+        routeSkylinesLock.readLock().lock();
+        try {
+            isCovered = routeSkylines.isCovered(queuedLabel.costsLb);
+        } finally {
+            routeSkylinesLock.readLock().unlock();
+        }
+        if (isCovered) {
+            prunedCount.increment();
+        }
+        return isCovered;
+    }
+
+    private static class QueuedLabel {
+        private final Label label;
+        // costs plus the lower bounds of the last node
+        private final double[] costsLb;
+        private final double key;
+
+        QueuedLabel(Label label, double[] costsLb, double key) {
+            this.label = label;
+            this.costsLb = costsLb;
+            this.key = key;
+        }
+    }
+}
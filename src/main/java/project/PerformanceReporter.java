@@ -1,7 +1,9 @@
 package project;
 
 import org.neo4j.graphdb.Node;
+import project.CacheManagers.CacheManager;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -12,6 +14,9 @@ public class PerformanceReporter {
     private boolean reportRouteSkyline = true;
     private boolean reportExecutionTime = true;
     private boolean reportMemoryUsage = true;
+    private long prunedSubRouteCount = 0;
+    // hit and miss counts of all queries per cache manager, for comparing policies over a workload
+    private static final Map<String, float[]> cacheManagerTotals = new HashMap<>();
 
 
     public void printReport(Node startNode, Node destinationNode, List<String> propertyKeys, List<Label> routeSkylines, LocalRouteSkylineManager localRouteSkylineManager) {
@@ -20,7 +25,11 @@ public class PerformanceReporter {
         //reportMemoryUsage();
         //reportSubRouteSkylinesMemoryUsage(false, subRouteSkyline);
         reportRouteSkylines(routeSkylines, propertyKeys);
-        printCacheManagerReport(localRouteSkylineManager);
+        reportPrunedSubRoutes();
+        // the parallel search keeps its local skylines without a cache manager
+        if (localRouteSkylineManager != null) {
+            printCacheManagerReport(localRouteSkylineManager);
+        }
         printFooter(routeSkylines);
     }
 
@@ -38,7 +47,7 @@ public class PerformanceReporter {
             routeSkylines.forEach(route -> {
                 System.out.print("Path - ");
                 for (int criteriaIndex = 0; criteriaIndex < propertyKeys.size(); criteriaIndex++) {
-                    System.out.print("Criteria-" + (criteriaIndex + 1) + ": " + route.getCosts().get(criteriaIndex) + " ");
+                    System.out.print("Criteria-" + (criteriaIndex + 1) + ": " + route.getCostByIndex(criteriaIndex) + " ");
                 }
                 System.out.println();
             });
@@ -47,7 +56,27 @@ public class PerformanceReporter {
 
     /* Cache Manager */
     public void printCacheManagerReport(LocalRouteSkylineManager localRouteSkylineManager) {
-        System.out.println(localRouteSkylineManager.cacheManager().toString());
+        CacheManager cacheManager = localRouteSkylineManager.cacheManager();
+        System.out.println(cacheManager.toString());
+        synchronized (cacheManagerTotals) {
+            float[] totals = cacheManagerTotals.computeIfAbsent(cacheManager.name(), name -> new float[2]);
+            totals[0] += cacheManager.getHitCount();
+            totals[1] += cacheManager.getMissCount();
+        }
+    }
+
+    public static float totalMissCount(String cacheManagerName) {
+        synchronized (cacheManagerTotals) {
+            float[] totals = cacheManagerTotals.get(cacheManagerName);
+            return totals == null ? 0 : totals[1];
+        }
+    }
+
+    public static float totalHitRatio(String cacheManagerName) {
+        synchronized (cacheManagerTotals) {
+            float[] totals = cacheManagerTotals.get(cacheManagerName);
+            return (totals == null || totals[0] + totals[1] <= 0) ? 0 : totals[0] / (totals[0] + totals[1]);
+        }
     }
 
 
@@ -67,6 +96,23 @@ public class PerformanceReporter {
         }
     }
 
+    /* Pruning Criterion I */
+    public void countPrunedSubRoute() {
+        prunedSubRouteCount++;
+    }
+
+    public void countPrunedSubRoutes(long count) {
+        prunedSubRouteCount += count;
+    }
+
+    public long getPrunedSubRouteCount() {
+        return prunedSubRouteCount;
+    }
+
+    private void reportPrunedSubRoutes() {
+        System.out.println("Sub-routes pruned by forward estimation: " + prunedSubRouteCount);
+    }
+
     /* Memory Usage */
     public void startMemoryUsage() {
         runtime = Runtime.getRuntime();
@@ -86,10 +132,9 @@ public class PerformanceReporter {
     private void reportSubRouteSkylinesMemoryUsage(boolean showEachSubRouteMemoryUsage, LocalRouteSkylineManager localRouteSkylineManager) {
         System.out.println("Total Memory Usage of all subroutes; " + localRouteSkylineManager.getTotalBytesOfPrimitivesInMemory());
         if (showEachSubRouteMemoryUsage) {
-            for (Map.Entry<Long, List<Label>> entry : localRouteSkylineManager.getSubRoutesOnMemory().entrySet()) {
-                System.out.println("Node-" + entry.getKey() + " SubrouteSkyline(s) memory usage; " +
-                        localRouteSkylineManager.getBytesOfPrimitivesInMemory(entry.getKey()));
-            }
+            localRouteSkylineManager.getSubRoutesOnMemory().forEach((subRoutes, nodeId) ->
+                    System.out.println("Node-" + nodeId + " SubrouteSkyline(s) memory usage; " +
+                            localRouteSkylineManager.getBytesOfPrimitivesInMemory(nodeId)));
         }
     }
 }
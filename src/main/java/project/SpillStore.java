@@ -0,0 +1,247 @@
+package project;
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * Spilled local route skylines in one memory-mapped segment file. A label is a fixed-width record of its last node id,
+ * cost and resource doubles, the labels of a node are one extent of consecutive records. Extents are indexed in
+ * memory per node, and the space of reloaded nodes is reused by later spills (best fit, neighbouring free extents are
+ * merged).
+ */
+public class SpillStore implements Closeable {
+    private static final int INITIAL_SEGMENT_SIZE = 1 << 20;
+    private static final int LONG_SIZE = 8, DOUBLE_SIZE = 8;
+    private static final long NO_EXTENT = -1;
+
+    private File file;
+    private RandomAccessFile randomAccessFile;
+    private MappedByteBuffer segment;
+    private int criteriaCount = -1, resourceCount = -1, recordSize;
+    // position (high int) and record count (low int) of the extent of each spilled node
+    private LongLongHashMap extents = new LongLongHashMap();
+    private TreeMap<Integer, Integer> freeExtentsByPosition = new TreeMap<>();
+    private TreeMap<Integer, TreeSet<Integer>> freeExtentsBySize = new TreeMap<>();
+    private int end = 0;
+
+    public SpillStore(File directory) throws IOException {
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        this.file = File.createTempFile("subRoutes-", ".spill", directory);
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        map(INITIAL_SEGMENT_SIZE);
+    }
+
+    public File file() {
+        return file;
+    }
+
+    public long sizeInBytes() {
+        return segment.capacity();
+    }
+
+    public boolean contains(long nodeId) {
+        return extents.containsKey(nodeId);
+    }
+
+    public int spilledNodeCount() {
+        return extents.size();
+    }
+
+    public void write(long nodeId, List<Label> labels) throws IOException {
+        free(nodeId);
+        if (criteriaCount < 0 && !labels.isEmpty()) {
+            criteriaCount = labels.get(0).getCosts().length;
+            resourceCount = labels.get(0).getResources().length;
+            recordSize = LONG_SIZE + (criteriaCount + resourceCount) * DOUBLE_SIZE;
+        }
+        int start = labels.isEmpty() ? 0 : allocate(labels.size() * recordSize);
+        int position = start;
+        for (Label label : labels) {
+            segment.putLong(position, label.getLastNodeId());
+            position += LONG_SIZE;
+            for (double cost : label.getCosts()) {
+                segment.putDouble(position, cost);
+                position += DOUBLE_SIZE;
+            }
+            for (double resource : label.getResources()) {
+                segment.putDouble(position, resource);
+                position += DOUBLE_SIZE;
+            }
+        }
+        extents.put(nodeId, extent(start, labels.size()));
+    }
+
+    /**
+     * Reads the labels of the node and frees its extent.
+     *
+     * @return the labels or null if the node has not been spilled
+     */
+    public List<Label> read(long nodeId) {
+        long extent = extents.getIfAbsent(nodeId, NO_EXTENT);
+        if (extent == NO_EXTENT) {
+            return null;
+        }
+        List<Label> labels = new LinkedList<>();
+        int position = extentPosition(extent);
+        for (int recordIndex = 0; recordIndex < extentRecordCount(extent); recordIndex++) {
+            long lastNodeId = segment.getLong(position);
+            position += LONG_SIZE;
+            double[] costs = new double[criteriaCount];
+            for (int index = 0; index < criteriaCount; index++, position += DOUBLE_SIZE) {
+                costs[index] = segment.getDouble(position);
+            }
+            double[] resources = new double[resourceCount];
+            for (int index = 0; index < resourceCount; index++, position += DOUBLE_SIZE) {
+                resources[index] = segment.getDouble(position);
+            }
+            labels.add(new Label(lastNodeId, costs, resources));
+        }
+        free(nodeId);
+        return labels;
+    }
+
+    /**
+     * Unmaps the segment and deletes the spill file.
+     *
+     * @throws IOException if the file could not be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        extents.clear();
+        if (segment != null) {
+            unmap(segment);
+            segment = null;
+        }
+        randomAccessFile.close();
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Could not delete the spill file " + file + ".");
+        }
+    }
+
+    private int allocate(int length) throws IOException {
+        Map.Entry<Integer, TreeSet<Integer>> bestFit = freeExtentsBySize.ceilingEntry(length);
+        if (bestFit != null) {
+            int position = bestFit.getValue().first();
+            int freeLength = bestFit.getKey();
+            removeFreeExtent(position, freeLength);
+            if (freeLength > length) {
+                addFreeExtent(position + length, freeLength - length);
+            }
+            return position;
+        }
+        if ((long) end + length > segment.capacity()) {
+            long capacity = segment.capacity();
+            while (capacity < (long) end + length) {
+                capacity *= 2;
+            }
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IOException("Spill file " + file + " exceeds the size of a mapped segment.");
+            }
+            map((int) capacity);
+        }
+        int position = end;
+        end += length;
+        return position;
+    }
+
+    private void free(long nodeId) {
+        long extent = extents.removeKeyIfAbsent(nodeId, NO_EXTENT);
+        if (extent == NO_EXTENT || extentRecordCount(extent) == 0) {
+            return;
+        }
+        int position = extentPosition(extent);
+        int length = extentRecordCount(extent) * recordSize;
+        Map.Entry<Integer, Integer> previous = freeExtentsByPosition.floorEntry(position);
+        if (previous != null && previous.getKey() + previous.getValue() == position) {
+            removeFreeExtent(previous.getKey(), previous.getValue());
+            position = previous.getKey();
+            length += previous.getValue();
+        }
+        Integer nextLength = freeExtentsByPosition.get(position + length);
+        if (nextLength != null) {
+            removeFreeExtent(position + length, nextLength);
+            length += nextLength;
+        }
+        if (position + length == end) {
+            end = position;
+        } else {
+            addFreeExtent(position, length);
+        }
+    }
+
+    private static long extent(int position, int recordCount) {
+        return ((long) position << 32) | recordCount;
+    }
+
+    private static int extentPosition(long extent) {
+        return (int) (extent >>> 32);
+    }
+
+    private static int extentRecordCount(long extent) {
+        return (int) extent;
+    }
+
+    private void addFreeExtent(int position, int length) {
+        freeExtentsByPosition.put(position, length);
+        freeExtentsBySize.computeIfAbsent(length, key -> new TreeSet<>()).add(position);
+    }
+
+    private void removeFreeExtent(int position, int length) {
+        freeExtentsByPosition.remove(position);
+        TreeSet<Integer> positions = freeExtentsBySize.get(length);
+        positions.remove(position);
+        if (positions.isEmpty()) {
+            freeExtentsBySize.remove(length);
+        }
+    }
+
+    private void map(int capacity) throws IOException {
+        MappedByteBuffer previousSegment = segment;
+        randomAccessFile.setLength(capacity);
+        segment = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        // the new segment maps the same file, the records stay in it
+        if (previousSegment != null) {
+            unmap(previousSegment);
+        }
+    }
+
+    /**
+     * Releases the mapping at once instead of when the buffer is garbage collected, which keeps the file from being
+     * deleted on some platforms. The buffer must not be used afterwards.
+     */
+    private static void unmap(MappedByteBuffer buffer) throws IOException {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                // Java 8 has no Unsafe.invokeCleaner, its direct buffers expose their cleaner
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+                return;
+            }
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IOException("Could not unmap the spill file.", e);
+        }
+    }
+}
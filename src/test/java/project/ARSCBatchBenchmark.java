@@ -0,0 +1,77 @@
+package project;
+
+import org.neo4j.driver.v1.*;
+import org.neo4j.harness.ServerControls;
+import org.neo4j.harness.TestServerBuilders;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Throughput in pairs per second of ARSC on rome99 for PAIR_COUNT random pairs to DESTINATION_COUNT destinations, once
+ * by one dbis.ARSC call per pair and once by dbis.ARSCBatch on each of THREAD_COUNTS. The lower bounds cache is
+ * cleared before every run. Prints the number of routes of every run, to compare them. Run by hand like SampleTest.
+ */
+public class ARSCBatchBenchmark {
+    private static final int TOTAL_NODE_COUNT = 3353;
+    private static final int PAIR_COUNT = 200;
+    private static final int DESTINATION_COUNT = 20;
+    private static final int[] THREAD_COUNTS = {1, 2, 4};
+
+    public static void main(String[] args) {
+        final Config driverConfig = Config.build().withoutEncryption().toConfig();
+        ServerControls embeddedDatabaseServer = TestServerBuilders
+                .newInProcessBuilder()
+                .withProcedure(MultiPreferencePathPlannerARSC.class)
+                .withProcedure(LowerBoundsCacheProcedures.class)
+                .newServer();
+
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            session.run("LOAD CSV FROM '" + new File("src/test/java/project/rome99.csv").toURI() + "' AS line " +
+                    "MERGE (start:Node{name:line[0]}) MERGE (destination:Node{name:line[1]}) " +
+                    "MERGE (start)-[:GOES_TO{length:line[2], cost:50}]->(destination)").consume();
+            Random random = new Random(7);
+            List<String> destinations = new ArrayList<>();
+            for (int destinationIndex = 0; destinationIndex < DESTINATION_COUNT; destinationIndex++) {
+                destinations.add(String.valueOf(random.nextInt(TOTAL_NODE_COUNT) + 1));
+            }
+            List<List<String>> pairs = new ArrayList<>();
+            for (int pairIndex = 0; pairIndex < PAIR_COUNT; pairIndex++) {
+                pairs.add(Arrays.asList(String.valueOf(random.nextInt(TOTAL_NODE_COUNT) + 1), destinations.get(random.nextInt(DESTINATION_COUNT))));
+            }
+            String query = "MATCH (startNode:Node{name:$start}), (destinationNode:Node{name:$destination}) " +
+                    "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {}, null, {engine: 'snapshot'}) " +
+                    "YIELD route RETURN count(route) AS routeCount";
+            String batchQuery = "UNWIND $pairs AS pair MATCH (startNode:Node{name:pair[0]}), (destinationNode:Node{name:pair[1]}) " +
+                    "WITH collect([startNode, destinationNode]) AS pairs " +
+                    "CALL dbis.ARSCBatch(pairs, ['length', 'cost'], {}, null, {engine: 'snapshot', threads: $threads}) " +
+                    "YIELD route RETURN count(route) AS routeCount";
+            // builds the graph snapshot
+            session.run(query, Values.parameters("start", "1", "destination", "2")).consume();
+
+            session.run("CALL dbis.lowerBounds.invalidate()").consume();
+            long start = System.currentTimeMillis();
+            long routeCount = 0;
+            for (List<String> pair : pairs) {
+                routeCount += session.run(query, Values.parameters("start", pair.get(0), "destination", pair.get(1)))
+                        .single().get("routeCount").asLong();
+            }
+            report("dbis.ARSC per pair", routeCount, System.currentTimeMillis() - start);
+
+            for (int threadCount : THREAD_COUNTS) {
+                session.run("CALL dbis.lowerBounds.invalidate()").consume();
+                start = System.currentTimeMillis();
+                routeCount = session.run(batchQuery, Values.parameters("pairs", pairs, "threads", threadCount))
+                        .single().get("routeCount").asLong();
+                report("dbis.ARSCBatch on " + threadCount + " thread(s)", routeCount, System.currentTimeMillis() - start);
+            }
+        }
+        embeddedDatabaseServer.close();
+        System.out.println("Completed");
+    }
+
+    private static void report(String run, long routeCount, long milliseconds) {
+        System.out.println(run + ": " + routeCount + " routes, " + milliseconds + " ms, "
+                + String.format("%.1f", PAIR_COUNT * 1000.0 / milliseconds) + " pairs/s");
+    }
+}
@@ -0,0 +1,76 @@
+package project;
+
+import org.neo4j.driver.v1.*;
+import org.neo4j.harness.ServerControls;
+import org.neo4j.harness.TestServerBuilders;
+
+import java.util.*;
+
+/**
+ * Time of BRSC between random nodes of a SIZE x SIZE grid whose neighbours are connected in both directions by edges
+ * of two random criteria. BRSC enumerates the cycle-free paths that are not pruned, so the paths get long and their
+ * costs and cycle checks dominate. Prints the number of routes and a checksum of the routes of every query, to compare
+ * runs. Run by hand like SampleTest.
+ */
+public class BRSCBenchmark {
+    private static final int SIZE = 8;
+    private static final int QUERY_COUNT = 10;
+
+    private static List<Map<String, Object>> gridEdges(Random random) {
+        List<Map<String, Object>> edges = new ArrayList<>();
+        for (int row = 0; row < SIZE; row++) {
+            for (int column = 0; column < SIZE; column++) {
+                int node = row * SIZE + column;
+                if (column + 1 < SIZE) {
+                    edges.add(edge(random, node, node + 1));
+                    edges.add(edge(random, node + 1, node));
+                }
+                if (row + 1 < SIZE) {
+                    edges.add(edge(random, node, node + SIZE));
+                    edges.add(edge(random, node + SIZE, node));
+                }
+            }
+        }
+        return edges;
+    }
+
+    private static Map<String, Object> edge(Random random, int startNode, int endNode) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("start", startNode);
+        properties.put("end", endNode);
+        properties.put("length", 1 + random.nextInt(20));
+        properties.put("cost", 1 + random.nextInt(20));
+        return properties;
+    }
+
+    public static void main(String[] args) {
+        final Config driverConfig = Config.build().withoutEncryption().toConfig();
+        ServerControls embeddedDatabaseServer = TestServerBuilders
+                .newInProcessBuilder()
+                .withProcedure(MultiPreferencePathPlannerBRSC.class)
+                .newServer();
+
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            Random random = new Random(42);
+            session.run("UNWIND range(0, $nodeCount - 1) AS name CREATE (:Node{name: name})", Values.parameters("nodeCount", SIZE * SIZE));
+            session.run("UNWIND $edges AS edge MATCH (start:Node{name: edge.start}), (end:Node{name: edge.end}) " +
+                    "CREATE (start)-[:STREET{length: edge.length, cost: edge.cost}]->(end)",
+                    Values.parameters("edges", gridEdges(random)));
+            String query = "MATCH (startNode:Node{name: $start}), (destinationNode:Node{name: $destination}) " +
+                    "CALL dbis.BRSC(startNode, destinationNode, ['length', 'cost'], {engine: 'snapshot'}) " +
+                    "YIELD route RETURN route";
+
+            Random queries = new Random(7);
+            long start = System.currentTimeMillis();
+            for (int queryIndex = 0; queryIndex < QUERY_COUNT; queryIndex++) {
+                Value parameters = Values.parameters("start", queries.nextInt(SIZE * SIZE), "destination", queries.nextInt(SIZE * SIZE));
+                List<String> routes = session.run(query, parameters).list(record -> record.get("route").asString());
+                Collections.sort(routes);
+                System.out.println("Query " + queryIndex + ": " + routes.size() + " routes, checksum " + routes.hashCode());
+            }
+            System.out.println(QUERY_COUNT + " queries: " + (System.currentTimeMillis() - start) + " ms");
+        }
+        embeddedDatabaseServer.close();
+        System.out.println("Completed");
+    }
+}
@@ -0,0 +1,217 @@
+package project.CacheManagers;
+
+import org.eclipse.collections.api.tuple.primitive.LongIntPair;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays random push/peek traces on the cache managers and on the former linear scan implementations, which are
+ * kept below as reference, and compares the evicted elements.
+ */
+public class CacheManagerEvictionOrderTest {
+    private static final int ELEMENT_COUNT = 64;
+    private static final int OPERATION_COUNT = 20000;
+
+    @Test
+    public void lruEvictsInTheSameOrder() {
+        assertSameEvictionOrder(LRUCacheManager::new, LinearScanLRUCacheManager::new);
+    }
+
+    @Test
+    public void mruEvictsInTheSameOrder() {
+        assertSameEvictionOrder(MRUCacheManager::new, LinearScanMRUCacheManager::new);
+    }
+
+    @Test
+    public void fifoEvictsInTheSameOrder() {
+        assertSameEvictionOrder(FIFOCacheManager::new, LinearScanFIFOCacheManager::new);
+    }
+
+    @Test
+    public void lfudaEvictsInTheSameOrder() {
+        assertSameEvictionOrder(LFUDACacheManager::new, LinearScanLFUDACacheManager::new);
+    }
+
+    /**
+     * The linear scan broke ties between equal frequencies by hash map iteration order, so only the frequency of the
+     * evicted element is compared, and the reference evicts the same element.
+     */
+    @Test
+    public void lfuEvictsALeastFrequentlyUsedElement() {
+        for (long seed = 0; seed < 10; seed++) {
+            Random random = new Random(seed);
+            LFUCacheManager cacheManager = new LFUCacheManager();
+            Map<Long, Integer> frequencies = new HashMap<>();
+            for (int operation = 0; operation < OPERATION_COUNT; operation++) {
+                if (random.nextInt(4) == 0) {
+                    Long evicted = cacheManager.peek();
+                    if (frequencies.isEmpty()) {
+                        assertThat(evicted).isNull();
+                    } else {
+                        int leastFrequency = Collections.min(frequencies.values());
+                        assertThat(frequencies.get(evicted)).isEqualTo(leastFrequency);
+                        frequencies.remove(evicted);
+                    }
+                } else {
+                    long element = random.nextInt(ELEMENT_COUNT);
+                    cacheManager.push(element);
+                    frequencies.merge(element, 0, (frequency, zero) -> frequency + 1);
+                }
+            }
+        }
+    }
+
+    private static void assertSameEvictionOrder(Supplier<CacheManager> cacheManagers, Supplier<CacheManager> referenceCacheManagers) {
+        for (long seed = 0; seed < 10; seed++) {
+            Random random = new Random(seed);
+            CacheManager cacheManager = cacheManagers.get();
+            CacheManager referenceCacheManager = referenceCacheManagers.get();
+            for (int operation = 0; operation < OPERATION_COUNT; operation++) {
+                if (random.nextInt(4) == 0) {
+                    assertThat(cacheManager.peek()).isEqualTo(referenceCacheManager.peek());
+                } else {
+                    long element = random.nextInt(ELEMENT_COUNT);
+                    cacheManager.push(element);
+                    referenceCacheManager.push(element);
+                }
+            }
+            Long evicted;
+            do {
+                evicted = referenceCacheManager.peek();
+                assertThat(cacheManager.peek()).isEqualTo(evicted);
+            } while (evicted != null);
+        }
+    }
+
+    private static class LinearScanLRUCacheManager extends CacheManager {
+        @Override
+        public String name() {
+            return "LinearScanLRUCacheManager";
+        }
+
+        @Override
+        public void push(long element) {
+            incrementIndexByOne();
+            elements.put(element, index);
+        }
+
+        @Override
+        protected Long peek(LongPredicate isEvictable) {
+            long leastRecentlyUsedElement = -1;
+            int theLeastIndex = Integer.MAX_VALUE;
+            for (LongIntPair entry : elements.keyValuesView()) {
+                if (entry.getTwo() < theLeastIndex && isEvictable.test(entry.getOne())) {
+                    theLeastIndex = entry.getTwo();
+                    leastRecentlyUsedElement = entry.getOne();
+                }
+            }
+            if (leastRecentlyUsedElement < 0) {
+                return null;
+            }
+            elements.remove(leastRecentlyUsedElement);
+            return leastRecentlyUsedElement;
+        }
+    }
+
+    private static class LinearScanMRUCacheManager extends CacheManager {
+        @Override
+        public String name() {
+            return "LinearScanMRUCacheManager";
+        }
+
+        @Override
+        public void push(long element) {
+            incrementIndexByOne();
+            elements.put(element, index);
+        }
+
+        @Override
+        protected Long peek(LongPredicate isEvictable) {
+            long mostRecentlyUsedElement = -1;
+            int theBiggestIndex = Integer.MIN_VALUE;
+            for (LongIntPair entry : elements.keyValuesView()) {
+                if (entry.getTwo() > theBiggestIndex && isEvictable.test(entry.getOne())) {
+                    theBiggestIndex = entry.getTwo();
+                    mostRecentlyUsedElement = entry.getOne();
+                }
+            }
+            if (mostRecentlyUsedElement < 0) {
+                return null;
+            }
+            elements.remove(mostRecentlyUsedElement);
+            return mostRecentlyUsedElement;
+        }
+    }
+
+    private static class LinearScanFIFOCacheManager extends LinearScanLRUCacheManager {
+        @Override
+        public void push(long element) {
+            incrementIndexByOne();
+            if (!elements.containsKey(element)) {
+                elements.put(element, index);
+            }
+        }
+    }
+
+    private static class LinearScanLFUDACacheManager extends CacheManager {
+        private Map<Integer, LinkedList<Long>> cache = new HashMap<>();
+        private int age = 0;
+
+        @Override
+        public String name() {
+            return "LinearScanLFUDACacheManager";
+        }
+
+        @Override
+        public void push(long element) {
+            boolean isElementCached = false;
+            int priorityKey = 1 + age;
+            int deletedEntry = -1;
+            for (Map.Entry<Integer, LinkedList<Long>> entry : cache.entrySet()) {
+                for (Long node : entry.getValue()) {
+                    if (node == element) {
+                        isElementCached = true;
+                        priorityKey = 1 + entry.getKey();
+                        break;
+                    }
+                }
+                if (isElementCached) {
+                    entry.getValue().remove(element);
+                    if (entry.getValue().isEmpty()) {
+                        deletedEntry = entry.getKey();
+                    }
+                    break;
+                }
+            }
+            if (deletedEntry > -1) {
+                cache.remove(deletedEntry);
+            }
+            cache.computeIfAbsent(priorityKey, key -> new LinkedList<>()).add(element);
+        }
+
+        @Override
+        protected Long peek(LongPredicate isEvictable) {
+            for (int frequency : new TreeSet<>(cache.keySet())) {
+                LinkedList<Long> list = cache.get(frequency);
+                Iterator<Long> elements = list.descendingIterator();
+                while (elements.hasNext()) {
+                    long element = elements.next();
+                    if (isEvictable.test(element)) {
+                        elements.remove();
+                        if (list.isEmpty()) {
+                            cache.remove(frequency);
+                        }
+                        age = frequency;
+                        return element;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package project.CacheManagers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheManagerPinningTest {
+
+    @Test
+    public void everyCacheManagerSkipsPinnedElements() {
+        for (CacheManagerType cacheManagerType : CacheManagerType.values()) {
+            CacheManager cacheManager = cacheManagerType.create();
+            for (long element = 0; element < 10; element++) {
+                cacheManager.push(element);
+            }
+            cacheManager.pin(3);
+            cacheManager.pin(7);
+            cacheManager.pin(7);
+
+            List<Long> evicted = new ArrayList<>();
+            Long element;
+            while ((element = cacheManager.peekUnpinned()) != null) {
+                evicted.add(element);
+            }
+            assertThat(evicted).as(cacheManagerType.name()).hasSize(8).doesNotContain(3L, 7L);
+
+            cacheManager.unpin(3);
+            cacheManager.unpin(7);
+            assertThat(cacheManager.peekUnpinned()).as(cacheManagerType.name()).isEqualTo(3L);
+            assertThat(cacheManager.peekUnpinned()).as(cacheManagerType.name()).isNull();
+            cacheManager.unpin(7);
+            assertThat(cacheManager.peekUnpinned()).as(cacheManagerType.name()).isEqualTo(7L);
+        }
+    }
+
+    @Test
+    public void pinsOnlyHoldBackThePinnedElements() {
+        long[] pinnedElements = {2, 9, 15};
+        for (CacheManagerType cacheManagerType : CacheManagerType.values()) {
+            CacheManager referenceCacheManager = cacheManagerType.create();
+            CacheManager cacheManager = cacheManagerType.create();
+            pushElements(referenceCacheManager);
+            pushElements(cacheManager);
+            List<Long> referenceEvicted = new ArrayList<>();
+            Long element;
+            while ((element = referenceCacheManager.peek()) != null) {
+                referenceEvicted.add(element);
+            }
+
+            for (long pinnedElement : pinnedElements) {
+                cacheManager.pin(pinnedElement);
+            }
+            List<Long> evicted = new ArrayList<>();
+            for (int evictionCount = 0; evictionCount < 10; evictionCount++) {
+                evicted.add(cacheManager.peekUnpinned());
+            }
+            for (long pinnedElement : pinnedElements) {
+                cacheManager.unpin(pinnedElement);
+            }
+            while ((element = cacheManager.peekUnpinned()) != null) {
+                evicted.add(element);
+            }
+
+            // the unpinned elements are evicted first in the reference order, the remaining ones follow in that order
+            List<Long> expected = new ArrayList<>();
+            for (Long referenceElement : referenceEvicted) {
+                if (expected.size() < 10 && !contains(pinnedElements, referenceElement)) {
+                    expected.add(referenceElement);
+                }
+            }
+            for (Long referenceElement : referenceEvicted) {
+                if (!expected.contains(referenceElement)) {
+                    expected.add(referenceElement);
+                }
+            }
+            assertThat(evicted).as(cacheManagerType.name()).containsExactlyElementsOf(expected);
+        }
+    }
+
+    // elements are pushed one to five times, interleaved
+    private static void pushElements(CacheManager cacheManager) {
+        for (int round = 0; round < 5; round++) {
+            for (long element = 0; element < 20; element++) {
+                if (element * 7 % 5 >= round) {
+                    cacheManager.push(element);
+                }
+            }
+        }
+    }
+
+    private static boolean contains(long[] elements, long element) {
+        for (long candidate : elements) {
+            if (candidate == element) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
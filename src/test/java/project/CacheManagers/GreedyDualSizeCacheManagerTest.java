@@ -0,0 +1,54 @@
+package project.CacheManagers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GreedyDualSizeCacheManagerTest {
+
+    @Test
+    public void evictsTheLargestLocalSkylineOfEqualFrequencyFirst() {
+        CacheManager cacheManager = CacheManagerType.GDSF.create();
+        cacheManager.push(1);
+        cacheManager.updateLabelCount(1, 1);
+        cacheManager.push(2);
+        cacheManager.updateLabelCount(2, 300);
+        cacheManager.push(3);
+        cacheManager.updateLabelCount(3, 20);
+
+        assertThat(cacheManager.peek()).isEqualTo(2L);
+        assertThat(cacheManager.peek()).isEqualTo(3L);
+        assertThat(cacheManager.peek()).isEqualTo(1L);
+        assertThat(cacheManager.peek()).isNull();
+    }
+
+    @Test
+    public void keepsFrequentlyUsedNodes() {
+        CacheManager cacheManager = CacheManagerType.GDSF.create();
+        for (int access = 0; access < 10; access++) {
+            cacheManager.push(1);
+        }
+        cacheManager.updateLabelCount(1, 10);
+        cacheManager.push(2);
+        cacheManager.updateLabelCount(2, 2);
+
+        assertThat(cacheManager.peek()).isEqualTo(2L);
+        assertThat(cacheManager.peek()).isEqualTo(1L);
+    }
+
+    @Test
+    public void weighsTheMeasuredSpillCost() {
+        CacheManager cacheManager = CacheManagerType.GDSF.create();
+        // a spill costs 1000ns plus 10ns per label, so small local skylines are expensive per label
+        cacheManager.recordSpillCost(1, 1010);
+        cacheManager.recordSpillCost(100, 2000);
+        cacheManager.recordSpillCost(50, 1500);
+        cacheManager.push(1);
+        cacheManager.updateLabelCount(1, 5);
+        cacheManager.push(2);
+        cacheManager.push(2);
+        cacheManager.updateLabelCount(2, 400);
+
+        assertThat(cacheManager.peek()).isEqualTo(2L);
+    }
+}
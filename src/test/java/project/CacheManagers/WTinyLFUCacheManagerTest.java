@@ -0,0 +1,51 @@
+package project.CacheManagers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WTinyLFUCacheManagerTest {
+
+    @Test
+    public void keepsTheHotFrontierDuringAScan() {
+        int hotNodeEvictionCount = hotNodeEvictionCount(CacheManagerType.WTINYLFU.create());
+        assertThat(hotNodeEvictionCount).isLessThan(hotNodeEvictionCount(CacheManagerType.LRU.create()));
+        assertThat(hotNodeEvictionCount).isLessThan(hotNodeEvictionCount(CacheManagerType.LFUDA.create()));
+    }
+
+    @Test
+    public void evictsEveryCachedNodeOnce() {
+        CacheManager cacheManager = CacheManagerType.WTINYLFU.create();
+        for (long node = 0; node < 200; node++) {
+            cacheManager.push(node % 50);
+            cacheManager.push(node);
+        }
+        Set<Long> evicted = new HashSet<>();
+        Long node;
+        while ((node = cacheManager.peek()) != null) {
+            assertThat(evicted.add(node)).isTrue();
+        }
+        assertThat(evicted).hasSize(200);
+    }
+
+    private static int hotNodeEvictionCount(CacheManager cacheManager) {
+        for (int access = 0; access < 5; access++) {
+            for (long hotNode = 0; hotNode < 10; hotNode++) {
+                cacheManager.push(hotNode);
+            }
+        }
+        // nodes touched once while expanding, each followed by a spill, while the frontier is revisited
+        int hotNodeEvictionCount = 0;
+        for (long scannedNode = 100; scannedNode < 1100; scannedNode++) {
+            cacheManager.push(scannedNode);
+            cacheManager.push(scannedNode % 10);
+            if (cacheManager.peek() < 10) {
+                hotNodeEvictionCount++;
+            }
+        }
+        return hotNodeEvictionCount;
+    }
+}
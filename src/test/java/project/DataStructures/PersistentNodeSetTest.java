@@ -0,0 +1,50 @@
+package project.DataStructures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Extends random paths of node sets and compares every set of a path with a hash set of its nodes, including the sets
+ * the extensions were derived from.
+ */
+public class PersistentNodeSetTest {
+
+    @Test
+    public void keepsTheNodesOfEveryVersion() {
+        Random random = new Random(42);
+        for (int bound : new int[]{64, 5000, Integer.MAX_VALUE}) {
+            List<PersistentNodeSet> versions = new ArrayList<>();
+            List<Set<Integer>> expectedVersions = new ArrayList<>();
+            versions.add(PersistentNodeSet.EMPTY);
+            expectedVersions.add(new HashSet<>());
+            for (int operation = 0; operation < 2000; operation++) {
+                // extend a random earlier version, as the sub-routes of a path tree do
+                int version = random.nextInt(versions.size());
+                int nodeId = random.nextInt(bound);
+                Set<Integer> expected = new HashSet<>(expectedVersions.get(version));
+                expected.add(nodeId);
+                versions.add(versions.get(version).with(nodeId));
+                expectedVersions.add(expected);
+            }
+            for (int version = 0; version < versions.size(); version++) {
+                PersistentNodeSet nodeSet = versions.get(version);
+                Set<Integer> expected = expectedVersions.get(version);
+                assertThat(nodeSet.size()).isEqualTo(expected.size());
+                for (int nodeId : expected) {
+                    assertThat(nodeSet.contains(nodeId)).isTrue();
+                }
+                for (int probe = 0; probe < 100; probe++) {
+                    int nodeId = random.nextInt(bound);
+                    assertThat(nodeSet.contains(nodeId)).isEqualTo(expected.contains(nodeId));
+                }
+            }
+        }
+    }
+}
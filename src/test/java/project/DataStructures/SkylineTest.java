@@ -0,0 +1,82 @@
+package project.DataStructures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserts and removes random vectors in skylines of three to five criteria and in lists pruned by linear scans, and
+ * compares the skylines and the dominance tests.
+ */
+public class SkylineTest {
+
+    private static boolean dominates(double[] lhs, double[] rhs, boolean strictDominance) {
+        boolean isSmaller = strictDominance;
+        for (int criterion = 0; criterion < lhs.length; criterion++) {
+            if (lhs[criterion] > rhs[criterion] || strictDominance && lhs[criterion] == rhs[criterion]) {
+                return false;
+            }
+            isSmaller |= lhs[criterion] < rhs[criterion];
+        }
+        return isSmaller;
+    }
+
+    private static boolean isNotLarger(double[] lhs, double[] rhs) {
+        for (int criterion = 0; criterion < lhs.length; criterion++) {
+            if (lhs[criterion] > rhs[criterion]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void assertSameSkyline(int criteriaCount, boolean strictDominance) {
+        for (long seed = 0; seed < 10; seed++) {
+            Random random = new Random(seed);
+            Skyline<double[]> skyline = new Skyline<>(criteriaCount, vector -> vector, strictDominance);
+            List<double[]> vectors = new ArrayList<>();
+            for (int operation = 0; operation < 1000; operation++) {
+                double[] vector = new double[criteriaCount];
+                for (int criterion = 0; criterion < criteriaCount; criterion++) {
+                    vector[criterion] = random.nextInt(10);
+                }
+                boolean isDominated = vectors.stream().anyMatch(element -> dominates(element, vector, strictDominance));
+                assertThat(skyline.isDominated(vector)).isEqualTo(isDominated);
+                assertThat(skyline.isCovered(vector)).isEqualTo(vectors.stream().anyMatch(element -> isNotLarger(element, vector)));
+                if (!isDominated) {
+                    vectors.removeIf(element -> dominates(vector, element, strictDominance));
+                    vectors.add(vector);
+                }
+                assertThat(skyline.add(vector)).isEqualTo(!isDominated);
+                if (random.nextInt(8) == 0 && !vectors.isEmpty()) {
+                    double[] removed = vectors.remove(random.nextInt(vectors.size()));
+                    assertThat(skyline.remove(removed)).isTrue();
+                    assertThat(skyline.contains(removed)).isFalse();
+                }
+                assertThat(skyline).hasSameSizeAs(vectors);
+            }
+            assertThat(skyline).containsExactlyInAnyOrderElementsOf(vectors);
+            if (!strictDominance) {
+                assertThat(new Skyline<>(criteriaCount, vector -> vector, vectors)).containsExactlyInAnyOrderElementsOf(skyline);
+            }
+        }
+    }
+
+    @Test
+    public void keepsTheParetoSkyline() {
+        for (int criteriaCount = 3; criteriaCount <= 5; criteriaCount++) {
+            assertSameSkyline(criteriaCount, false);
+        }
+    }
+
+    @Test
+    public void keepsTheStrictSkyline() {
+        for (int criteriaCount = 3; criteriaCount <= 5; criteriaCount++) {
+            assertSameSkyline(criteriaCount, true);
+        }
+    }
+}
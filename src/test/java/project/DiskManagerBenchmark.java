@@ -0,0 +1,56 @@
+package project;
+
+import project.CacheManagers.LRUCacheManager;
+
+import java.io.File;
+
+/**
+ * Measures how fast the disk manager spills local skylines and loads them again, like SampleTest it is run by hand.
+ */
+public class DiskManagerBenchmark {
+    private static final int NODE_COUNT = 20000;
+    private static final int LABELS_PER_NODE = 10;
+    private static final long MEMORY_BUDGET_IN_BYTES = 128 * 1024;
+    private static final int CRITERIA_COUNT = 2;
+    private static final int RESOURCE_COUNT = 1;
+    // synchronous spilling and write-behind through a buffer of evicted nodes
+    private static final int[] SPILL_BUFFER_SIZES = {0, 64};
+
+    public static void main(String[] args) throws Exception {
+        for (int spillBufferSize : SPILL_BUFFER_SIZES) {
+            for (int run = 0; run < 3; run++) {
+                run(spillBufferSize, run);
+            }
+        }
+    }
+
+    private static void run(int spillBufferSize, int run) throws Exception {
+        DiskManager diskManager = new DiskManager(MEMORY_BUDGET_IN_BYTES, new File(System.getProperty("java.io.tmpdir")), spillBufferSize);
+        LocalRouteSkylineManager localRouteSkylineManager = new LocalRouteSkylineManager(diskManager, new LRUCacheManager());
+
+        long spillStartTime = System.nanoTime();
+        for (long nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            for (int labelIndex = 0; labelIndex < LABELS_PER_NODE; labelIndex++) {
+                // a local skyline of labels that do not dominate each other
+                Label label = new Label(nodeId, CRITERIA_COUNT, RESOURCE_COUNT);
+                label.getCosts()[0] = labelIndex;
+                label.getCosts()[1] = LABELS_PER_NODE - labelIndex;
+                localRouteSkylineManager.add(nodeId, label);
+            }
+        }
+        long spillTime = System.nanoTime() - spillStartTime;
+
+        long reloadStartTime = System.nanoTime();
+        long reloadedLabelCount = 0;
+        for (long nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            reloadedLabelCount += localRouteSkylineManager.get(nodeId).size();
+        }
+        long reloadTime = System.nanoTime() - reloadStartTime;
+        diskManager.deleteAllFiles();
+
+        long labelCount = (long) NODE_COUNT * LABELS_PER_NODE;
+        System.out.println("Spill buffer " + spillBufferSize + ", run " + run + ": spilled " + labelCount + " labels in " + spillTime / 1000000 + " ms ("
+                + (long) (labelCount / (spillTime / 1e9)) + " labels/s), reloaded " + reloadedLabelCount + " labels in "
+                + reloadTime / 1000000 + " ms (" + (long) (reloadedLabelCount / (reloadTime / 1e9)) + " labels/s), " + diskManager.getPendingReadCount() + " reloads from the buffer");
+    }
+}
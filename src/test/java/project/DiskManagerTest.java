@@ -0,0 +1,79 @@
+package project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import project.CacheManagers.LRUCacheManager;
+
+import java.io.File;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DiskManagerTest {
+    // about 40 nodes of 3 labels
+    private static final long MEMORY_BUDGET_IN_BYTES = 16 * 1024;
+
+    @Test
+    public void reloadsSpilledLocalSkylines(@TempDir File directory) throws Exception {
+        assertReloadsEveryLabel(new DiskManager(MEMORY_BUDGET_IN_BYTES, directory), directory);
+    }
+
+    @Test
+    public void reloadsLocalSkylinesSpilledBehind(@TempDir File directory) throws Exception {
+        assertReloadsEveryLabel(new DiskManager(MEMORY_BUDGET_IN_BYTES, directory, 8), directory);
+    }
+
+    @Test
+    public void reloadsPrefetchedLocalSkylines(@TempDir File directory) throws Exception {
+        DiskManager diskManager = new DiskManager(MEMORY_BUDGET_IN_BYTES, directory, 0, 2);
+        LocalRouteSkylineManager localRouteSkylineManager = addLocalSkylines(diskManager);
+        for (long nodeId = 0; nodeId < 10; nodeId++) {
+            diskManager.prefetch(nodeId);
+        }
+        long timeout = System.currentTimeMillis() + 10000;
+        while (diskManager.getPrefetchedNodeCount() < 10 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        // the prefetched local skylines count towards the memory budget until they are reloaded
+        long prefetchedBytes = diskManager.getPrefetchedBytes();
+        assertThat(prefetchedBytes).isEqualTo(10 * (MemoryGovernor.nodeFootprint() + 6 * new Label(0, 2, 1).getFootprintInBytes()));
+        diskManager.saveToDisc(localRouteSkylineManager);
+        assertThat(localRouteSkylineManager.getFootprintInBytes() + prefetchedBytes).isLessThanOrEqualTo(MEMORY_BUDGET_IN_BYTES);
+        assertReloadsEveryLabel(localRouteSkylineManager, diskManager, directory);
+        assertThat(diskManager.getPrefetchedBytes()).isZero();
+        assertThat(localRouteSkylineManager.cacheManager().getPrefetchHitCount()).isEqualTo(10);
+        // every other reload read the spill file
+        assertThat(localRouteSkylineManager.cacheManager().getPrefetchMissCount())
+                .isEqualTo(localRouteSkylineManager.cacheManager().getMissCount() - 10);
+    }
+
+    private static void assertReloadsEveryLabel(DiskManager diskManager, File directory) throws Exception {
+        assertReloadsEveryLabel(addLocalSkylines(diskManager), diskManager, directory);
+    }
+
+    private static LocalRouteSkylineManager addLocalSkylines(DiskManager diskManager) throws Exception {
+        LocalRouteSkylineManager localRouteSkylineManager = new LocalRouteSkylineManager(diskManager, new LRUCacheManager());
+        for (int round = 0; round < 2; round++) {
+            for (long nodeId = 0; nodeId < 2000; nodeId++) {
+                for (int labelIndex = 0; labelIndex < 3; labelIndex++) {
+                    Label label = new Label(nodeId, 2, 1);
+                    label.getCosts()[0] = round * 3 + labelIndex;
+                    label.getCosts()[1] = 10 - round * 3 - labelIndex;
+                    localRouteSkylineManager.add(nodeId, label);
+                }
+            }
+        }
+        return localRouteSkylineManager;
+    }
+
+    private static void assertReloadsEveryLabel(LocalRouteSkylineManager localRouteSkylineManager, DiskManager diskManager,
+                                                File directory) throws Exception {
+        for (long nodeId = 0; nodeId < 2000; nodeId++) {
+            List<Label> labels = localRouteSkylineManager.get(nodeId);
+            assertThat(labels).hasSize(6);
+            assertThat(labels).extracting(Label::getLastNodeId).containsOnly(nodeId);
+        }
+        diskManager.deleteAllFiles();
+        assertThat(directory.listFiles()).isEmpty();
+    }
+}
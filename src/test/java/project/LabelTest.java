@@ -0,0 +1,80 @@
+package project;
+
+import org.junit.jupiter.api.Test;
+import project.DataStructures.Skyline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dominance tests of labels at the same node, on a plain list as well as on the local skylines ARSC keeps.
+ */
+public class LabelTest {
+
+    private static Label label(double[] costs, double[] resources) {
+        return new Label(7, costs, resources);
+    }
+
+    // the route lists isDominatedInRouteList takes: a plain list, a staircase and a sorted skyline
+    private static List<List<Label>> routeLists(Label subRoute) {
+        List<Label> list = new ArrayList<>(Collections.singletonList(subRoute));
+        LocalSkyline localSkyline = new LocalSkyline();
+        localSkyline.add(subRoute);
+        Skyline<Label> skyline = new Skyline<>(subRoute.getCosts().length, Label::getCosts);
+        skyline.add(subRoute);
+        return Arrays.asList(list, localSkyline, skyline);
+    }
+
+    @Test
+    public void equalVectorsDoNotDominateEachOther() {
+        Label label = label(new double[]{3, 5}, new double[]{1});
+        Label equalLabel = label(new double[]{3, 5}, new double[]{1});
+
+        assertThat(label.isDominatedBy(equalLabel)).isFalse();
+        assertThat(equalLabel.isDominatedBy(label)).isFalse();
+        // an equal vector is covered though, as Pruning Criterion I asks for
+        assertThat(label.doesDominate(equalLabel.getCosts())).isTrue();
+        for (List<Label> subRoutes : routeLists(equalLabel)) {
+            assertThat(label.isDominatedInRouteList(subRoutes)).as("%s", subRoutes.getClass().getSimpleName()).isFalse();
+        }
+    }
+
+    @Test
+    public void aTieOnOneCriterionDominatesByTheOther() {
+        Label label = label(new double[]{3, 5}, new double[0]);
+        Label betterLabel = label(new double[]{3, 4}, new double[0]);
+
+        assertThat(label.isDominatedBy(betterLabel)).isTrue();
+        assertThat(betterLabel.isDominatedBy(label)).isFalse();
+        assertThat(betterLabel.doesDominate(label.getCosts())).isTrue();
+        assertThat(label.doesDominate(betterLabel.getCosts())).isFalse();
+        for (List<Label> subRoutes : routeLists(betterLabel)) {
+            assertThat(label.isDominatedInRouteList(subRoutes)).as("%s", subRoutes.getClass().getSimpleName()).isTrue();
+        }
+        for (List<Label> subRoutes : routeLists(label)) {
+            assertThat(betterLabel.isDominatedInRouteList(subRoutes)).as("%s", subRoutes.getClass().getSimpleName()).isFalse();
+        }
+    }
+
+    @Test
+    public void resourcesDoNotTakePartInTheDominance() {
+        Label label = label(new double[]{3, 5}, new double[]{1, 2});
+        Label equalCostsLabel = label(new double[]{3, 5}, new double[0]);
+        Label betterLabel = label(new double[]{2, 5}, new double[]{9});
+
+        assertThat(label.isDominatedBy(equalCostsLabel)).isFalse();
+        assertThat(equalCostsLabel.isDominatedBy(label)).isFalse();
+        assertThat(label.isDominatedBy(betterLabel)).isTrue();
+        assertThat(betterLabel.isDominatedBy(label)).isFalse();
+        for (List<Label> subRoutes : routeLists(equalCostsLabel)) {
+            assertThat(label.isDominatedInRouteList(subRoutes)).as("%s", subRoutes.getClass().getSimpleName()).isFalse();
+        }
+        for (List<Label> subRoutes : routeLists(betterLabel)) {
+            assertThat(label.isDominatedInRouteList(subRoutes)).as("%s", subRoutes.getClass().getSimpleName()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package project;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import project.CacheManagers.LRUCacheManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of inserting a label into the local skyline of a node while the local skylines of nodeCount nodes are in memory.
+ * The bookkeeping of an insert must not depend on nodeCount. Run by hand like SampleTest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalRouteSkylineManagerBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int nodeCount;
+
+    private LocalRouteSkylineManager localRouteSkylineManager;
+    private long nodeId = 0;
+
+    @Setup(Level.Trial)
+    public void addLocalSkylines() throws Exception {
+        // a budget that is never exceeded, so that only the bookkeeping is measured
+        localRouteSkylineManager = new LocalRouteSkylineManager(new DiskManager(Long.MAX_VALUE / 2), new LRUCacheManager());
+        for (long nodeId = 0; nodeId < nodeCount; nodeId++) {
+            localRouteSkylineManager.add(nodeId, new Label(nodeId, 2, 1));
+        }
+    }
+
+    @Benchmark
+    public boolean addLabel() throws Exception {
+        nodeId = (nodeId + 1) % nodeCount;
+        Label label = new Label(nodeId, 2, 1);
+        label.getCosts()[0] = 1;
+        // removed again to keep the local skylines at one label
+        boolean added = localRouteSkylineManager.add(nodeId, label);
+        localRouteSkylineManager.removeSubRoute(nodeId, label);
+        return added;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LocalRouteSkylineManagerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package project;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of a dominance test followed by inserting and removing a label that is not dominated, on a two-criteria local
+ * skyline of skylineSize labels kept as a list pruned by linear scans and as a staircase. Run by hand like SampleTest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalSkylineBenchmark {
+    @Param({"10", "100", "1000"})
+    public int skylineSize;
+
+    private List<Label> subRoutes;
+    private LocalSkyline localSkyline;
+    private Label[] labels;
+    private int labelIndex = 0;
+
+    @Setup(Level.Trial)
+    public void addLabels() {
+        subRoutes = new LinkedList<>();
+        localSkyline = new LocalSkyline();
+        for (int index = 0; index < skylineSize; index++) {
+            Label label = new Label(0, 2, 0);
+            label.getCosts()[0] = index;
+            label.getCosts()[1] = skylineSize - index;
+            subRoutes.add(label);
+            localSkyline.add(label);
+        }
+        // labels between two steps of the staircase, which dominate none of them
+        labels = new Label[skylineSize];
+        for (int index = 0; index < skylineSize; index++) {
+            labels[index] = new Label(0, 2, 0);
+            labels[index].getCosts()[0] = index + 0.5;
+            labels[index].getCosts()[1] = skylineSize - index - 0.5;
+        }
+    }
+
+    @Benchmark
+    public boolean listScan() {
+        Label label = nextLabel();
+        if (label.isDominatedInRouteList(subRoutes) || subRoutes.contains(label)) {
+            return false;
+        }
+        subRoutes.add(label);
+        subRoutes.removeIf(subRoute -> subRoute.isDominatedBy(label));
+        return subRoutes.remove(label);
+    }
+
+    @Benchmark
+    public boolean staircase() {
+        Label label = nextLabel();
+        if (label.isDominatedInRouteList(localSkyline)) {
+            return false;
+        }
+        localSkyline.add(label);
+        return localSkyline.remove(label);
+    }
+
+    private Label nextLabel() {
+        labelIndex = (labelIndex + 1) % skylineSize;
+        return labels[labelIndex];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LocalSkylineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
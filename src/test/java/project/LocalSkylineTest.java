@@ -0,0 +1,53 @@
+package project;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserts random labels into the two-criteria staircase and into a local skyline list pruned by linear scans as in
+ * ARSC, and compares the skylines and the dominance tests.
+ */
+public class LocalSkylineTest {
+
+    private static Label label(Random random) {
+        Label label = new Label(7, 2, 0);
+        label.getCosts()[0] = random.nextInt(40);
+        label.getCosts()[1] = random.nextInt(40);
+        return label;
+    }
+
+    @Test
+    public void keepsTheSameSkylineAsTheListScan() {
+        for (long seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            LocalSkyline localSkyline = new LocalSkyline();
+            List<Label> subRoutes = new LinkedList<>();
+            for (int operation = 0; operation < 500; operation++) {
+                Label label = label(random);
+                boolean isDominated = label.isDominatedInRouteList(subRoutes);
+                assertThat(label.isDominatedInRouteList(localSkyline)).isEqualTo(isDominated);
+                boolean isAdded = !isDominated && !subRoutes.contains(label);
+                if (isAdded) {
+                    subRoutes.removeIf(subRoute -> subRoute.isDominatedBy(label));
+                    subRoutes.add(label);
+                }
+                assertThat(localSkyline.add(label)).isEqualTo(isAdded);
+                assertThat(localSkyline).containsExactlyInAnyOrderElementsOf(subRoutes);
+                if (random.nextInt(10) == 0) {
+                    Label removed = subRoutes.remove(random.nextInt(subRoutes.size()));
+                    assertThat(localSkyline.remove(removed)).isTrue();
+                }
+            }
+            for (int index = 1; index < localSkyline.size(); index++) {
+                assertThat(localSkyline.get(index).getCosts()[0]).isGreaterThan(localSkyline.get(index - 1).getCosts()[0]);
+                assertThat(localSkyline.get(index).getCosts()[1]).isLessThan(localSkyline.get(index - 1).getCosts()[1]);
+            }
+            assertThat(new LocalSkyline(subRoutes)).containsExactlyElementsOf(localSkyline);
+        }
+    }
+}
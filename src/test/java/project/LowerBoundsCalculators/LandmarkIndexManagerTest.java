@@ -0,0 +1,105 @@
+package project.LowerBoundsCalculators;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LandmarkIndexManagerTest {
+    private static final List<String> PROPERTY_KEYS = Collections.singletonList("length");
+
+    private static LandmarkIndex build(GraphDatabaseService db) throws IOException {
+        try (Transaction tx = db.beginTx()) {
+            LandmarkIndex index = LandmarkIndexManager.build(db, null, PROPERTY_KEYS, 2);
+            tx.success();
+            return index;
+        }
+    }
+
+    private static LandmarkIndex find(GraphDatabaseService db) {
+        try (Transaction tx = db.beginTx()) {
+            LandmarkIndex index = LandmarkIndexManager.find(db, null, PROPERTY_KEYS);
+            tx.success();
+            return index;
+        }
+    }
+
+    @Test
+    public void changedRelationshipsMarkTheIndexStaleAcrossRestarts(@TempDir File storeDirectory) throws IOException {
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        long relationshipId;
+        try {
+            try (Transaction tx = db.beginTx()) {
+                Node a = db.createNode(), b = db.createNode(), c = db.createNode();
+                a.createRelationshipTo(b, RelationshipType.withName("STREET")).setProperty("length", 1d);
+                Relationship relationship = b.createRelationshipTo(c, RelationshipType.withName("STREET"));
+                relationship.setProperty("length", 2d);
+                relationshipId = relationship.getId();
+                tx.success();
+            }
+            assertThat(build(db).isStale()).isFalse();
+            try (Transaction tx = db.beginTx()) {
+                db.getRelationshipById(relationshipId).setProperty("name", "unindexed");
+                tx.success();
+            }
+            assertThat(find(db).isStale()).isFalse();
+            try (Transaction tx = db.beginTx()) {
+                db.getRelationshipById(relationshipId).setProperty("length", 3d);
+                tx.success();
+            }
+            assertThat(find(db).isStale()).isTrue();
+            assertThat(build(db).isStale()).isFalse();
+        } finally {
+            db.shutdown();
+        }
+
+        // the index was valid at shutdown, a change made while it is not loaded makes it stale
+        db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        try {
+            assertThat(find(db).isStale()).isFalse();
+        } finally {
+            db.shutdown();
+        }
+        db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        try {
+            try (Transaction tx = db.beginTx()) {
+                db.getRelationshipById(relationshipId).setProperty("length", 4d);
+                tx.success();
+            }
+        } finally {
+            db.shutdown();
+        }
+        db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        try {
+            assertThat(find(db).isStale()).isTrue();
+        } finally {
+            db.shutdown();
+        }
+    }
+
+    @Test
+    public void unreadableIndexFilesAreReported(@TempDir File storeDirectory) throws IOException {
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        try {
+            File file = new File(((GraphDatabaseAPI) db).databaseLayout().databaseDirectory(), "landmarks-0.idx");
+            Files.write(file.toPath(), new byte[]{1, 2, 3});
+            assertThat(LandmarkIndexManager.indexes(db)).isEmpty();
+            assertThat(LandmarkIndexManager.loadErrors(db)).containsOnlyKeys(file);
+        } finally {
+            db.shutdown();
+        }
+    }
+}
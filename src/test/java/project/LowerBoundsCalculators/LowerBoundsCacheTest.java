@@ -0,0 +1,165 @@
+package project.LowerBoundsCalculators;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import project.Graphs.CoreApiGraph;
+import project.Graphs.Graph;
+import project.Graphs.GraphSnapshotManager;
+import project.LowerBoundsCalculators.LowerBoundsCache.TableType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LowerBoundsCacheTest {
+
+    private static LowerBoundsCache.Key putTable(GraphDatabaseService db) {
+        try (Transaction tx = db.beginTx()) {
+            Graph graph = new CoreApiGraph(db, Collections.singletonList("length"), null, null);
+            LowerBoundsCache.Key key = LowerBoundsCache.key(db, graph, null, TableType.DISTANCES_TO, 0, 0);
+            LowerBoundsCache.put(key, new double[]{0d}, LowerBoundsCache.generation(key));
+            tx.success();
+            return key;
+        }
+    }
+
+    @Test
+    public void databaseStartedAgainAtTheSameStoreDirectoryInvalidatesItsTables(@TempDir File storeDirectory) {
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        LowerBoundsCache.Key key = putTable(db);
+        assertThat(LowerBoundsCache.get(key)).isNotNull();
+        db.shutdown();
+        assertThat(LowerBoundsCache.get(key)).isNull();
+
+        db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        try {
+            key = putTable(db);
+            assertThat(LowerBoundsCache.get(key)).isNotNull();
+            try (Transaction tx = db.beginTx()) {
+                db.createNode().createRelationshipTo(db.createNode(), RelationshipType.withName("STREET")).setProperty("length", 1d);
+                tx.success();
+            }
+            assertThat(LowerBoundsCache.get(key)).isNull();
+            key = putTable(db);
+        } finally {
+            db.shutdown();
+        }
+        assertThat(LowerBoundsCache.get(key)).isNull();
+    }
+
+    @Test
+    public void buildingALandmarkIndexInvalidatesTheTablesOfTheReplacedSnapshot(@TempDir File storeDirectory) throws IOException {
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        try {
+            try (Transaction tx = db.beginTx()) {
+                db.createNode().createRelationshipTo(db.createNode(), RelationshipType.withName("STREET")).setProperty("length", 1d);
+                tx.success();
+            }
+            LowerBoundsCache.Key key = putTable(db);
+            assertThat(LowerBoundsCache.get(key)).isNotNull();
+            try (Transaction tx = db.beginTx()) {
+                LandmarkIndexManager.build(db, null, Collections.singletonList("length"), 1);
+                tx.success();
+            }
+            assertThat(LowerBoundsCache.get(key)).isNull();
+        } finally {
+            db.shutdown();
+        }
+    }
+
+    @Test
+    public void tablesFollowNodesCreatedWithoutRelationships(@TempDir File storeDirectory) {
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        try {
+            long destinationNodeId;
+            try (Transaction tx = db.beginTx()) {
+                Node a = db.createNode(), b = db.createNode(), c = db.createNode();
+                a.createRelationshipTo(b, RelationshipType.withName("STREET")).setProperty("length", 1d);
+                b.createRelationshipTo(c, RelationshipType.withName("STREET")).setProperty("length", 2d);
+                destinationNodeId = c.getId();
+                tx.success();
+            }
+            for (LowerBoundsMethod lowerBoundsMethod : new LowerBoundsMethod[]{LowerBoundsMethod.PARETOPREP, LowerBoundsMethod.MULTIDIJKSTRA}) {
+                try (Transaction tx = db.beginTx()) {
+                    Graph graph = new CoreApiGraph(db, Collections.singletonList("length"), null, null);
+                    assertThat(lowerBoundsMethod.open(db, graph, null, 0, destinationNodeId).lowerBound(0, 0)).isEqualTo(3d);
+                    tx.success();
+                }
+                long startNodeId;
+                try (Transaction tx = db.beginTx()) {
+                    db.createNode();
+                    startNodeId = db.createNode().getId();
+                    tx.success();
+                }
+                // the tables of the smaller graph must not be read for the new nodes
+                try (Transaction tx = db.beginTx()) {
+                    Graph graph = new CoreApiGraph(db, Collections.singletonList("length"), null, null);
+                    LowerBoundsCalculator lowerBoundsCalculator = lowerBoundsMethod.open(db, graph, null, startNodeId, destinationNodeId);
+                    assertThat(lowerBoundsCalculator.lowerBound((int) startNodeId, 0)).as("%s", lowerBoundsMethod).isEqualTo(Double.POSITIVE_INFINITY);
+                    assertThat(lowerBoundsCalculator.lowerBound(0, 0)).isEqualTo(3d);
+                    tx.success();
+                }
+            }
+        } finally {
+            db.shutdown();
+        }
+    }
+
+    @Test
+    public void snapshotsDoNotShareTables(@TempDir File storeDirectory) {
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        try {
+            try (Transaction tx = db.beginTx()) {
+                Relationship relationship = db.createNode().createRelationshipTo(db.createNode(), RelationshipType.withName("STREET"));
+                relationship.setProperty("length", 1d);
+                relationship.setProperty("cost", 1d);
+                tx.success();
+            }
+            try (Transaction tx = db.beginTx()) {
+                // the snapshots may number their nodes differently
+                Graph graph = GraphSnapshotManager.get(db, null, Collections.singletonList("length"), null);
+                Graph resourceGraph = GraphSnapshotManager.get(db, null, Collections.singletonList("length"), Collections.singletonList("cost"));
+                assertThat(LowerBoundsCache.key(db, graph, null, TableType.DISTANCES_TO, 0, 0))
+                        .isNotEqualTo(LowerBoundsCache.key(db, resourceGraph, null, TableType.DISTANCES_TO, 0, 0))
+                        .isEqualTo(LowerBoundsCache.key(db, graph, null, TableType.DISTANCES_TO, 0, 0));
+                tx.success();
+            }
+        } finally {
+            db.shutdown();
+        }
+    }
+
+    @Test
+    public void tablesOfARolledBackTransactionAreNotKept(@TempDir File storeDirectory) {
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        try {
+            long relationshipId;
+            try (Transaction tx = db.beginTx()) {
+                relationshipId = db.createNode().createRelationshipTo(db.createNode(), RelationshipType.withName("STREET")).getId();
+                db.getRelationshipById(relationshipId).setProperty("length", 1d);
+                tx.success();
+            }
+            try (Transaction tx = db.beginTx()) {
+                db.getRelationshipById(relationshipId).setProperty("length", 5d);
+                Graph graph = new CoreApiGraph(db, Collections.singletonList("length"), null, null);
+                assertThat(LowerBoundsMethod.PARETOPREP.open(db, graph, null, 0, 1).lowerBound(0, 0)).isEqualTo(5d);
+                tx.failure();
+            }
+            try (Transaction tx = db.beginTx()) {
+                Graph graph = new CoreApiGraph(db, Collections.singletonList("length"), null, null);
+                assertThat(LowerBoundsMethod.PARETOPREP.open(db, graph, null, 0, 1).lowerBound(0, 0)).isEqualTo(1d);
+                tx.success();
+            }
+        } finally {
+            db.shutdown();
+        }
+    }
+}
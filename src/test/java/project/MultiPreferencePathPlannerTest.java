@@ -7,6 +7,12 @@ import org.neo4j.driver.v1.*;
 import org.neo4j.harness.ServerControls;
 import org.neo4j.harness.TestServerBuilders;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -64,12 +70,17 @@ public class MultiPreferencePathPlannerTest {
                 .newInProcessBuilder()
                 .withProcedure(MultiPreferencePathPlannerBRSC.class)
                 .withProcedure(MultiPreferencePathPlannerARSC.class)
+                .withProcedure(GraphSnapshotProcedures.class)
+                .withProcedure(LandmarkIndexProcedures.class)
+                .withProcedure(MemoryGovernorProcedures.class)
+                .withProcedure(LowerBoundsCacheProcedures.class)
                 .newServer();
     }
 
     private void seed(Session session) {
         if (!isDataSeeded) {
             session.run(seedQuery);
+            session.run(seedQuery2);
             isDataSeeded = true;
         }
     }
@@ -100,4 +111,207 @@ public class MultiPreferencePathPlannerTest {
             assertThat(result.stream().count()).isGreaterThan(0);
         }
     }
+
+    @Test
+    public void findRouteSkylinesByBRSCOnGraphSnapshot() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            seed(session);
+            String query = "MATCH (startNode:Node{name:'s'}), (destinationNode:Node{name:'t'}) " +
+                    "CALL dbis.BRSC(startNode, destinationNode, ['length', 'cost'], {engine: $engine}) YIELD route RETURN route;";
+            List<String> coreRoutes = session.run(query, Values.parameters("engine", "core")).list(x -> x.get("route").asString());
+            List<String> snapshotRoutes = session.run(query, Values.parameters("engine", "snapshot")).list(x -> x.get("route").asString());
+            assertThat(snapshotRoutes).isNotEmpty().containsExactlyInAnyOrderElementsOf(coreRoutes);
+        }
+    }
+
+    @Test
+    public void findRouteSkylinesByARSCOnGraphSnapshot() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            seed(session);
+            String query = "MATCH (startNode:Node{name:'n0'}), (destinationNode:Node{name:'n5'}) " +
+                    "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {cost: 10.0}, ['HIGHWAY', 'STREET'], {engine: $engine}) " +
+                    "YIELD route RETURN route;";
+            long coreRouteCount = session.run(query, Values.parameters("engine", "core")).stream().count();
+            long snapshotRouteCount = session.run(query, Values.parameters("engine", "snapshot")).stream().count();
+            assertThat(snapshotRouteCount).isGreaterThan(0).isEqualTo(coreRouteCount);
+        }
+    }
+
+    @Test
+    public void rebuildAndInvalidateGraphSnapshot() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            seed(session);
+            Record status = session.run("CALL dbis.snapshot.rebuild(['STREET'], ['length', 'cost'])").single();
+            assertThat(status.get("nodeCount").asLong()).isGreaterThan(0);
+            assertThat(status.get("relationshipCount").asLong()).isGreaterThan(0);
+
+            Record invalidation = session.run("CALL dbis.snapshot.invalidate()").single();
+            assertThat(invalidation.get("invalidatedSnapshotCount").asLong()).isGreaterThan(0);
+        }
+    }
+
+    @Test
+    public void findRouteSkylinesWithLandmarkLowerBounds() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            seed(session);
+            Record index = session.run("CALL dbis.landmarks.build(null, ['length', 'cost'], 4)").single();
+            assertThat(index.get("landmarkCount").asLong()).isEqualTo(4);
+            assertThat(index.get("isStale").asBoolean()).isFalse();
+            assertThat(session.run("CALL dbis.landmarks.status()").list()).isNotEmpty();
+
+            String brscQuery = "MATCH (startNode:Node{name:'s'}), (destinationNode:Node{name:'t'}) " +
+                    "CALL dbis.BRSC(startNode, destinationNode, ['length', 'cost'], {lowerBounds: $lowerBounds}) YIELD route RETURN route;";
+            List<String> routes = session.run(brscQuery, Values.parameters("lowerBounds", "multidijkstra")).list(x -> x.get("route").asString());
+            List<String> landmarkRoutes = session.run(brscQuery, Values.parameters("lowerBounds", "landmarks")).list(x -> x.get("route").asString());
+            assertThat(landmarkRoutes).isNotEmpty().containsExactlyInAnyOrderElementsOf(routes);
+
+            long arscRouteCount = session.run("MATCH (startNode:Node{name:'n0'}), (destinationNode:Node{name:'n5'}) " +
+                    "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {cost: 10.0}, ['HIGHWAY', 'STREET'], {lowerBounds: 'landmarks'}) " +
+                    "YIELD route RETURN route;").stream().count();
+            assertThat(arscRouteCount).isGreaterThan(0);
+        }
+    }
+
+    @Test
+    public void findRouteSkylinesWithParetoPrepLowerBounds() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            seed(session);
+            String brscQuery = "MATCH (startNode:Node{name:'s'}), (destinationNode:Node{name:'t'}) " +
+                    "CALL dbis.BRSC(startNode, destinationNode, ['length', 'cost'], {lowerBounds: $lowerBounds}) YIELD route RETURN route;";
+            List<String> routes = session.run(brscQuery, Values.parameters("lowerBounds", "multidijkstra")).list(x -> x.get("route").asString());
+            List<String> paretoPrepRoutes = session.run(brscQuery, Values.parameters("lowerBounds", "paretoprep")).list(x -> x.get("route").asString());
+            assertThat(paretoPrepRoutes).isNotEmpty().containsExactlyInAnyOrderElementsOf(routes);
+        }
+    }
+
+    @Test
+    public void findRouteSkylinesWithinAMemoryBudget() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            seed(session);
+            String query = "MATCH (startNode:Node{name:'n0'}), (destinationNode:Node{name:'n5'}) " +
+                    "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {cost: 10.0}, ['HIGHWAY', 'STREET'], {memoryBudget: $memoryBudget}) " +
+                    "YIELD route RETURN route;";
+            List<String> routes = session.run(query, Values.parameters("memoryBudget", 1L << 30)).list(x -> x.get("route").asString());
+            // local skylines are spilled after every change
+            List<String> spilledRoutes = session.run(query, Values.parameters("memoryBudget", 1L)).list(x -> x.get("route").asString());
+            assertThat(spilledRoutes).isNotEmpty().containsExactlyInAnyOrderElementsOf(routes);
+
+            Record status = session.run("CALL dbis.memory.status()").single();
+            assertThat(status.get("globalBudgetInBytes").asLong()).isGreaterThan(0);
+            assertThat(status.get("reservedBytes").asLong()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void findRouteSkylinesByBidirectionalARSC() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            seed(session);
+            for (String[] nodes : new String[][]{{"n0", "n5"}, {"n5", "n0"}, {"s", "t"}}) {
+                String query = "MATCH (startNode:Node{name:$start}), (destinationNode:Node{name:$destination}) " +
+                        "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {cost: 20.0}, ['HIGHWAY', 'STREET'], {bidirectional: $bidirectional, lowerBounds: $lowerBounds}) " +
+                        "YIELD route RETURN route;";
+                List<String> routes = session.run(query, Values.parameters("start", nodes[0], "destination", nodes[1], "bidirectional", false, "lowerBounds", "paretoprep"))
+                        .list(x -> x.get("route").asString());
+                for (String lowerBounds : new String[]{"paretoprep", "multidijkstra"}) {
+                    List<String> bidirectionalRoutes = session.run(query, Values.parameters("start", nodes[0], "destination", nodes[1], "bidirectional", true, "lowerBounds", lowerBounds))
+                            .list(x -> x.get("route").asString());
+                    assertThat(bidirectionalRoutes).isNotEmpty().containsExactlyInAnyOrderElementsOf(routes);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void reuseLowerBoundsUntilTheWeightsChange() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            session.run("CREATE (x:Node{name:'cx'}), (y:Node{name:'cy'}), (z:Node{name:'cz'}), " +
+                    "(x)-[:STREET{length:5, cost:1}]->(z), (x)-[:STREET{length:1, cost:1}]->(y), (y)-[:STREET{length:10, cost:10}]->(z)");
+            String query = "MATCH (startNode:Node{name:'cx'}), (destinationNode:Node{name:'cz'}) " +
+                    "CALL dbis.BRSC(startNode, destinationNode, ['length', 'cost'], {lowerBounds: 'paretoprep'}) YIELD route RETURN route;";
+            assertThat(session.run(query).list()).hasSize(1);
+            long hitCount = session.run("CALL dbis.lowerBounds.status()").single().get("hitCount").asLong();
+            assertThat(session.run(query).list()).hasSize(1);
+            assertThat(session.run("CALL dbis.lowerBounds.status()").single().get("hitCount").asLong()).isGreaterThan(hitCount);
+
+            // the route over cy is no longer dominated, the cached bounds of cy would still prune it
+            session.run("MATCH (:Node{name:'cy'})-[street:STREET]->(:Node{name:'cz'}) SET street.length = 1, street.cost = 1");
+            assertThat(session.run(query).list()).hasSize(2);
+        }
+    }
+
+    @Test
+    public void findRouteSkylinesByARSCBatch() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            seed(session);
+            String[][] pairs = {{"n0", "n5"}, {"n1", "n5"}, {"n5", "n0"}, {"n2", "n5"}, {"n3", "n0"}};
+            String query = "MATCH (startNode:Node{name:$start}), (destinationNode:Node{name:$destination}) " +
+                    "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {cost: 20.0}, ['HIGHWAY', 'STREET'], {engine: 'snapshot'}) " +
+                    "YIELD route RETURN route;";
+            List<String> routes = new ArrayList<>();
+            for (int pairIndex = 0; pairIndex < pairs.length; pairIndex++) {
+                for (Record record : session.run(query, Values.parameters("start", pairs[pairIndex][0], "destination", pairs[pairIndex][1])).list()) {
+                    routes.add(pairIndex + " " + record.get("route").asString());
+                }
+            }
+            String batchQuery = "UNWIND $pairs AS pair MATCH (startNode:Node{name:pair[0]}), (destinationNode:Node{name:pair[1]}) " +
+                    "WITH collect([startNode, destinationNode]) AS pairs " +
+                    "CALL dbis.ARSCBatch(pairs, ['length', 'cost'], {cost: 20.0}, ['HIGHWAY', 'STREET'], {engine: 'snapshot', threads: $threads}) " +
+                    "YIELD pairIndex, route RETURN pairIndex, route;";
+            for (int threads : new int[]{1, 3}) {
+                List<String> batchRoutes = session.run(batchQuery, Values.parameters("pairs", Arrays.stream(pairs).map(Arrays::asList).collect(Collectors.toList()), "threads", threads))
+                        .list(x -> x.get("pairIndex").asLong() + " " + x.get("route").asString());
+                assertThat(batchRoutes).isNotEmpty().containsExactlyInAnyOrderElementsOf(routes);
+            }
+        }
+    }
+
+    @Test
+    public void findRouteSkylinesByARSCOnSeveralThreads() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            seed(session);
+            String query = "MATCH (startNode:Node{name:$start}), (destinationNode:Node{name:$destination}) " +
+                    "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {cost: 20.0}, ['HIGHWAY', 'STREET'], {engine: 'snapshot'}) " +
+                    "YIELD route RETURN route;";
+            String parallelQuery = "MATCH (startNode:Node{name:$start}), (destinationNode:Node{name:$destination}) " +
+                    "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {cost: 20.0}, ['HIGHWAY', 'STREET'], {engine: 'snapshot', threads: $threads}) " +
+                    "YIELD route RETURN route;";
+            for (String[] pair : new String[][]{{"n0", "n5"}, {"n5", "n0"}, {"s", "t"}}) {
+                List<String> routes = session.run(query, Values.parameters("start", pair[0], "destination", pair[1]))
+                        .list(x -> x.get("route").asString());
+                for (int threads : new int[]{1, 2, 4}) {
+                    assertThat(session.run(parallelQuery, Values.parameters("start", pair[0], "destination", pair[1], "threads", threads))
+                            .list(x -> x.get("route").asString()))
+                            .isNotEmpty().containsExactlyInAnyOrderElementsOf(routes);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void findRouteSkylinesByARSCOneToMany() {
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            seed(session);
+            // the bidirectional mode finds the Pareto set, as the one-to-many search does
+            String query = "MATCH (startNode:Node{name:$start}), (destinationNode:Node{name:$destination}) " +
+                    "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {}, ['HIGHWAY', 'STREET'], {bidirectional: true}) " +
+                    "YIELD route RETURN route;";
+            String oneToManyQuery = "MATCH (startNode:Node{name:$start}) UNWIND $destinations AS destination MATCH (destinationNode:Node{name:destination}) " +
+                    "WITH startNode, collect(destinationNode) AS destinationNodes " +
+                    "CALL dbis.ARSCOneToMany(startNode, destinationNodes, ['length', 'cost'], {}, ['HIGHWAY', 'STREET']) " +
+                    "YIELD destination, route RETURN destination.name AS destination, route;";
+            for (List<String> nodes : Arrays.asList(Arrays.asList("n0", "n1", "n2", "n3", "n4", "n5", "n5"), Arrays.asList("s", "t", "a", "d"))) {
+                String start = nodes.get(0);
+                List<String> destinations = nodes.subList(1, nodes.size());
+                List<String> routes = new ArrayList<>();
+                for (String destination : new LinkedHashSet<>(destinations)) {
+                    for (Record record : session.run(query, Values.parameters("start", start, "destination", destination)).list()) {
+                        routes.add(destination + " " + record.get("route").asString());
+                    }
+                }
+                List<String> oneToManyRoutes = session.run(oneToManyQuery, Values.parameters("start", start, "destinations", destinations))
+                        .list(x -> x.get("destination").asString() + " " + x.get("route").asString());
+                assertThat(oneToManyRoutes).isNotEmpty().containsExactlyInAnyOrderElementsOf(routes);
+            }
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package project;
+
+import org.neo4j.driver.v1.*;
+import org.neo4j.harness.ServerControls;
+import org.neo4j.harness.TestServerBuilders;
+
+import java.util.*;
+
+/**
+ * Time of dbis.ARSC on each of THREAD_COUNTS between random nodes of a SIZE x SIZE grid whose neighbours are connected
+ * in both directions by edges of two random criteria, so the route skylines and the frontiers get large. Every run
+ * takes the threads option, so the one on one thread runs the parallel search as well. The lower bounds cache is
+ * filled before the runs, so they time the search only. Prints the number of routes and a checksum of the routes of
+ * every run, to compare them. Run by hand like SampleTest.
+ */
+public class ParallelARSCBenchmark {
+    private static final int SIZE = 50;
+    private static final int QUERY_COUNT = 10;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+    private static List<Map<String, Object>> gridEdges(Random random) {
+        List<Map<String, Object>> edges = new ArrayList<>();
+        for (int row = 0; row < SIZE; row++) {
+            for (int column = 0; column < SIZE; column++) {
+                int node = row * SIZE + column;
+                if (column + 1 < SIZE) {
+                    edges.add(edge(random, node, node + 1));
+                    edges.add(edge(random, node + 1, node));
+                }
+                if (row + 1 < SIZE) {
+                    edges.add(edge(random, node, node + SIZE));
+                    edges.add(edge(random, node + SIZE, node));
+                }
+            }
+        }
+        return edges;
+    }
+
+    private static Map<String, Object> edge(Random random, int startNode, int endNode) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("start", startNode);
+        properties.put("end", endNode);
+        properties.put("length", 1 + random.nextInt(20));
+        properties.put("cost", 1 + random.nextInt(20));
+        return properties;
+    }
+
+    public static void main(String[] args) {
+        final Config driverConfig = Config.build().withoutEncryption().toConfig();
+        ServerControls embeddedDatabaseServer = TestServerBuilders
+                .newInProcessBuilder()
+                .withProcedure(MultiPreferencePathPlannerARSC.class)
+                .newServer();
+
+        try (Driver driver = GraphDatabase.driver(embeddedDatabaseServer.boltURI(), driverConfig); Session session = driver.session()) {
+            Random random = new Random(42);
+            session.run("UNWIND range(0, $nodeCount - 1) AS name CREATE (:Node{name: name})", Values.parameters("nodeCount", SIZE * SIZE));
+            session.run("UNWIND $edges AS edge MATCH (start:Node{name: edge.start}), (end:Node{name: edge.end}) " +
+                    "CREATE (start)-[:STREET{length: edge.length, cost: edge.cost}]->(end)",
+                    Values.parameters("edges", gridEdges(random)));
+            String query = "MATCH (startNode:Node{name: $start}), (destinationNode:Node{name: $destination}) " +
+                    "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {}, null, {engine: 'snapshot', threads: $threads}) " +
+                    "YIELD route RETURN route";
+
+            List<Value> queries = new ArrayList<>();
+            Random queryRandom = new Random(7);
+            for (int queryIndex = 0; queryIndex < QUERY_COUNT; queryIndex++) {
+                queries.add(Values.parameters("start", queryRandom.nextInt(SIZE * SIZE), "destination", queryRandom.nextInt(SIZE * SIZE)));
+            }
+            // builds the graph snapshot and the lower bounds of every destination
+            for (Value parameters : queries) {
+                session.run(query, Values.parameters("start", parameters.get("start"), "destination", parameters.get("destination"), "threads", 1)).consume();
+            }
+
+            for (int threadCount : THREAD_COUNTS) {
+                long start = System.currentTimeMillis();
+                long routeCount = 0;
+                List<List<String>> routes = new ArrayList<>();
+                for (Value parameters : queries) {
+                    List<String> queryRoutes = session.run(query, Values.parameters("start", parameters.get("start"),
+                            "destination", parameters.get("destination"), "threads", threadCount)).list(record -> record.get("route").asString());
+                    Collections.sort(queryRoutes);
+                    routeCount += queryRoutes.size();
+                    routes.add(queryRoutes);
+                }
+                System.out.println(threadCount + " thread(s): " + routeCount + " routes, checksum " + routes.hashCode() + ", "
+                        + (System.currentTimeMillis() - start) + " ms");
+            }
+        }
+        embeddedDatabaseServer.close();
+        System.out.println("Completed");
+    }
+}
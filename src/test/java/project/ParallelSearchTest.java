@@ -0,0 +1,102 @@
+package project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import project.Graphs.Graph;
+import project.Graphs.GraphEngine;
+import project.LowerBoundsCalculators.LandmarkIndexManager;
+import project.LowerBoundsCalculators.LowerBoundsCalculator;
+import project.LowerBoundsCalculators.LowerBoundsMethod;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelSearchTest {
+    private static final int GRID_SIZE = 8;
+    private static final List<String> PROPERTY_KEYS = Arrays.asList("length", "cost");
+
+    // a grid with edges in both directions, whose criteria are not correlated
+    private static void createGrid(GraphDatabaseService db) {
+        Random random = new Random(42);
+        try (Transaction tx = db.beginTx()) {
+            Node[] nodes = new Node[GRID_SIZE * GRID_SIZE];
+            for (int node = 0; node < nodes.length; node++) {
+                nodes[node] = db.createNode();
+            }
+            for (int node = 0; node < nodes.length; node++) {
+                for (int neighbour : new int[]{node % GRID_SIZE < GRID_SIZE - 1 ? node + 1 : -1, node + GRID_SIZE < nodes.length ? node + GRID_SIZE : -1}) {
+                    if (neighbour >= 0) {
+                        for (Relationship relationship : new Relationship[]{
+                                nodes[node].createRelationshipTo(nodes[neighbour], RelationshipType.withName("STREET")),
+                                nodes[neighbour].createRelationshipTo(nodes[node], RelationshipType.withName("STREET"))}) {
+                            relationship.setProperty("length", 1d + random.nextInt(10));
+                            relationship.setProperty("cost", 1d + random.nextInt(10));
+                        }
+                    }
+                }
+            }
+            tx.success();
+        }
+    }
+
+    private static List<String> routeCosts(Iterable<Label> routeSkylines) {
+        return StreamSupport.stream(routeSkylines.spliterator(), false)
+                .map(route -> Arrays.toString(route.getCosts()))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void severalThreadsFindTheRouteSkylineOfOne(@TempDir File storeDirectory) throws Exception {
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabase(storeDirectory);
+        try {
+            createGrid(db);
+            try (Transaction tx = db.beginTx()) {
+                LandmarkIndexManager.build(db, null, PROPERTY_KEYS, 4);
+                Graph graph = GraphEngine.SNAPSHOT.open(db, null, PROPERTY_KEYS, null);
+                long startNodeId = graph.toGraphNodeId(0);
+                int largestRouteSkylineSize = 0;
+                long roundCount = 0;
+                long settledCount = 0;
+                for (long destinationNeo4jNodeId : new long[]{GRID_SIZE - 1, GRID_SIZE * GRID_SIZE / 2 + 3, GRID_SIZE * GRID_SIZE - 1}) {
+                    long destinationNodeId = graph.toGraphNodeId(destinationNeo4jNodeId);
+                    List<String> expectedRouteCosts = routeCosts(new ForwardSearch(graph, startNodeId, destinationNodeId, new double[0],
+                            (graphNodeId, propertyIndex) -> 0d, null, new PerformanceReporter()).run());
+                    assertThat(expectedRouteCosts).isNotEmpty();
+                    largestRouteSkylineSize = Math.max(largestRouteSkylineSize, expectedRouteCosts.size());
+                    for (LowerBoundsMethod lowerBoundsMethod : LowerBoundsMethod.values()) {
+                        LowerBoundsCalculator lowerBoundsCalculator = lowerBoundsMethod.open(db, graph, null, startNodeId, destinationNodeId);
+                        for (int threads : new int[]{1, 2, 4}) {
+                            ParallelSearch search = new ParallelSearch(graph, startNodeId, destinationNodeId, new double[0], lowerBoundsCalculator,
+                                    Collections.singletonMap(ParallelSearch.THREADS_OPTION_KEY, threads), new PerformanceReporter());
+                            assertThat(routeCosts(search.run()))
+                                    .as("route skyline with %s lower bounds on %d thread(s)", lowerBoundsMethod, threads)
+                                    .isEqualTo(expectedRouteCosts);
+                            roundCount += search.getRoundCount();
+                            settledCount += search.getSettledCount();
+                        }
+                    }
+                }
+                assertThat(largestRouteSkylineSize).isGreaterThan(1);
+                // the rounds take more than one label, or the threads had nothing to share
+                assertThat(settledCount).isGreaterThan(roundCount);
+                tx.success();
+            }
+        } finally {
+            db.shutdown();
+        }
+    }
+}
@@ -3,7 +3,9 @@ package project;
 import org.neo4j.driver.v1.*;
 import org.neo4j.harness.ServerControls;
 import org.neo4j.harness.TestServerBuilders;
+import project.CacheManagers.CacheManagerType;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
@@ -13,6 +15,10 @@ public class SampleTest {
     private final static short TOTAL_NODE_COUNT = 3353; //3353;
     private static short ITERATION_COUNT = 1;
 
+    // about the 500 labels the cache managers were compared at before the budget was given in bytes
+    private static final long MEMORY_BUDGET_IN_BYTES = 64 * 1024;
+    private static CacheManagerType[] comparedCacheManagers = {CacheManagerType.LFUDA, CacheManagerType.WTINYLFU};
+
     private static int[] testNodePairsArray = {1371, 1579, 698, 2207, 2136, 3190, 2867, 1123, 3239, 776, 633, 2190, 3329, 1682, 205, 1657, 530, 2787, 2566, 2722, 2512, 616, 1771, 605, 1473, 1138, 1046, 1875, 628, 2527, 1610, 3009, 2932, 1122, 2550, 2079, 2543, 1876, 1791, 1560, 450, 3230, 3237, 176, 2770, 2030, 1898, 460, 2174, 801, 2364, 1194, 2576, 2784, 2751, 632, 2675, 2466, 158, 651, 509, 1952, 1824, 3265, 748, 2908, 2825, 3159, 2369, 372, 2476, 2149, 1391, 1432, 2278, 1537, 1266, 2226, 1445, 2760, 878, 168, 37, 2138, 2230, 686, 290, 3332, 2318, 1338, 300, 709, 2691, 2977, 2664, 3337, 939, 1177, 3313, 351, 84, 1730, 2251, 491, 1481, 663, 1669, 3203, 209, 1937, 2745, 475, 2508, 1170, 1132, 2618, 234, 1963, 968, 3197, 1772, 2899, 96, 127, 675, 2041, 1927, 2491, 1040, 3069, 1338, 2519, 3176, 3217, 882, 1825, 2458, 1349, 2138, 971, 2607, 379, 804, 523, 1269, 2044, 2475, 2079, 775, 1925, 793, 2987, 438, 1496, 2225, 1228, 1871, 1174, 3039, 2959, 56, 2005, 2374, 1148, 1767, 2670, 3079, 710, 3060, 2075, 1759, 2639, 3200, 685, 1372, 2841, 1268, 3289, 53, 1438, 700, 1575, 210, 2879, 3262, 3216, 604, 266, 577, 2574, 755, 3280, 2078, 1386, 481, 23, 3095, 3121, 151, 2541};
 
     private static Void createRome99Graph(Transaction tx) {
@@ -46,15 +52,16 @@ public class SampleTest {
 
 
         String theodorosRome99QueryString = "LOAD CSV FROM 'file:////Users/thodoriscjn/Desktop/Coding/utkucan-tuerkan/src/test/java/project/rome99.csv' AS line MERGE (start:Node{name:line[0]}) MERGE (destination:Node{name:line[1]}) MERGE (start)-[:GOES_TO{length:line[2], cost:50}]->(destination)";
+        String rome99QueryString = "LOAD CSV FROM '" + new File("src/test/java/project/rome99.csv").toURI() + "' AS line MERGE (start:Node{name:line[0]}) MERGE (destination:Node{name:line[1]}) MERGE (start)-[:GOES_TO{length:line[2], cost:50}]->(destination)";
         String utkucanRome99QueryString = "LOAD CSV FROM 'file:///D:/MasterProjects/MasterProjectNeo4jImplementation/src/test/java/project/rome99.csv' AS line MERGE (start:Node{name:line[0]}) MERGE (destination:Node{name:line[1]}) MERGE (start)-[:GOES_TO{length:line[2], cost:50}]->(destination)";
 
-        tx.run(utkucanRome99QueryString);
+        tx.run(rome99QueryString);
         return null;
     }
 
-    private static Void runARSC(Transaction tx, int startNode, int endNode) {
+    private static Void runARSC(Transaction tx, int startNode, int endNode, CacheManagerType cacheManager) {
         tx.run("MATCH (startNode:Node{name:'" + startNode + "'}), (destinationNode:Node{name:'" + endNode + "'}) " +
-                "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost']) " +
+                "CALL dbis.ARSC(startNode, destinationNode, ['length', 'cost'], {}, null, {cacheManager: '" + cacheManager + "', memoryBudget: " + MEMORY_BUDGET_IN_BYTES + "}) " +
                 "YIELD route " +
                 "RETURN route");
         return null;
@@ -81,16 +88,25 @@ public class SampleTest {
         System.out.println("Done loading graph.");
 
 
-        for (int indexOfPair = 0; indexOfPair < testNodePairsArray.length; indexOfPair += 2) {
-            int startNode = testNodePairsArray[indexOfPair];
-            int endNode = testNodePairsArray[indexOfPair + 1];
-            session.readTransaction(new TransactionWork<Void>() {
-                @Override
-                public Void execute(Transaction transaction) {
-                    runARSC(transaction, startNode, endNode);
-                    return null;
-                }
-            });
+        for (CacheManagerType cacheManager : comparedCacheManagers) {
+            for (int indexOfPair = 0; indexOfPair < testNodePairsArray.length; indexOfPair += 2) {
+                int startNode = testNodePairsArray[indexOfPair];
+                int endNode = testNodePairsArray[indexOfPair + 1];
+                session.readTransaction(new TransactionWork<Void>() {
+                    @Override
+                    public Void execute(Transaction transaction) {
+                        runARSC(transaction, startNode, endNode, cacheManager);
+                        return null;
+                    }
+                });
+            }
+        }
+
+        System.out.println("Hit ratios on the rome99 workload:");
+        for (CacheManagerType cacheManager : comparedCacheManagers) {
+            String cacheManagerName = cacheManager.create().name();
+            System.out.println(cacheManagerName + ": " + PerformanceReporter.totalHitRatio(cacheManagerName)
+                    + " (" + (long) PerformanceReporter.totalMissCount(cacheManagerName) + " misses)");
         }
 
         /*
@@ -102,7 +118,7 @@ public class SampleTest {
                 session.readTransaction(new TransactionWork<Void>() {
                     @Override
                     public Void execute(Transaction transaction) {
-                        runARSC(transaction, randomStartNodeName, randomEndNodeName);
+                        runARSC(transaction, randomStartNodeName, randomEndNodeName, CacheManagerType.LFUDA);
                         return null;
                     }
                 });
@@ -111,6 +127,8 @@ public class SampleTest {
             }
         }*/
         session.close();
+        driver.close();
+        embeddedDatabaseServer.close();
         System.out.println("Completed");
     }
 }
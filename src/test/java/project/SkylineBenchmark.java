@@ -0,0 +1,79 @@
+package project;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import project.DataStructures.Skyline;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of building the skyline of labelCount random labels of criteriaCount criteria, whose costs sum up to about the
+ * same value as the costs of routes that trade one criterion for another, by a list pruned by linear scans as ARSC did
+ * and by the sorted skyline. Run by hand like SampleTest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkylineBenchmark {
+    @Param({"3", "4", "5"})
+    public int criteriaCount;
+
+    @Param({"1000", "10000"})
+    public int labelCount;
+
+    private Label[] labels;
+
+    @Setup(Level.Trial)
+    public void createLabels() {
+        Random random = new Random(42);
+        labels = new Label[labelCount];
+        for (int index = 0; index < labelCount; index++) {
+            labels[index] = new Label(0, criteriaCount, 0);
+            double[] costs = labels[index].getCosts();
+            double sum = 0;
+            for (int criterion = 0; criterion < criteriaCount; criterion++) {
+                costs[criterion] = random.nextDouble();
+                sum += costs[criterion];
+            }
+            double length = 100 * (1 + 0.1 * random.nextDouble());
+            for (int criterion = 0; criterion < criteriaCount; criterion++) {
+                costs[criterion] = Math.rint(costs[criterion] / sum * length);
+            }
+        }
+    }
+
+    @Benchmark
+    public int listScan() {
+        List<Label> subRoutes = new LinkedList<>();
+        for (Label label : labels) {
+            if (!label.isDominatedInRouteList(subRoutes) && !subRoutes.contains(label)) {
+                subRoutes.add(label);
+                subRoutes.removeIf(subRoute -> subRoute.isDominatedBy(label));
+            }
+        }
+        return subRoutes.size();
+    }
+
+    @Benchmark
+    public int skyline() {
+        Skyline<Label> subRoutes = new Skyline<>(criteriaCount, Label::getCosts);
+        for (Label label : labels) {
+            if (!subRoutes.contains(label)) {
+                subRoutes.add(label);
+            }
+        }
+        return subRoutes.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SkylineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
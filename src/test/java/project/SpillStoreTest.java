@@ -0,0 +1,77 @@
+package project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpillStoreTest {
+
+    private static List<Label> localSkyline(long nodeId, int labelCount) {
+        List<Label> labels = new ArrayList<>();
+        for (int labelIndex = 0; labelIndex < labelCount; labelIndex++) {
+            Label label = new Label(nodeId, 2, 1);
+            label.getCosts()[0] = labelIndex;
+            label.getCosts()[1] = labelCount - labelIndex;
+            label.getResources()[0] = labelIndex * 0.5;
+            labels.add(label);
+        }
+        return labels;
+    }
+
+    @Test
+    public void readsSpilledLabelsBack(@TempDir File directory) throws IOException {
+        try (SpillStore spillStore = new SpillStore(directory)) {
+            spillStore.write(1, localSkyline(1, 3));
+            spillStore.write(2, localSkyline(2, 0));
+            spillStore.write(3, localSkyline(3, 5));
+
+            assertThat(spillStore.file().getParentFile()).isEqualTo(directory);
+            assertThat(spillStore.read(3)).containsExactlyElementsOf(localSkyline(3, 5));
+            assertThat(spillStore.read(2)).isEmpty();
+            List<Label> labels = spillStore.read(1);
+            assertThat(labels).containsExactlyElementsOf(localSkyline(1, 3));
+            assertThat(labels.get(2).getResources()).containsExactly(1.0);
+            assertThat(spillStore.contains(1)).isFalse();
+            assertThat(spillStore.read(1)).isNull();
+        }
+    }
+
+    @Test
+    public void reusesTheSpaceOfReloadedNodes(@TempDir File directory) throws IOException {
+        try (SpillStore spillStore = new SpillStore(directory)) {
+            for (int round = 0; round < 100; round++) {
+                for (long nodeId = 0; nodeId < 1000; nodeId++) {
+                    spillStore.write(nodeId, localSkyline(nodeId, (int) (nodeId + round) % 7 + 1));
+                }
+                for (long nodeId = round % 2; nodeId < 1000; nodeId += 2) {
+                    assertThat(spillStore.read(nodeId)).hasSize((int) (nodeId + round) % 7 + 1);
+                }
+            }
+            // at most 1000 nodes of 7 labels of 32 bytes are spilled at the same time
+            assertThat(spillStore.sizeInBytes()).isLessThanOrEqualTo(1 << 20);
+            assertThat(spillStore.spilledNodeCount()).isEqualTo(500);
+        }
+        assertThat(directory.listFiles()).isEmpty();
+    }
+
+    @Test
+    public void keepsTheLabelsWhenTheSegmentGrows(@TempDir File directory) throws IOException {
+        SpillStore spillStore = new SpillStore(directory);
+        // 5000 nodes of 10 labels of 32 bytes outgrow the initial segment of 1 MiB twice
+        for (long nodeId = 0; nodeId < 5000; nodeId++) {
+            spillStore.write(nodeId, localSkyline(nodeId, 10));
+        }
+        assertThat(spillStore.sizeInBytes()).isGreaterThan(1 << 20);
+        for (long nodeId = 0; nodeId < 5000; nodeId++) {
+            assertThat(spillStore.read(nodeId)).containsExactlyElementsOf(localSkyline(nodeId, 10));
+        }
+        spillStore.close();
+        assertThat(spillStore.file()).doesNotExist();
+    }
+}